@@ -6,6 +6,7 @@ import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
 import org.springframework.boot.autoconfigure.sql.init.SqlInitializationAutoConfiguration;
 import org.springframework.jms.annotation.EnableJms;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(
   exclude = {
@@ -15,6 +16,7 @@ import org.springframework.jms.annotation.EnableJms;
   }
 )
 @EnableJms
+@EnableScheduling
 public class AccountServiceApplication {
 
   public static void main(String[] args) {
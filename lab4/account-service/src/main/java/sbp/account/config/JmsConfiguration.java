@@ -6,11 +6,16 @@ import jakarta.jms.ConnectionFactory;
 import jakarta.jms.Queue;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import org.apache.activemq.command.ActiveMQQueue;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.jms.annotation.EnableJms;
 import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
 import org.springframework.jms.config.JmsListenerContainerFactory;
@@ -25,6 +30,10 @@ import sbp.dto.jms.FundsProcessedEvent;
 import sbp.dto.jms.ReleaseFundsCommand;
 import sbp.dto.jms.ReserveFundsCommand;
 import sbp.dto.jms.SendConfirmationCodeCommand;
+import sbp.dto.messaging.BinaryJmsMessageConverter;
+import sbp.dto.messaging.CodecRoutingJmsTemplate;
+import sbp.dto.messaging.JmsListenerThreadingCustomizer;
+import sbp.dto.messaging.JmsProducerPool;
 
 @Configuration
 @EnableJms
@@ -38,7 +47,7 @@ public class JmsConfiguration {
   }
 
   @Bean
-  public MessageConverter jacksonJmsMessageConverter(
+  public MessageConverter jmsMessageConverter(
     @Qualifier("objectMapperForJms") ObjectMapper objectMapper
   ) {
     MappingJackson2MessageConverter converter =
@@ -75,17 +84,53 @@ public class JmsConfiguration {
     );
     converter.setTypeIdMappings(typeIdMappings);
 
-    return converter;
+    // JSON остается форматом по умолчанию и запасным для двоичного кодека
+    return new BinaryJmsMessageConverter(converter);
+  }
+
+  /**
+   * Пул сессий и продюсеров для отправки через JmsTemplate (sbp.jms.producer-pool.enabled=true).
+   * Слушатели по-прежнему работают с исходной фабрикой соединений; XA-фабрика (Atomikos)
+   * не оборачивается, см. JmsProducerPool.
+   */
+  @Bean
+  @ConditionalOnProperty(
+    name = "sbp.jms.producer-pool.enabled",
+    havingValue = "true"
+  )
+  public JmsProducerPool jmsProducerPool(
+    ConnectionFactory connectionFactory,
+    @Value("${sbp.jms.producer-pool.session-cache-size:10}") int sessionCacheSize,
+    @Value(
+      "${sbp.jms.producer-pool.stats-log-interval-ms:60000}"
+    ) long statsLogIntervalMs
+  ) {
+    return new JmsProducerPool(
+      "account-service",
+      connectionFactory,
+      sessionCacheSize,
+      statsLogIntervalMs
+    );
   }
 
   @Bean
   public JmsTemplate jmsTemplate(
     ConnectionFactory connectionFactory,
-    MessageConverter messageConverter
+    MessageConverter messageConverter,
+    ObjectProvider<JmsProducerPool> jmsProducerPool,
+    @Value(
+      "${sbp.jms.binary-codec.destinations:}"
+    ) Set<String> binaryDestinations
   ) {
-    JmsTemplate template = new JmsTemplate(connectionFactory);
+    JmsProducerPool producerPool = jmsProducerPool.getIfAvailable();
+    CodecRoutingJmsTemplate template = new CodecRoutingJmsTemplate(
+      producerPool != null
+        ? producerPool.getConnectionFactory()
+        : connectionFactory
+    );
     template.setMessageConverter(messageConverter);
     template.setSessionTransacted(true);
+    template.setBinaryDestinations(binaryDestinations);
     return template;
   }
 
@@ -93,13 +138,29 @@ public class JmsConfiguration {
   public JmsListenerContainerFactory<?> jmsListenerContainerFactory(
     ConnectionFactory connectionFactory,
     DefaultJmsListenerContainerFactoryConfigurer configurer,
-    MessageConverter messageConverter
+    MessageConverter messageConverter,
+    Environment environment,
+    @Value(
+      "${sbp.account.partitioning.enabled:false}"
+    ) boolean partitioningEnabled,
+    @Value("${sbp.account.partitions:16}") int partitions
   ) {
     DefaultJmsListenerContainerFactory factory =
       new DefaultJmsListenerContainerFactory();
     configurer.configure(factory, connectionFactory);
     factory.setMessageConverter(messageConverter);
     factory.setSessionTransacted(true);
+    JmsListenerThreadingCustomizer.customize(factory, environment);
+
+    if (partitioningEnabled) {
+      // Партиционированное потребление: transfer-service проставляет JMSXGroupID по номеру отправителя,
+      // ActiveMQ закрепляет каждую группу за одним консьюмером. Уровень кэширования не меняем:
+      // при JTA-менеджере контейнер по умолчанию не кэширует сессии (XA-сессия Atomikos
+      // привязывается к одной транзакции). Клиент ActiveMQ откладывает закрытие консьюмера
+      // до завершения транзакции, поэтому группа переходит к другому консьюмеру только после
+      // коммита и команды одного счета по-прежнему обрабатываются по очереди.
+      factory.setConcurrency(partitions + "-" + partitions);
+    }
 
     return factory;
   }
@@ -43,6 +43,13 @@ public class Account {
   @Column(length = 100)
   private String email;
 
+  // "Горячий" счет: зачисления распределяются по AccountBalanceShard
+  @Column(nullable = false, columnDefinition = "boolean default false")
+  private boolean hot;
+
+  // Номер последней записи журнала леджера, учтенной в балансе (режим LEDGER)
+  private Long ledgerSeq;
+
   @Version
   private Long version; // Для оптимистичной блокировки
 
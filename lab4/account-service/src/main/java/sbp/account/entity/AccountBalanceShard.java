@@ -0,0 +1,41 @@
+package sbp.account.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Суб-баланс "горячего" счета. Зачисления распределяются по шардам,
+ * чтобы не блокировать единственную строку в accounts; периодически шарды
+ * сворачиваются в основной баланс.
+ */
+@Entity
+@Table(
+  name = "account_balance_shards",
+  uniqueConstraints = @UniqueConstraint(
+    name = "uk_account_balance_shards_phone_shard",
+    columnNames = { "phoneNumber", "shardIndex" }
+  )
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountBalanceShard {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, length = 10)
+  private String phoneNumber;
+
+  @Column(nullable = false)
+  private int shardIndex;
+
+  @Column(nullable = false, precision = 19, scale = 2)
+  private BigDecimal amount;
+}
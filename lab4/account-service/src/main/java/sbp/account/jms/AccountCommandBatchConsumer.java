@@ -0,0 +1,168 @@
+package sbp.account.jms;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sbp.account.service.AccountService;
+import sbp.account.service.FundsUpdateMode;
+import sbp.dto.JmsQueueNames;
+import sbp.dto.inbox.MessageInbox;
+import sbp.dto.jms.ReleaseFundsCommand;
+import sbp.dto.jms.ReserveFundsCommand;
+
+/**
+ * Пакетный режим обработки команд счетов (account.batch.enabled=true).
+ * Вместо AccountCommandListener вычитывает до N команд из очередей резервирования и списания
+ * и применяет их одной JTA-транзакцией: получение сообщений, обновление счетов и отправка событий
+ * фиксируются одним двухфазным коммитом на весь пакет.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!test")
+@ConditionalOnProperty(name = "account.batch.enabled", havingValue = "true")
+public class AccountCommandBatchConsumer {
+
+  private final AccountService accountService;
+  private final JmsTemplate jmsTemplate;
+  private final MessageInbox messageInbox;
+
+  @Value("${account.funds.update-mode:ENTITY}")
+  private FundsUpdateMode fundsUpdateMode;
+
+  @Value("${account.batch.max-size:100}")
+  private int maxBatchSize;
+
+  @Value("${account.batch.receive-timeout-ms:20}")
+  private long receiveTimeoutMs;
+
+  @PostConstruct
+  public void checkFundsUpdateMode() {
+    // Пакет пишет в accounts напрямую, а в режиме LEDGER таблицу перезаписывает чекпоинт леджера
+    if (fundsUpdateMode == FundsUpdateMode.LEDGER) {
+      throw new IllegalStateException(
+        "account.batch.enabled=true is not supported with account.funds.update-mode=LEDGER"
+      );
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${account.batch.poll-interval-ms:50}")
+  @Transactional
+  public void drainAndProcess() {
+    List<ReleaseFundsCommand> releaseCommands = receiveBatch(
+      JmsQueueNames.ACCOUNT_RELEASE_FUNDS_CMD_QUEUE,
+      ReleaseFundsCommand.class,
+      maxBatchSize
+    );
+    List<ReserveFundsCommand> reserveCommands = receiveBatch(
+      JmsQueueNames.ACCOUNT_RESERVE_FUNDS_CMD_QUEUE,
+      ReserveFundsCommand.class,
+      maxBatchSize - releaseCommands.size()
+    );
+    if (reserveCommands.isEmpty() && releaseCommands.isEmpty()) {
+      return;
+    }
+    // Дубликаты отбрасываем до применения пакета; ключи фиксируются вместе с пакетом
+    releaseCommands = releaseCommands
+      .stream()
+      .filter(command ->
+        acquire(AccountInboxKeys.releaseFunds(command), command.getCorrelationId())
+      )
+      .toList();
+    reserveCommands = reserveCommands
+      .stream()
+      .filter(command ->
+        acquire(AccountInboxKeys.RESERVE_FUNDS, command.getCorrelationId())
+      )
+      .toList();
+
+    log.info(
+      "Drained account command batch: reserve={}, release={}",
+      reserveCommands.size(),
+      releaseCommands.size()
+    );
+    try {
+      accountService.processBatch(reserveCommands, releaseCommands);
+    } catch (Exception e) {
+      // Откат JTA-транзакции вернет все сообщения пакета в очереди для повторной доставки
+      log.error(
+        "Error processing account command batch. Reason: {}",
+        e.getMessage(),
+        e
+      );
+      throw new RuntimeException(
+        "Error processing account command batch: " + e.getMessage(),
+        e
+      );
+    }
+  }
+
+  private boolean acquire(String messageType, UUID correlationId) {
+    if (messageInbox.tryAcquire(messageType, correlationId)) {
+      return true;
+    }
+    log.warn(
+      "Duplicate {} skipped in batch for CorrelationId: {}",
+      messageType,
+      correlationId
+    );
+    return false;
+  }
+
+  private <T> List<T> receiveBatch(
+    String queueName,
+    Class<T> commandType,
+    int limit
+  ) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    // Сессия JmsTemplate привязана к текущей JTA-транзакции, поэтому прием сообщений
+    // подтверждается только вместе с коммитом пакета
+    return jmsTemplate.execute(
+      session -> {
+        List<T> commands = new ArrayList<>();
+        MessageConsumer consumer = session.createConsumer(
+          session.createQueue(queueName)
+        );
+        try {
+          while (commands.size() < limit) {
+            Message message = consumer.receive(receiveTimeoutMs);
+            if (message == null) {
+              break;
+            }
+            Object payload = jmsTemplate
+              .getMessageConverter()
+              .fromMessage(message);
+            if (!commandType.isInstance(payload)) {
+              throw new IllegalStateException(
+                "Unexpected payload in " +
+                queueName +
+                ": " +
+                (payload == null ? null : payload.getClass().getName())
+              );
+            }
+            commands.add(commandType.cast(payload));
+          }
+        } finally {
+          JmsUtils.closeMessageConsumer(consumer);
+        }
+        return commands;
+      },
+      true
+    );
+  }
+}
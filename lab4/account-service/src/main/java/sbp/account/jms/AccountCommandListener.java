@@ -2,12 +2,14 @@ package sbp.account.jms;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Profile;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 import sbp.account.service.AccountService;
 import sbp.dto.JmsQueueNames;
+import sbp.dto.inbox.MessageInbox;
 import sbp.dto.jms.ReleaseFundsCommand;
 import sbp.dto.jms.ReserveFundsCommand;
 
@@ -15,9 +17,15 @@ import sbp.dto.jms.ReserveFundsCommand;
 @RequiredArgsConstructor
 @Slf4j
 @Profile("!test")
+@ConditionalOnProperty(
+  name = "account.batch.enabled",
+  havingValue = "false",
+  matchIfMissing = true
+)
 public class AccountCommandListener {
 
   private final AccountService accountService;
+  private final MessageInbox messageInbox;
 
   @JmsListener(
     destination = JmsQueueNames.ACCOUNT_RESERVE_FUNDS_CMD_QUEUE,
@@ -31,6 +39,19 @@ public class AccountCommandListener {
       command.getAmount()
     );
     try {
+      // Ключ inbox записывается в той же транзакции, что и изменение счета
+      if (
+        !messageInbox.tryAcquire(
+          AccountInboxKeys.RESERVE_FUNDS,
+          command.getCorrelationId()
+        )
+      ) {
+        log.warn(
+          "Duplicate ReserveFundsCommand skipped for CorrelationId: {}",
+          command.getCorrelationId()
+        );
+        return;
+      }
       // Вызов @Transactional метода сервиса.
       // Если accountService.reserveFunds() выбросит исключение, JTA-транзакция (начатая слушателем) откатится.
       // Это включает откат изменений в БД и откат отправки сообщений, сделанных внутри reserveFunds().
@@ -66,6 +87,19 @@ public class AccountCommandListener {
       command.isFinalDebit()
     );
     try {
+      if (
+        !messageInbox.tryAcquire(
+          AccountInboxKeys.releaseFunds(command),
+          command.getCorrelationId()
+        )
+      ) {
+        log.warn(
+          "Duplicate ReleaseFundsCommand skipped for CorrelationId: {}, IsFinalDebit={}",
+          command.getCorrelationId(),
+          command.isFinalDebit()
+        );
+        return;
+      }
       accountService.processFundsReleaseOrDebit(command);
       log.info(
         "Successfully processed ReleaseFundsCommand for CorrelationId: {}",
@@ -0,0 +1,22 @@
+package sbp.account.jms;
+
+import sbp.dto.jms.ReleaseFundsCommand;
+import sbp.dto.jms.ReserveFundsCommand;
+
+/**
+ * Типы сообщений для ключей идемпотентного inbox.
+ * Окончательное списание и отмена резерва по одному переводу - разные операции, поэтому ключи различаются.
+ */
+final class AccountInboxKeys {
+
+  static final String RESERVE_FUNDS = ReserveFundsCommand.class.getSimpleName();
+
+  private AccountInboxKeys() {}
+
+  static String releaseFunds(ReleaseFundsCommand command) {
+    return (
+      ReleaseFundsCommand.class.getSimpleName() +
+      (command.isFinalDebit() ? ":FINAL_DEBIT" : ":RELEASE")
+    );
+  }
+}
@@ -0,0 +1,547 @@
+package sbp.account.ledger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sbp.account.entity.Account;
+import sbp.account.repository.AccountRepository;
+import sbp.account.service.FundsUpdateMode;
+import sbp.dto.AccountMessageGroups;
+
+/**
+ * In-memory леджер балансов и резервов (account.funds.update-mode=LEDGER).
+ * <p>
+ * Счета распределены по партициям по хэшу номера телефона; каждую партицию обслуживает
+ * ровно один поток, поэтому операции над счетом выполняются последовательно и без блокировок.
+ * Каждая операция сначала пишется в журнал, затем применяется в памяти. Периодический чекпоинт
+ * сохраняет состояние в accounts вместе с номером последней записи журнала (ledgerSeq),
+ * после чего покрытые сегменты журнала удаляются. При старте состояние поднимается из БД
+ * и доигрывается по журналу.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccountLedger {
+
+  // Ограничение на число запоминаемых ключей идемпотентности на партицию
+  private static final int MAX_DEDUPLICATION_KEYS = 100_000;
+
+  private final AccountRepository accountRepository;
+  private final LedgerCheckpointWriter checkpointWriter;
+
+  @Value("${account.funds.update-mode:ENTITY}")
+  private FundsUpdateMode fundsUpdateMode;
+
+  @Value("${account.ledger.partitions:8}")
+  private int partitionCount;
+
+  @Value("${account.ledger.journal-dir:./ledger-journal/account}")
+  private String journalDir;
+
+  @Value("${account.ledger.journal-fsync:true}")
+  private boolean journalFsync;
+
+  @Value("${account.ledger.operation-timeout-ms:10000}")
+  private long operationTimeoutMs;
+
+  // Сколько последних ключей идемпотентности партиции сохраняется с чекпоинтом
+  @Value("${account.ledger.checkpoint-dedup-keys:10000}")
+  private int checkpointDeduplicationKeys;
+
+  private Partition[] partitions;
+  private LedgerJournal journal;
+
+  public boolean isEnabled() {
+    return fundsUpdateMode == FundsUpdateMode.LEDGER;
+  }
+
+  @PostConstruct
+  public void hydrate() {
+    if (!isEnabled()) {
+      return;
+    }
+    partitions = new Partition[partitionCount];
+    for (int i = 0; i < partitionCount; i++) {
+      partitions[i] = new Partition(i);
+    }
+
+    List<Account> accounts = accountRepository.findAll();
+    long checkpointedSeq = 0;
+    for (Account account : accounts) {
+      if (account.getLedgerSeq() != null) {
+        checkpointedSeq = Math.max(checkpointedSeq, account.getLedgerSeq());
+      }
+      partitionOf(account.getPhoneNumber()).accounts.put(
+        account.getPhoneNumber(),
+        new LedgerAccount(
+          account.getPhoneNumber(),
+          account.getEmail(),
+          account.getBalance(),
+          account.getReservedAmount(),
+          account.getLedgerSeq() == null ? 0 : account.getLedgerSeq(),
+          false
+        )
+      );
+    }
+
+    journal = new LedgerJournal(Paths.get(journalDir), journalFsync);
+    // Ключи записей из уже удаленных сегментов - из снимка последнего чекпоинта
+    List<String> savedKeys = journal.readDeduplicationKeys();
+    for (String line : savedKeys) {
+      int separator = line.indexOf(' ');
+      String phoneNumber = line.substring(0, separator);
+      partitionOf(phoneNumber).rememberKey(
+        line.substring(separator + 1),
+        phoneNumber
+      );
+    }
+    List<LedgerJournalEntry> entries = journal.recover(checkpointedSeq);
+    int replayed = 0;
+    for (LedgerJournalEntry entry : entries) {
+      Partition partition = partitionOf(entry.getPhoneNumber());
+      partition.rememberKey(entry.deduplicationKey(), entry.getPhoneNumber());
+      LedgerAccount account = partition.accounts.get(entry.getPhoneNumber());
+      if (account != null && entry.getSeq() <= account.getLastSeq()) {
+        continue; // Уже учтено чекпоинтом
+      }
+      partition.apply(entry);
+      replayed++;
+    }
+    log.info(
+      "Account ledger hydrated: {} account(s) from DB, {} of {} journal entries replayed, {} saved dedup key(s), {} partition(s)",
+      accounts.size(),
+      replayed,
+      entries.size(),
+      savedKeys.size(),
+      partitionCount
+    );
+  }
+
+  /**
+   * Резервирует средства, если доступный остаток достаточен.
+   */
+  public LedgerResult reserve(
+    String phoneNumber,
+    BigDecimal amount,
+    UUID correlationId
+  ) {
+    return execute(phoneNumber, partition -> {
+      if (partition.isDuplicate(LedgerOperationType.RESERVE, correlationId)) {
+        return LedgerResult.DUPLICATE;
+      }
+      LedgerAccount account = partition.load(phoneNumber);
+      if (account == null) {
+        return LedgerResult.ACCOUNT_NOT_FOUND;
+      }
+      if (account.getAvailableBalance().compareTo(amount) < 0) {
+        return LedgerResult.INSUFFICIENT_FUNDS;
+      }
+      partition.record(
+        LedgerOperationType.RESERVE,
+        phoneNumber,
+        amount,
+        correlationId,
+        null
+      );
+      return LedgerResult.APPLIED;
+    });
+  }
+
+  /**
+   * Снимает резерв (не ниже нуля).
+   */
+  public LedgerResult release(
+    String phoneNumber,
+    BigDecimal amount,
+    UUID correlationId
+  ) {
+    return execute(phoneNumber, partition -> {
+      if (partition.isDuplicate(LedgerOperationType.RELEASE, correlationId)) {
+        return LedgerResult.DUPLICATE;
+      }
+      if (partition.load(phoneNumber) == null) {
+        return LedgerResult.ACCOUNT_NOT_FOUND;
+      }
+      partition.record(
+        LedgerOperationType.RELEASE,
+        phoneNumber,
+        amount,
+        correlationId,
+        null
+      );
+      return LedgerResult.APPLIED;
+    });
+  }
+
+  /**
+   * Списывает зарезервированную сумму с баланса отправителя.
+   */
+  public LedgerResult debit(
+    String phoneNumber,
+    BigDecimal amount,
+    UUID correlationId
+  ) {
+    return execute(phoneNumber, partition -> {
+      if (partition.isDuplicate(LedgerOperationType.DEBIT, correlationId)) {
+        return LedgerResult.DUPLICATE;
+      }
+      LedgerAccount account = partition.load(phoneNumber);
+      if (account == null) {
+        return LedgerResult.ACCOUNT_NOT_FOUND;
+      }
+      if (account.getReservedAmount().compareTo(amount) < 0) {
+        return LedgerResult.INSUFFICIENT_FUNDS;
+      }
+      partition.record(
+        LedgerOperationType.DEBIT,
+        phoneNumber,
+        amount,
+        correlationId,
+        null
+      );
+      return LedgerResult.APPLIED;
+    });
+  }
+
+  /**
+   * Зачисляет сумму получателю, создавая счет при отсутствии.
+   *
+   * @return Email получателя.
+   */
+  public String credit(
+    String phoneNumber,
+    BigDecimal amount,
+    UUID correlationId,
+    String defaultEmail
+  ) {
+    return execute(phoneNumber, partition -> {
+      LedgerAccount account = partition.load(phoneNumber);
+      if (account == null) {
+        log.warn(
+          "Recipient account {} not found, creating new one with default email. CorrelationId: {}",
+          phoneNumber,
+          correlationId
+        );
+        partition.record(
+          LedgerOperationType.CREATE,
+          phoneNumber,
+          null,
+          correlationId,
+          defaultEmail
+        );
+        account = partition.accounts.get(phoneNumber);
+      }
+      if (!partition.isDuplicate(LedgerOperationType.CREDIT, correlationId)) {
+        partition.record(
+          LedgerOperationType.CREDIT,
+          phoneNumber,
+          amount,
+          correlationId,
+          null
+        );
+      }
+      return account.getEmail();
+    });
+  }
+
+  /**
+   * Возвращает копию состояния счета.
+   */
+  public LedgerAccount find(String phoneNumber) {
+    return execute(phoneNumber, partition -> {
+      LedgerAccount account = partition.load(phoneNumber);
+      return account == null ? null : account.copy();
+    });
+  }
+
+  @Scheduled(fixedDelayString = "${account.ledger.checkpoint-interval-ms:5000}")
+  public synchronized void checkpoint() {
+    if (!isEnabled()) {
+      return;
+    }
+    // Все записи закрытых сегментов применены до снимка: снимок выполняется
+    // в потоке партиции после уже начатых операций
+    List<Path> closedSegments = journal.rotate();
+    List<LedgerAccount> snapshot = new ArrayList<>();
+    for (Partition partition : partitions) {
+      snapshot.addAll(await(partition.submit(partition::drainDirty)));
+    }
+    if (!snapshot.isEmpty()) {
+      try {
+        checkpointWriter.write(snapshot);
+      } catch (RuntimeException e) {
+        log.error(
+          "Ledger checkpoint failed, {} account(s) will be retried. Reason: {}",
+          snapshot.size(),
+          e.getMessage(),
+          e
+        );
+        snapshot.forEach(account -> {
+          Partition partition = partitionOf(account.getPhoneNumber());
+          await(partition.submit(() -> partition.markDirty(account)));
+        });
+        return;
+      }
+      log.debug("Ledger checkpoint persisted {} account(s)", snapshot.size());
+    }
+    if (closedSegments.isEmpty()) {
+      return;
+    }
+    // Ключи удаляемых записей должны пережить рестарт, иначе повторная доставка
+    // уже примененной команды будет применена еще раз
+    List<String> keys = new ArrayList<>();
+    for (Partition partition : partitions) {
+      keys.addAll(
+        await(
+          partition.submit(() ->
+            partition.recentKeys(checkpointDeduplicationKeys)
+          )
+        )
+      );
+    }
+    try {
+      journal.writeDeduplicationKeys(keys);
+    } catch (RuntimeException e) {
+      log.error(
+        "Failed to save ledger deduplication keys, journal segments are kept. Reason: {}",
+        e.getMessage(),
+        e
+      );
+      return;
+    }
+    journal.delete(closedSegments);
+  }
+
+  @PreDestroy
+  public void shutdown() throws IOException {
+    if (!isEnabled()) {
+      return;
+    }
+    checkpoint();
+    for (Partition partition : partitions) {
+      partition.executor.shutdown();
+    }
+    journal.close();
+  }
+
+  private Partition partitionOf(String phoneNumber) {
+    return partitions[AccountMessageGroups.partitionOf(
+        phoneNumber,
+        partitionCount
+      )];
+  }
+
+  private <T> T execute(String phoneNumber, PartitionTask<T> task) {
+    if (!isEnabled()) {
+      throw new IllegalStateException("Account ledger is disabled");
+    }
+    Partition partition = partitionOf(phoneNumber);
+    return await(partition.submit(() -> task.run(partition)));
+  }
+
+  private <T> T await(Future<T> future) {
+    try {
+      return future.get(operationTimeoutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for ledger", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(
+        "Ledger operation failed: " + e.getCause().getMessage(),
+        e.getCause()
+      );
+    } catch (TimeoutException e) {
+      future.cancel(false);
+      throw new RuntimeException("Ledger operation timed out", e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface PartitionTask<T> {
+    T run(Partition partition);
+  }
+
+  /**
+   * Партиция леджера: состояние доступно только ее единственному потоку.
+   */
+  private final class Partition {
+
+    private final ExecutorService executor;
+    private final Map<String, LedgerAccount> accounts = new HashMap<>();
+    // Ключ идемпотентности -> телефон счета (нужен, чтобы разложить ключи по партициям при восстановлении)
+    private final Map<String, String> recentKeys = new LinkedHashMap<>(
+      16,
+      0.75f,
+      false
+    ) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+        return size() > MAX_DEDUPLICATION_KEYS;
+      }
+    };
+
+    Partition(int index) {
+      this.executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "account-ledger-" + index);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+
+    <T> Future<T> submit(Callable<T> task) {
+      return executor.submit(task);
+    }
+
+    LedgerAccount load(String phoneNumber) {
+      LedgerAccount account = accounts.get(phoneNumber);
+      if (account == null) {
+        // Счет создан в БД после гидратации (например, DataInitializer) - подгружаем лениво
+        account = accountRepository
+          .findByPhoneNumber(phoneNumber)
+          .map(a ->
+            new LedgerAccount(
+              a.getPhoneNumber(),
+              a.getEmail(),
+              a.getBalance(),
+              a.getReservedAmount(),
+              a.getLedgerSeq() == null ? 0 : a.getLedgerSeq(),
+              false
+            )
+          )
+          .orElse(null);
+        if (account != null) {
+          accounts.put(phoneNumber, account);
+        }
+      }
+      return account;
+    }
+
+    boolean isDuplicate(LedgerOperationType type, UUID correlationId) {
+      return recentKeys.containsKey(type + ":" + correlationId);
+    }
+
+    void rememberKey(String key, String phoneNumber) {
+      recentKeys.put(key, phoneNumber);
+    }
+
+    // Последние limit ключей в порядке записи, строками "телефон ключ"
+    List<String> recentKeys(int limit) {
+      List<String> lines = new ArrayList<>(Math.min(limit, recentKeys.size()));
+      int skip = recentKeys.size() - limit;
+      for (Map.Entry<String, String> entry : recentKeys.entrySet()) {
+        if (skip-- > 0) {
+          continue;
+        }
+        lines.add(entry.getValue() + " " + entry.getKey());
+      }
+      return lines;
+    }
+
+    void record(
+      LedgerOperationType type,
+      String phoneNumber,
+      BigDecimal amount,
+      UUID correlationId,
+      String email
+    ) {
+      // Сначала журнал, затем память: после сбоя операция будет доиграна
+      LedgerJournalEntry entry = journal.append(
+        type,
+        phoneNumber,
+        amount,
+        correlationId,
+        email
+      );
+      rememberKey(entry.deduplicationKey(), phoneNumber);
+      apply(entry);
+    }
+
+    void apply(LedgerJournalEntry entry) {
+      LedgerAccount account = accounts.get(entry.getPhoneNumber());
+      if (entry.getType() == LedgerOperationType.CREATE) {
+        if (account == null) {
+          account = new LedgerAccount(
+            entry.getPhoneNumber(),
+            entry.getEmail(),
+            BigDecimal.ZERO,
+            BigDecimal.ZERO,
+            entry.getSeq(),
+            true
+          );
+          accounts.put(entry.getPhoneNumber(), account);
+        }
+        return;
+      }
+      if (account == null) {
+        log.warn(
+          "Ledger entry {} references unknown account {}, skipping",
+          entry.getSeq(),
+          entry.getPhoneNumber()
+        );
+        return;
+      }
+      switch (entry.getType()) {
+        case RESERVE -> account.setReservedAmount(
+          account.getReservedAmount().add(entry.getAmount())
+        );
+        case RELEASE -> account.setReservedAmount(
+          account
+            .getReservedAmount()
+            .subtract(entry.getAmount())
+            .max(BigDecimal.ZERO)
+        );
+        case DEBIT -> {
+          account.setReservedAmount(
+            account.getReservedAmount().subtract(entry.getAmount())
+          );
+          account.setBalance(account.getBalance().subtract(entry.getAmount()));
+        }
+        case CREDIT -> account.setBalance(
+          account.getBalance().add(entry.getAmount())
+        );
+        default -> throw new IllegalStateException(
+          "Unsupported ledger operation: " + entry.getType()
+        );
+      }
+      account.setLastSeq(entry.getSeq());
+      account.setDirty(true);
+    }
+
+    Void markDirty(LedgerAccount snapshot) {
+      accounts.get(snapshot.getPhoneNumber()).setDirty(true);
+      return null;
+    }
+
+    List<LedgerAccount> drainDirty() {
+      List<LedgerAccount> dirty = new ArrayList<>();
+      for (LedgerAccount account : accounts.values()) {
+        if (account.isDirty()) {
+          dirty.add(account.copy());
+          account.setDirty(false);
+        }
+      }
+      return dirty;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package sbp.account.ledger;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Состояние счета в леджере. Изменяется только потоком партиции, владеющей счетом.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class LedgerAccount {
+
+  private final String phoneNumber;
+  private String email;
+  private BigDecimal balance;
+  private BigDecimal reservedAmount;
+  // Номер последней примененной записи журнала
+  private long lastSeq;
+  private boolean dirty;
+
+  public BigDecimal getAvailableBalance() {
+    return balance.subtract(reservedAmount);
+  }
+
+  LedgerAccount copy() {
+    return new LedgerAccount(
+      phoneNumber,
+      email,
+      balance,
+      reservedAmount,
+      lastSeq,
+      dirty
+    );
+  }
+}
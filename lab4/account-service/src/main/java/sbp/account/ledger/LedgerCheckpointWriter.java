@@ -0,0 +1,47 @@
+package sbp.account.ledger;
+
+import jakarta.transaction.Transactional;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import sbp.account.entity.Account;
+import sbp.account.repository.AccountRepository;
+
+/**
+ * Сохраняет снимок леджера в таблицу accounts одной транзакцией.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerCheckpointWriter {
+
+  private final AccountRepository accountRepository;
+
+  @Transactional
+  public void write(List<LedgerAccount> snapshot) {
+    Map<String, Account> existing = accountRepository
+      .findByPhoneNumberIn(
+        snapshot.stream().map(LedgerAccount::getPhoneNumber).toList()
+      )
+      .stream()
+      .collect(Collectors.toMap(Account::getPhoneNumber, Function.identity()));
+
+    for (LedgerAccount ledgerAccount : snapshot) {
+      Account account = existing.get(ledgerAccount.getPhoneNumber());
+      if (account == null) {
+        account = new Account(
+          ledgerAccount.getPhoneNumber(),
+          ledgerAccount.getEmail()
+        );
+      }
+      account.setBalance(ledgerAccount.getBalance());
+      account.setReservedAmount(ledgerAccount.getReservedAmount());
+      account.setLedgerSeq(ledgerAccount.getLastSeq());
+      accountRepository.save(account);
+    }
+  }
+}
@@ -0,0 +1,269 @@
+package sbp.account.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only журнал операций леджера, разбитый на сегменты journal-&lt;startSeq&gt;.log.
+ * Сегменты, полностью покрытые чекпоинтом, удаляются.
+ */
+@Slf4j
+class LedgerJournal implements Closeable {
+
+  private static final String SEGMENT_PREFIX = "journal-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final String KEYS_FILE = "dedup-keys.snapshot";
+
+  private final Path directory;
+  private final boolean fsync;
+
+  private FileChannel channel;
+  private Path currentSegment;
+  private long currentSegmentEntries;
+  private long lastSeq;
+
+  LedgerJournal(Path directory, boolean fsync) {
+    this.directory = directory;
+    this.fsync = fsync;
+  }
+
+  /**
+   * Читает все сегменты и открывает новый сегмент для записи.
+   * <p>
+   * Нумерация продолжается с максимума из записей, начала сегментов и checkpointedSeq: после
+   * чекпоинта сегменты с записями удалены, но номера не должны повторяться - иначе новые записи
+   * окажутся не больше ledgerSeq счетов в БД и будут пропущены при доигрывании.
+   *
+   * @param checkpointedSeq Наибольший ledgerSeq, сохраненный чекпоинтом в БД.
+   */
+  synchronized List<LedgerJournalEntry> recover(long checkpointedSeq) {
+    List<LedgerJournalEntry> entries = new ArrayList<>();
+    lastSeq = Math.max(lastSeq, checkpointedSeq);
+    try {
+      Files.createDirectories(directory);
+      for (Path segment : listSegments()) {
+        // Имя сегмента - номер его первой записи, даже если сам сегмент пуст
+        lastSeq = Math.max(lastSeq, segmentStartSeq(segment) - 1);
+        List<String> lines = Files.readAllLines(
+          segment,
+          StandardCharsets.UTF_8
+        );
+        for (int i = 0; i < lines.size(); i++) {
+          String line = lines.get(i);
+          if (line.isBlank()) {
+            continue;
+          }
+          try {
+            LedgerJournalEntry entry = LedgerJournalEntry.parse(line);
+            entries.add(entry);
+            lastSeq = Math.max(lastSeq, entry.getSeq());
+          } catch (RuntimeException e) {
+            // Недописанная последняя строка после аварийной остановки
+            log.warn(
+              "Skipping malformed journal entry {}:{}: {}",
+              segment.getFileName(),
+              i + 1,
+              e.getMessage()
+            );
+          }
+        }
+      }
+      openSegment();
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+        "Failed to recover ledger journal in " + directory,
+        e
+      );
+    }
+    return entries;
+  }
+
+  synchronized LedgerJournalEntry append(
+    LedgerOperationType type,
+    String phoneNumber,
+    BigDecimal amount,
+    UUID correlationId,
+    String email
+  ) {
+    LedgerJournalEntry entry = new LedgerJournalEntry(
+      lastSeq + 1,
+      type,
+      phoneNumber,
+      amount,
+      correlationId,
+      email
+    );
+    ByteBuffer buffer = ByteBuffer.wrap(
+      (entry.format() + "\n").getBytes(StandardCharsets.UTF_8)
+    );
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      if (fsync) {
+        channel.force(false);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to append ledger journal entry", e);
+    }
+    lastSeq = entry.getSeq();
+    currentSegmentEntries++;
+    return entry;
+  }
+
+  /**
+   * Закрывает текущий сегмент и начинает новый.
+   *
+   * @return Закрытые сегменты: все их записи будут покрыты следующим чекпоинтом.
+   */
+  synchronized List<Path> rotate() {
+    try {
+      List<Path> closed = new ArrayList<>(listSegments());
+      if (currentSegmentEntries == 0) {
+        // Пустой текущий сегмент продолжаем использовать
+        closed.remove(currentSegment);
+        return closed;
+      }
+      channel.close();
+      openSegment();
+      return closed;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to rotate ledger journal", e);
+    }
+  }
+
+  /**
+   * Атомарно заменяет снимок ключей идемпотентности (строки "телефон ключ"). Пишется
+   * перед удалением сегментов, иначе после рестарта ключи удаленных записей будут потеряны.
+   */
+  synchronized void writeDeduplicationKeys(List<String> lines) {
+    Path target = directory.resolve(KEYS_FILE);
+    Path temp = directory.resolve(KEYS_FILE + ".tmp");
+    try {
+      try (
+        FileChannel out = FileChannel.open(
+          temp,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING
+        )
+      ) {
+        ByteBuffer buffer = ByteBuffer.wrap(
+          (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8)
+        );
+        while (buffer.hasRemaining()) {
+          out.write(buffer);
+        }
+        if (fsync) {
+          out.force(true);
+        }
+      }
+      Files.move(
+        temp,
+        target,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE
+      );
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+        "Failed to write ledger deduplication keys",
+        e
+      );
+    }
+  }
+
+  synchronized List<String> readDeduplicationKeys() {
+    Path file = directory.resolve(KEYS_FILE);
+    try {
+      if (!Files.exists(file)) {
+        return List.of();
+      }
+      return Files.readAllLines(file, StandardCharsets.UTF_8)
+        .stream()
+        .filter(line -> !line.isBlank())
+        .toList();
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+        "Failed to read ledger deduplication keys",
+        e
+      );
+    }
+  }
+
+  void delete(List<Path> segments) {
+    for (Path segment : segments) {
+      try {
+        Files.deleteIfExists(segment);
+      } catch (IOException e) {
+        log.warn(
+          "Failed to delete ledger journal segment {}: {}",
+          segment,
+          e.getMessage()
+        );
+      }
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (channel != null && channel.isOpen()) {
+      channel.force(true);
+      channel.close();
+    }
+  }
+
+  private void openSegment() throws IOException {
+    currentSegment = directory.resolve(
+      String.format("%s%020d%s", SEGMENT_PREFIX, lastSeq + 1, SEGMENT_SUFFIX)
+    );
+    channel = FileChannel.open(
+      currentSegment,
+      StandardOpenOption.CREATE,
+      StandardOpenOption.WRITE,
+      StandardOpenOption.APPEND
+    );
+    currentSegmentEntries = 0;
+  }
+
+  private static long segmentStartSeq(Path segment) {
+    String name = segment.getFileName().toString();
+    try {
+      return Long.parseLong(
+        name.substring(
+          SEGMENT_PREFIX.length(),
+          name.length() - SEGMENT_SUFFIX.length()
+        )
+      );
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private List<Path> listSegments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+        .filter(p -> {
+          String name = p.getFileName().toString();
+          return (
+            name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)
+          );
+        })
+        .sorted()
+        .toList();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package sbp.account.ledger;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Запись журнала леджера. Формат строки: seq|type|phone|amount|correlationId|email
+ */
+@Getter
+@AllArgsConstructor
+public class LedgerJournalEntry {
+
+  private static final String SEPARATOR = "|";
+
+  private final long seq;
+  private final LedgerOperationType type;
+  private final String phoneNumber;
+  private final BigDecimal amount;
+  private final UUID correlationId;
+  private final String email;
+
+  public String format() {
+    return (
+      seq +
+      SEPARATOR +
+      type +
+      SEPARATOR +
+      phoneNumber +
+      SEPARATOR +
+      (amount == null ? "" : amount.toPlainString()) +
+      SEPARATOR +
+      (correlationId == null ? "" : correlationId.toString()) +
+      SEPARATOR +
+      (email == null ? "" : email)
+    );
+  }
+
+  public static LedgerJournalEntry parse(String line) {
+    String[] parts = line.split("\\|", 6);
+    if (parts.length != 6) {
+      throw new IllegalArgumentException("Malformed journal entry: " + line);
+    }
+    return new LedgerJournalEntry(
+      Long.parseLong(parts[0]),
+      LedgerOperationType.valueOf(parts[1]),
+      parts[2],
+      parts[3].isEmpty() ? null : new BigDecimal(parts[3]),
+      parts[4].isEmpty() ? null : UUID.fromString(parts[4]),
+      parts[5].isEmpty() ? null : parts[5]
+    );
+  }
+
+  String deduplicationKey() {
+    return type + ":" + correlationId;
+  }
+}
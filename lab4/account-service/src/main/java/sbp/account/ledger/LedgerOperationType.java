@@ -0,0 +1,12 @@
+package sbp.account.ledger;
+
+/**
+ * Типы операций журнала леджера.
+ */
+public enum LedgerOperationType {
+  CREATE,
+  RESERVE,
+  RELEASE,
+  DEBIT,
+  CREDIT,
+}
@@ -0,0 +1,13 @@
+package sbp.account.ledger;
+
+/**
+ * Результат операции над счетом в леджере.
+ */
+public enum LedgerResult {
+  APPLIED,
+  /** Операция с тем же типом и correlationId уже применена (повторная доставка). */
+  DUPLICATE,
+  ACCOUNT_NOT_FOUND,
+  /** Недостаточно доступных средств (для резерва) или зарезервированной суммы (для списания). */
+  INSUFFICIENT_FUNDS,
+}
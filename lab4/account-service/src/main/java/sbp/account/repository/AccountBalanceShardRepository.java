@@ -0,0 +1,43 @@
+package sbp.account.repository;
+
+import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import sbp.account.entity.AccountBalanceShard;
+
+@Repository
+public interface AccountBalanceShardRepository
+  extends JpaRepository<AccountBalanceShard, Long> {
+  @Modifying(flushAutomatically = true)
+  @Query(
+    "UPDATE AccountBalanceShard s SET s.amount = s.amount + :amount " +
+    "WHERE s.phoneNumber = :phoneNumber AND s.shardIndex = :shardIndex"
+  )
+  int credit(
+    @Param("phoneNumber") String phoneNumber,
+    @Param("shardIndex") int shardIndex,
+    @Param("amount") BigDecimal amount
+  );
+
+  @Query(
+    "SELECT COALESCE(SUM(s.amount), 0) FROM AccountBalanceShard s WHERE s.phoneNumber = :phoneNumber"
+  )
+  BigDecimal sumAmountByPhoneNumber(@Param("phoneNumber") String phoneNumber);
+
+  // Блокировка шардов на время консолидации, чтобы параллельные зачисления дождались обнуления
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(
+    "SELECT s FROM AccountBalanceShard s WHERE s.phoneNumber = :phoneNumber ORDER BY s.shardIndex"
+  )
+  List<AccountBalanceShard> findAllForUpdate(
+    @Param("phoneNumber") String phoneNumber
+  );
+
+  List<AccountBalanceShard> findByPhoneNumber(String phoneNumber);
+}
@@ -1,11 +1,68 @@
 package sbp.account.repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import sbp.account.entity.Account;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
   Optional<Account> findByPhoneNumber(String phoneNumber);
+
+  List<Account> findByPhoneNumberIn(Collection<String> phoneNumbers);
+
+  List<Account> findByHotTrue();
+
+  // Атомарные операции: проверка и изменение выполняются одним UPDATE,
+  // результат (0 или 1) показывает, применилась ли операция.
+  // Версия увеличивается, чтобы не ломать оптимистичную блокировку в режиме ENTITY.
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+    "UPDATE Account a SET a.reservedAmount = a.reservedAmount + :amount, a.version = a.version + 1 " +
+    "WHERE a.phoneNumber = :phoneNumber AND a.balance - a.reservedAmount >= :amount"
+  )
+  int reserveIfAvailable(
+    @Param("phoneNumber") String phoneNumber,
+    @Param("amount") BigDecimal amount
+  );
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+    "UPDATE Account a SET a.balance = a.balance - :amount, a.reservedAmount = a.reservedAmount - :amount, " +
+    "a.version = a.version + 1 " +
+    "WHERE a.phoneNumber = :phoneNumber AND a.reservedAmount >= :amount"
+  )
+  int debitFromReserve(
+    @Param("phoneNumber") String phoneNumber,
+    @Param("amount") BigDecimal amount
+  );
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+    "UPDATE Account a SET a.balance = a.balance + :amount, a.version = a.version + 1 " +
+    "WHERE a.phoneNumber = :phoneNumber"
+  )
+  int credit(
+    @Param("phoneNumber") String phoneNumber,
+    @Param("amount") BigDecimal amount
+  );
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+    "UPDATE Account a SET a.reservedAmount = " +
+    "CASE WHEN a.reservedAmount > :amount THEN a.reservedAmount - :amount ELSE 0 END, " +
+    "a.version = a.version + 1 " +
+    "WHERE a.phoneNumber = :phoneNumber"
+  )
+  int releaseReserve(
+    @Param("phoneNumber") String phoneNumber,
+    @Param("amount") BigDecimal amount
+  );
 }
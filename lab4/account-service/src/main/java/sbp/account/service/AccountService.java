@@ -1,5 +1,6 @@
 package sbp.account.service;
 
+import java.util.List;
 import sbp.dto.jms.ReleaseFundsCommand;
 import sbp.dto.jms.ReserveFundsCommand;
 
@@ -20,4 +21,18 @@ public interface AccountService {
    * @throws RuntimeException в случае ошибки.
    */
   void processFundsReleaseOrDebit(ReleaseFundsCommand command);
+
+  /**
+   * Пакетно обрабатывает команды резервирования и списания/отмены резерва в одной транзакции.
+   * Команды группируются по счетам, изменения каждого счета сохраняются одним обновлением.
+   * Ошибочные команды не прерывают пакет: по каждой из них отправляется FundsProcessedEvent с success=false.
+   * Балансы "горячих" счетов учитываются с шардами. Режим LEDGER не поддерживается.
+   *
+   * @param reserveCommands Команды на резервирование средств.
+   * @param releaseCommands Команды на списание/зачисление или отмену резерва.
+   */
+  void processBatch(
+    List<ReserveFundsCommand> reserveCommands,
+    List<ReleaseFundsCommand> releaseCommands
+  );
 }
@@ -2,12 +2,23 @@ package sbp.account.service;
 
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.stereotype.Service;
 import sbp.account.entity.Account;
+import sbp.account.ledger.AccountLedger;
+import sbp.account.ledger.LedgerResult;
 import sbp.account.repository.AccountRepository;
 import sbp.dto.JmsQueueNames;
 import sbp.dto.jms.CompleteTransferCommand;
@@ -23,6 +34,11 @@ public class AccountServiceImpl implements AccountService {
 
   private final AccountRepository accountRepository;
   private final JmsTemplate jmsTemplate;
+  private final BalanceShardService balanceShardService;
+  private final AccountLedger accountLedger;
+
+  @Value("${account.funds.update-mode:ENTITY}")
+  private FundsUpdateMode fundsUpdateMode = FundsUpdateMode.ENTITY;
 
   @Override
   @Transactional
@@ -34,6 +50,15 @@ public class AccountServiceImpl implements AccountService {
       command.getAmount()
     );
 
+    if (fundsUpdateMode == FundsUpdateMode.ATOMIC) {
+      reserveFundsAtomically(command);
+      return;
+    }
+    if (fundsUpdateMode == FundsUpdateMode.LEDGER) {
+      reserveFundsInLedger(command);
+      return;
+    }
+
     Account account = accountRepository
       .findByPhoneNumber(command.getSenderPhoneNumber())
       .orElseThrow(() -> {
@@ -56,8 +81,8 @@ public class AccountServiceImpl implements AccountService {
         );
       });
 
-    BigDecimal availableBalance = account
-      .getBalance()
+    BigDecimal availableBalance = balanceShardService
+      .getTotalBalance(account)
       .subtract(account.getReservedAmount());
     if (availableBalance.compareTo(command.getAmount()) < 0) {
       sendFundsProcessedEventInternal(
@@ -146,6 +171,20 @@ public class AccountServiceImpl implements AccountService {
       command.isFinalDebit()
     );
 
+    if (fundsUpdateMode == FundsUpdateMode.ATOMIC) {
+      processFundsReleaseOrDebitAtomically(command);
+      return;
+    }
+    if (fundsUpdateMode == FundsUpdateMode.LEDGER) {
+      processFundsReleaseOrDebitInLedger(command);
+      return;
+    }
+
+    if (command.isFinalDebit() && balanceShardService.isEnabled()) {
+      // Часть средств "горячего" отправителя может лежать на шардах
+      balanceShardService.consolidate(command.getSenderPhoneNumber());
+    }
+
     Account senderAccount = accountRepository
       .findByPhoneNumber(command.getSenderPhoneNumber())
       .orElseThrow(() -> {
@@ -255,15 +294,25 @@ public class AccountServiceImpl implements AccountService {
       );
 
       // Операции с БД: зачисление получателю
-      recipientAccount.setBalance(
-        recipientAccount.getBalance().add(command.getAmount())
-      );
-      accountRepository.save(recipientAccount);
-      log.info(
-        "Credited to recipient: {}, new balance: {}",
-        recipientAccount.getPhoneNumber(),
-        recipientAccount.getBalance()
-      );
+      if (balanceShardService.isSharded(recipientAccount)) {
+        balanceShardService.credit(
+          recipientAccount.getPhoneNumber(),
+          command.getCorrelationId(),
+          command.getAmount()
+        );
+      } else {
+        // Получатель может обрабатываться в другой партиции (по своим командам):
+        // зачисляем условным UPDATE без проверки @Version загруженной сущности
+        accountRepository.credit(
+          recipientAccount.getPhoneNumber(),
+          command.getAmount()
+        );
+        log.info(
+          "Credited to recipient: {}, amount: {}",
+          recipientAccount.getPhoneNumber(),
+          command.getAmount()
+        );
+      }
 
       // Отправляем событие об успешной обработке средств
       sendFundsProcessedEventInternal(
@@ -318,6 +367,782 @@ public class AccountServiceImpl implements AccountService {
     }
   }
 
+  // --- Режим ATOMIC: условные UPDATE без чтения-изменения-записи сущности ---
+
+  private void reserveFundsAtomically(ReserveFundsCommand command) {
+    if (
+      command.getConfirmationCode() == null ||
+      command.getConfirmationCode().isBlank()
+    ) {
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        null,
+        null,
+        command.getAmount(),
+        false,
+        "Confirmation code is missing in ReserveFundsCommand."
+      );
+      log.error(
+        "Confirmation code is missing in ReserveFundsCommand for correlationId: {}",
+        command.getCorrelationId()
+      );
+      throw new IllegalStateException(
+        "Confirmation code is mandatory for reserving funds."
+      );
+    }
+
+    int updated = accountRepository.reserveIfAvailable(
+      command.getSenderPhoneNumber(),
+      command.getAmount()
+    );
+    if (
+      updated == 0 &&
+      balanceShardService.isEnabled() &&
+      balanceShardService
+        .consolidate(command.getSenderPhoneNumber())
+        .signum() >
+      0
+    ) {
+      // Средства были на шардах "горячего" счета - повторяем после консолидации
+      updated = accountRepository.reserveIfAvailable(
+        command.getSenderPhoneNumber(),
+        command.getAmount()
+      );
+    }
+    if (updated == 0) {
+      // Причину отказа выясняем только на неуспешном пути
+      boolean accountExists = accountRepository
+        .findByPhoneNumber(command.getSenderPhoneNumber())
+        .isPresent();
+      String reason = accountExists
+        ? "Insufficient funds for account: " + command.getSenderPhoneNumber()
+        : "Sender account not found: " + command.getSenderPhoneNumber();
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        null,
+        null,
+        command.getAmount(),
+        false,
+        reason
+      );
+      log.error(
+        "Atomic reservation rejected for correlationId: {}. Reason: {}",
+        command.getCorrelationId(),
+        reason
+      );
+      throw new RuntimeException(
+        accountExists
+          ? reason
+          : "Account not found: " + command.getSenderPhoneNumber()
+      );
+    }
+    log.info(
+      "Funds reserved atomically for account: {}, amount: {}",
+      command.getSenderPhoneNumber(),
+      command.getAmount()
+    );
+
+    sendToNotificationService(
+      SendConfirmationCodeCommand.builder()
+        .correlationId(command.getCorrelationId())
+        .phoneNumber(command.getSenderPhoneNumber())
+        .code(command.getConfirmationCode())
+        .build()
+    );
+    sendFundsProcessedEventInternal(
+      command.getCorrelationId(),
+      command.getSenderPhoneNumber(),
+      null,
+      null,
+      command.getAmount(),
+      true,
+      null
+    );
+  }
+
+  private void processFundsReleaseOrDebitAtomically(
+    ReleaseFundsCommand command
+  ) {
+    if (!command.isFinalDebit()) {
+      // --- Отмена резерва ---
+      if (
+        accountRepository.releaseReserve(
+          command.getSenderPhoneNumber(),
+          command.getAmount()
+        ) ==
+        0
+      ) {
+        throw senderNotFound(command);
+      }
+      log.info(
+        "Reservation cancelled/reduced atomically for account: {}, amount: {}",
+        command.getSenderPhoneNumber(),
+        command.getAmount()
+      );
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        command.getRecipientPhoneNumber(),
+        null,
+        command.getAmount(),
+        false,
+        "Funds reservation cancelled/rolled back."
+      );
+      return;
+    }
+
+    // --- Финальное списание ---
+    if (
+      command.getRecipientPhoneNumber() == null ||
+      command.getRecipientPhoneNumber().isBlank()
+    ) {
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        command.getRecipientPhoneNumber(),
+        null,
+        command.getAmount(),
+        false,
+        "Recipient phone number is null or blank for final debit."
+      );
+      log.error(
+        "Recipient phone number is null or blank for final debit. CorrelationId: {}",
+        command.getCorrelationId()
+      );
+      throw new IllegalArgumentException(
+        "Recipient phone number cannot be null or blank for final debit."
+      );
+    }
+
+    if (balanceShardService.isEnabled()) {
+      balanceShardService.consolidate(command.getSenderPhoneNumber());
+    }
+    if (
+      accountRepository.debitFromReserve(
+        command.getSenderPhoneNumber(),
+        command.getAmount()
+      ) ==
+      0
+    ) {
+      Account senderAccount = accountRepository
+        .findByPhoneNumber(command.getSenderPhoneNumber())
+        .orElseThrow(() -> senderNotFound(command));
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        command.getRecipientPhoneNumber(),
+        null,
+        command.getAmount(),
+        false,
+        "Inconsistent reserved amount for final debit. Reserved: " +
+        senderAccount.getReservedAmount() +
+        ", Requested: " +
+        command.getAmount()
+      );
+      log.error(
+        "Reserved amount {} < debit amount {} for account {}. CorrelationId: {}",
+        senderAccount.getReservedAmount(),
+        command.getAmount(),
+        senderAccount.getPhoneNumber(),
+        command.getCorrelationId()
+      );
+      throw new IllegalStateException(
+        "Inconsistent reserved amount for final debit."
+      );
+    }
+
+    Account recipientAccount = accountRepository
+      .findByPhoneNumber(command.getRecipientPhoneNumber())
+      .orElseGet(() -> {
+        log.warn(
+          "Recipient account {} not found, creating new one with default email. CorrelationId: {}",
+          command.getRecipientPhoneNumber(),
+          command.getCorrelationId()
+        );
+        return accountRepository.save(
+          new Account(
+            command.getRecipientPhoneNumber(),
+            "recipient." + command.getRecipientPhoneNumber() + "@example.com"
+          )
+        );
+      });
+    if (balanceShardService.isSharded(recipientAccount)) {
+      balanceShardService.credit(
+        command.getRecipientPhoneNumber(),
+        command.getCorrelationId(),
+        command.getAmount()
+      );
+    } else {
+      accountRepository.credit(
+        command.getRecipientPhoneNumber(),
+        command.getAmount()
+      );
+    }
+    log.info(
+      "Debited atomically from sender: {}, credited to recipient: {}, amount: {}",
+      command.getSenderPhoneNumber(),
+      command.getRecipientPhoneNumber(),
+      command.getAmount()
+    );
+
+    sendFundsProcessedEventInternal(
+      command.getCorrelationId(),
+      command.getSenderPhoneNumber(),
+      command.getRecipientPhoneNumber(),
+      recipientAccount.getEmail(),
+      command.getAmount(),
+      true,
+      null
+    );
+    sendCompleteTransferCommandInternal(
+      command.getCorrelationId(),
+      command.getSenderPhoneNumber(),
+      command.getRecipientPhoneNumber(),
+      command.getAmount()
+    );
+  }
+
+  // --- Режим LEDGER: решения принимаются по in-memory леджеру ---
+
+  private void reserveFundsInLedger(ReserveFundsCommand command) {
+    if (
+      command.getConfirmationCode() == null ||
+      command.getConfirmationCode().isBlank()
+    ) {
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        null,
+        null,
+        command.getAmount(),
+        false,
+        "Confirmation code is missing in ReserveFundsCommand."
+      );
+      log.error(
+        "Confirmation code is missing in ReserveFundsCommand for correlationId: {}",
+        command.getCorrelationId()
+      );
+      throw new IllegalStateException(
+        "Confirmation code is mandatory for reserving funds."
+      );
+    }
+
+    LedgerResult result = accountLedger.reserve(
+      command.getSenderPhoneNumber(),
+      command.getAmount(),
+      command.getCorrelationId()
+    );
+    if (
+      result == LedgerResult.ACCOUNT_NOT_FOUND ||
+      result == LedgerResult.INSUFFICIENT_FUNDS
+    ) {
+      String reason = result == LedgerResult.ACCOUNT_NOT_FOUND
+        ? "Sender account not found: " + command.getSenderPhoneNumber()
+        : "Insufficient funds for account: " + command.getSenderPhoneNumber();
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        null,
+        null,
+        command.getAmount(),
+        false,
+        reason
+      );
+      log.error(
+        "Ledger reservation rejected for correlationId: {}. Reason: {}",
+        command.getCorrelationId(),
+        reason
+      );
+      throw new RuntimeException(
+        result == LedgerResult.ACCOUNT_NOT_FOUND
+          ? "Account not found: " + command.getSenderPhoneNumber()
+          : reason
+      );
+    }
+    // DUPLICATE: резерв уже применен при предыдущей доставке, события отправляем повторно
+    log.info(
+      "Funds reserved in ledger for account: {}, amount: {}, result: {}",
+      command.getSenderPhoneNumber(),
+      command.getAmount(),
+      result
+    );
+
+    sendToNotificationService(
+      SendConfirmationCodeCommand.builder()
+        .correlationId(command.getCorrelationId())
+        .phoneNumber(command.getSenderPhoneNumber())
+        .code(command.getConfirmationCode())
+        .build()
+    );
+    sendFundsProcessedEventInternal(
+      command.getCorrelationId(),
+      command.getSenderPhoneNumber(),
+      null,
+      null,
+      command.getAmount(),
+      true,
+      null
+    );
+  }
+
+  private void processFundsReleaseOrDebitInLedger(ReleaseFundsCommand command) {
+    if (!command.isFinalDebit()) {
+      // --- Отмена резерва ---
+      if (
+        accountLedger.release(
+          command.getSenderPhoneNumber(),
+          command.getAmount(),
+          command.getCorrelationId()
+        ) ==
+        LedgerResult.ACCOUNT_NOT_FOUND
+      ) {
+        throw senderNotFound(command);
+      }
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        command.getRecipientPhoneNumber(),
+        null,
+        command.getAmount(),
+        false,
+        "Funds reservation cancelled/rolled back."
+      );
+      return;
+    }
+
+    // --- Финальное списание ---
+    if (
+      command.getRecipientPhoneNumber() == null ||
+      command.getRecipientPhoneNumber().isBlank()
+    ) {
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        command.getRecipientPhoneNumber(),
+        null,
+        command.getAmount(),
+        false,
+        "Recipient phone number is null or blank for final debit."
+      );
+      log.error(
+        "Recipient phone number is null or blank for final debit. CorrelationId: {}",
+        command.getCorrelationId()
+      );
+      throw new IllegalArgumentException(
+        "Recipient phone number cannot be null or blank for final debit."
+      );
+    }
+
+    LedgerResult debitResult = accountLedger.debit(
+      command.getSenderPhoneNumber(),
+      command.getAmount(),
+      command.getCorrelationId()
+    );
+    if (debitResult == LedgerResult.ACCOUNT_NOT_FOUND) {
+      throw senderNotFound(command);
+    }
+    if (debitResult == LedgerResult.INSUFFICIENT_FUNDS) {
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        command.getRecipientPhoneNumber(),
+        null,
+        command.getAmount(),
+        false,
+        "Inconsistent reserved amount for final debit. Requested: " +
+        command.getAmount()
+      );
+      log.error(
+        "Reserved amount < debit amount {} for account {}. CorrelationId: {}",
+        command.getAmount(),
+        command.getSenderPhoneNumber(),
+        command.getCorrelationId()
+      );
+      throw new IllegalStateException(
+        "Inconsistent reserved amount for final debit."
+      );
+    }
+
+    // Зачисление выполняется в партиции получателя; повтор после сбоя не зачислит дважды
+    String recipientEmail = accountLedger.credit(
+      command.getRecipientPhoneNumber(),
+      command.getAmount(),
+      command.getCorrelationId(),
+      "recipient." + command.getRecipientPhoneNumber() + "@example.com"
+    );
+    log.info(
+      "Debited in ledger from sender: {}, credited to recipient: {}, amount: {}",
+      command.getSenderPhoneNumber(),
+      command.getRecipientPhoneNumber(),
+      command.getAmount()
+    );
+
+    sendFundsProcessedEventInternal(
+      command.getCorrelationId(),
+      command.getSenderPhoneNumber(),
+      command.getRecipientPhoneNumber(),
+      recipientEmail,
+      command.getAmount(),
+      true,
+      null
+    );
+    sendCompleteTransferCommandInternal(
+      command.getCorrelationId(),
+      command.getSenderPhoneNumber(),
+      command.getRecipientPhoneNumber(),
+      command.getAmount()
+    );
+  }
+
+  private RuntimeException senderNotFound(ReleaseFundsCommand command) {
+    sendFundsProcessedEventInternal(
+      command.getCorrelationId(),
+      command.getSenderPhoneNumber(),
+      command.getRecipientPhoneNumber(),
+      null,
+      command.getAmount(),
+      false,
+      "Sender account not found: " + command.getSenderPhoneNumber()
+    );
+    log.error("Sender account not found: {}", command.getSenderPhoneNumber());
+    return new RuntimeException(
+      "Sender account not found: " + command.getSenderPhoneNumber()
+    );
+  }
+
+  @Override
+  @Transactional
+  public void processBatch(
+    List<ReserveFundsCommand> reserveCommands,
+    List<ReleaseFundsCommand> releaseCommands
+  ) {
+    log.info(
+      "Processing account command batch: reserve={}, release={}",
+      reserveCommands.size(),
+      releaseCommands.size()
+    );
+    if (fundsUpdateMode == FundsUpdateMode.LEDGER) {
+      // Балансы ведет AccountLedger: запись в accounts мимо него затрет чекпоинт
+      throw new IllegalStateException(
+        "Batch processing is not supported with account.funds.update-mode=LEDGER"
+      );
+    }
+
+    if (balanceShardService.isEnabled()) {
+      // Как и в processFundsReleaseOrDebit: перед списанием переносим шарды
+      // "горячих" отправителей в основной баланс, до загрузки сущностей
+      releaseCommands
+        .stream()
+        .filter(ReleaseFundsCommand::isFinalDebit)
+        .map(ReleaseFundsCommand::getSenderPhoneNumber)
+        .distinct()
+        .forEach(balanceShardService::consolidate);
+    }
+
+    // Загружаем все затронутые счета одним запросом
+    Set<String> phoneNumbers = new HashSet<>();
+    reserveCommands.forEach(c -> phoneNumbers.add(c.getSenderPhoneNumber()));
+    releaseCommands.forEach(c -> {
+      phoneNumbers.add(c.getSenderPhoneNumber());
+      if (c.isFinalDebit() && c.getRecipientPhoneNumber() != null) {
+        phoneNumbers.add(c.getRecipientPhoneNumber());
+      }
+    });
+    Map<String, Account> accounts = new HashMap<>();
+    accountRepository
+      .findByPhoneNumberIn(phoneNumbers)
+      .forEach(account -> accounts.put(account.getPhoneNumber(), account));
+
+    // Измененные счета: каждый сохраняется один раз в конце пакета
+    Map<String, Account> dirtyAccounts = new LinkedHashMap<>();
+
+    // Сначала списания/отмены: они освобождают резерв для новых резервирований
+    groupBySender(releaseCommands, ReleaseFundsCommand::getSenderPhoneNumber)
+      .forEach((senderPhone, commands) ->
+        commands.forEach(command ->
+          applyReleaseInBatch(command, accounts, dirtyAccounts)
+        )
+      );
+
+    groupBySender(reserveCommands, ReserveFundsCommand::getSenderPhoneNumber)
+      .forEach((senderPhone, commands) ->
+        applyReservationsInBatch(
+          senderPhone,
+          commands,
+          accounts.get(senderPhone),
+          dirtyAccounts
+        )
+      );
+
+    accountRepository.saveAll(dirtyAccounts.values());
+    log.info(
+      "Account command batch applied: {} account row(s) updated",
+      dirtyAccounts.size()
+    );
+  }
+
+  private <T> Map<String, List<T>> groupBySender(
+    List<T> commands,
+    Function<T, String> senderPhoneExtractor
+  ) {
+    Map<String, List<T>> grouped = new LinkedHashMap<>();
+    for (T command : commands) {
+      grouped
+        .computeIfAbsent(senderPhoneExtractor.apply(command), k ->
+          new ArrayList<>()
+        )
+        .add(command);
+    }
+    return grouped;
+  }
+
+  private void applyReservationsInBatch(
+    String senderPhone,
+    List<ReserveFundsCommand> commands,
+    Account account,
+    Map<String, Account> dirtyAccounts
+  ) {
+    if (account == null) {
+      commands.forEach(command -> {
+        log.error(
+          "[{}] Account not found for phone number: {}",
+          command.getCorrelationId(),
+          senderPhone
+        );
+        sendFundsProcessedEventInternal(
+          command.getCorrelationId(),
+          senderPhone,
+          null,
+          null,
+          command.getAmount(),
+          false,
+          "Sender account not found: " + senderPhone
+        );
+      });
+      return;
+    }
+
+    BigDecimal totalBalance = balanceShardService.getTotalBalance(account);
+    BigDecimal reserved = account.getReservedAmount();
+    for (ReserveFundsCommand command : commands) {
+      if (
+        command.getConfirmationCode() == null ||
+        command.getConfirmationCode().isBlank()
+      ) {
+        log.error(
+          "[{}] Confirmation code is missing in ReserveFundsCommand",
+          command.getCorrelationId()
+        );
+        sendFundsProcessedEventInternal(
+          command.getCorrelationId(),
+          senderPhone,
+          null,
+          null,
+          command.getAmount(),
+          false,
+          "Confirmation code is missing in ReserveFundsCommand."
+        );
+        continue;
+      }
+
+      BigDecimal availableBalance = totalBalance.subtract(reserved);
+      if (availableBalance.compareTo(command.getAmount()) < 0) {
+        log.error(
+          "[{}] Insufficient funds for account: {}. Available: {}, Requested: {}",
+          command.getCorrelationId(),
+          senderPhone,
+          availableBalance,
+          command.getAmount()
+        );
+        sendFundsProcessedEventInternal(
+          command.getCorrelationId(),
+          senderPhone,
+          null,
+          null,
+          command.getAmount(),
+          false,
+          "Insufficient funds for account: " + senderPhone
+        );
+        continue;
+      }
+
+      reserved = reserved.add(command.getAmount());
+      sendToNotificationService(
+        SendConfirmationCodeCommand.builder()
+          .correlationId(command.getCorrelationId())
+          .phoneNumber(senderPhone)
+          .code(command.getConfirmationCode())
+          .build()
+      );
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        senderPhone,
+        null,
+        null,
+        command.getAmount(),
+        true,
+        null
+      );
+    }
+
+    if (reserved.compareTo(account.getReservedAmount()) != 0) {
+      account.setReservedAmount(reserved);
+      dirtyAccounts.put(senderPhone, account);
+      log.info(
+        "Funds reserved in batch for account: {}, new reserved: {}",
+        senderPhone,
+        reserved
+      );
+    }
+  }
+
+  private void applyReleaseInBatch(
+    ReleaseFundsCommand command,
+    Map<String, Account> accounts,
+    Map<String, Account> dirtyAccounts
+  ) {
+    Account senderAccount = accounts.get(command.getSenderPhoneNumber());
+    if (senderAccount == null) {
+      log.error(
+        "[{}] Sender account not found: {}",
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber()
+      );
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        command.getRecipientPhoneNumber(),
+        null,
+        command.getAmount(),
+        false,
+        "Sender account not found: " + command.getSenderPhoneNumber()
+      );
+      return;
+    }
+
+    if (!command.isFinalDebit()) {
+      BigDecimal newReservedAmount = senderAccount
+        .getReservedAmount()
+        .subtract(command.getAmount());
+      if (newReservedAmount.compareTo(BigDecimal.ZERO) < 0) {
+        log.warn(
+          "[{}] Attempt to release more funds ({}) than reserved ({}) for account {}. Setting reserve to 0.",
+          command.getCorrelationId(),
+          command.getAmount(),
+          senderAccount.getReservedAmount(),
+          senderAccount.getPhoneNumber()
+        );
+        newReservedAmount = BigDecimal.ZERO;
+      }
+      senderAccount.setReservedAmount(newReservedAmount);
+      dirtyAccounts.put(senderAccount.getPhoneNumber(), senderAccount);
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        command.getRecipientPhoneNumber(),
+        null,
+        command.getAmount(),
+        false,
+        "Funds reservation cancelled/rolled back."
+      );
+      return;
+    }
+
+    // --- Финальное списание ---
+    if (
+      command.getRecipientPhoneNumber() == null ||
+      command.getRecipientPhoneNumber().isBlank()
+    ) {
+      log.error(
+        "[{}] Recipient phone number is null or blank for final debit",
+        command.getCorrelationId()
+      );
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        command.getRecipientPhoneNumber(),
+        null,
+        command.getAmount(),
+        false,
+        "Recipient phone number is null or blank for final debit."
+      );
+      return;
+    }
+
+    if (senderAccount.getReservedAmount().compareTo(command.getAmount()) < 0) {
+      log.error(
+        "[{}] Reserved amount {} < debit amount {} for account {}",
+        command.getCorrelationId(),
+        senderAccount.getReservedAmount(),
+        command.getAmount(),
+        senderAccount.getPhoneNumber()
+      );
+      sendFundsProcessedEventInternal(
+        command.getCorrelationId(),
+        command.getSenderPhoneNumber(),
+        command.getRecipientPhoneNumber(),
+        null,
+        command.getAmount(),
+        false,
+        "Inconsistent reserved amount for final debit. Reserved: " +
+        senderAccount.getReservedAmount() +
+        ", Requested: " +
+        command.getAmount()
+      );
+      return;
+    }
+
+    Account recipientAccount = accounts.computeIfAbsent(
+      command.getRecipientPhoneNumber(),
+      phone -> {
+        log.warn(
+          "[{}] Recipient account {} not found, creating new one with default email",
+          command.getCorrelationId(),
+          phone
+        );
+        return new Account(phone, "recipient." + phone + "@example.com");
+      }
+    );
+
+    senderAccount.setReservedAmount(
+      senderAccount.getReservedAmount().subtract(command.getAmount())
+    );
+    senderAccount.setBalance(
+      senderAccount.getBalance().subtract(command.getAmount())
+    );
+    dirtyAccounts.put(senderAccount.getPhoneNumber(), senderAccount);
+    if (balanceShardService.isSharded(recipientAccount)) {
+      balanceShardService.credit(
+        recipientAccount.getPhoneNumber(),
+        command.getCorrelationId(),
+        command.getAmount()
+      );
+    } else {
+      recipientAccount.setBalance(
+        recipientAccount.getBalance().add(command.getAmount())
+      );
+      dirtyAccounts.put(recipientAccount.getPhoneNumber(), recipientAccount);
+    }
+
+    sendFundsProcessedEventInternal(
+      command.getCorrelationId(),
+      command.getSenderPhoneNumber(),
+      command.getRecipientPhoneNumber(),
+      recipientAccount.getEmail(),
+      command.getAmount(),
+      true,
+      null
+    );
+    sendCompleteTransferCommandInternal(
+      command.getCorrelationId(),
+      command.getSenderPhoneNumber(),
+      command.getRecipientPhoneNumber(),
+      command.getAmount()
+    );
+  }
+
   private void sendToNotificationService(SendConfirmationCodeCommand command) {
     try {
       jmsTemplate.convertAndSend(
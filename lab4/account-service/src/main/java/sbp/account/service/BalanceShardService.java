@@ -0,0 +1,45 @@
+package sbp.account.service;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import sbp.account.entity.Account;
+
+public interface BalanceShardService {
+  /**
+   * Включен ли режим шардирования балансов (account.sharding.enabled).
+   */
+  boolean isEnabled();
+
+  /**
+   * Проверяет, ведется ли баланс счета по шардам.
+   *
+   * @param account Счет.
+   * @return true, если режим включен и счет помечен как "горячий".
+   */
+  boolean isSharded(Account account);
+
+  /**
+   * Зачисляет сумму на шард счета, выбранный по хэшу correlationId.
+   *
+   * @param phoneNumber Номер счета получателя.
+   * @param correlationId Идентификатор перевода.
+   * @param amount Сумма зачисления.
+   */
+  void credit(String phoneNumber, UUID correlationId, BigDecimal amount);
+
+  /**
+   * Возвращает полный баланс счета: основной баланс плюс сумма шардов.
+   *
+   * @param account Счет.
+   * @return Полный баланс.
+   */
+  BigDecimal getTotalBalance(Account account);
+
+  /**
+   * Переносит накопленные на шардах суммы в основной баланс счета.
+   *
+   * @param phoneNumber Номер счета.
+   * @return Перенесенная сумма.
+   */
+  BigDecimal consolidate(String phoneNumber);
+}
@@ -0,0 +1,183 @@
+package sbp.account.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import sbp.account.entity.Account;
+import sbp.account.entity.AccountBalanceShard;
+import sbp.account.repository.AccountBalanceShardRepository;
+import sbp.account.repository.AccountRepository;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Order(10) // После DataInitializer: помечаемые счета должны уже существовать
+public class BalanceShardServiceImpl
+  implements BalanceShardService, ApplicationRunner {
+
+  private final AccountRepository accountRepository;
+  private final AccountBalanceShardRepository shardRepository;
+
+  @Value("${account.sharding.enabled:false}")
+  private boolean enabled;
+
+  @Value("${account.sharding.shard-count:8}")
+  private int shardCount;
+
+  @Value("${account.sharding.hot-accounts:}")
+  private List<String> hotAccounts;
+
+  @Value("${account.funds.update-mode:ENTITY}")
+  private FundsUpdateMode fundsUpdateMode = FundsUpdateMode.ENTITY;
+
+  @PostConstruct
+  public void checkFundsUpdateMode() {
+    // Леджер не учитывает шарды, а консолидация в accounts затирается его чекпоинтом
+    if (enabled && fundsUpdateMode == FundsUpdateMode.LEDGER) {
+      throw new IllegalStateException(
+        "account.sharding.enabled=true is not supported with account.funds.update-mode=LEDGER"
+      );
+    }
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public boolean isSharded(Account account) {
+    return enabled && account.isHot();
+  }
+
+  @Override
+  @Transactional
+  public void credit(String phoneNumber, UUID correlationId, BigDecimal amount) {
+    int shardIndex = Math.floorMod(correlationId.hashCode(), shardCount);
+    int updated = shardRepository.credit(phoneNumber, shardIndex, amount);
+    if (updated == 0) {
+      // Шард еще не создан (например, счет помечен "горячим" вручную) - создаем его с суммой зачисления
+      log.warn(
+        "Balance shard {} for account {} not found, creating it",
+        shardIndex,
+        phoneNumber
+      );
+      shardRepository.save(
+        AccountBalanceShard.builder()
+          .phoneNumber(phoneNumber)
+          .shardIndex(shardIndex)
+          .amount(amount)
+          .build()
+      );
+    }
+    log.debug(
+      "Credited {} to account {} shard {}. CorrelationId: {}",
+      amount,
+      phoneNumber,
+      shardIndex,
+      correlationId
+    );
+  }
+
+  @Override
+  public BigDecimal getTotalBalance(Account account) {
+    if (!isSharded(account)) {
+      return account.getBalance();
+    }
+    return account
+      .getBalance()
+      .add(shardRepository.sumAmountByPhoneNumber(account.getPhoneNumber()));
+  }
+
+  @Override
+  @Transactional
+  public BigDecimal consolidate(String phoneNumber) {
+    List<AccountBalanceShard> shards = shardRepository.findAllForUpdate(
+      phoneNumber
+    );
+    BigDecimal total = shards
+      .stream()
+      .map(AccountBalanceShard::getAmount)
+      .reduce(BigDecimal.ZERO, BigDecimal::add);
+    if (total.signum() == 0) {
+      return BigDecimal.ZERO;
+    }
+    shards.forEach(shard -> shard.setAmount(BigDecimal.ZERO));
+    shardRepository.saveAll(shards);
+    // credit() сначала сбросит обнуление шардов в БД (flushAutomatically)
+    accountRepository.credit(phoneNumber, total);
+    log.info(
+      "Consolidated {} from {} shard(s) into account {}",
+      total,
+      shards.size(),
+      phoneNumber
+    );
+    return total;
+  }
+
+  @Scheduled(
+    fixedDelayString = "${account.sharding.consolidation-interval-ms:5000}"
+  )
+  @Transactional
+  public void consolidateHotAccounts() {
+    if (!enabled) {
+      return;
+    }
+    accountRepository
+      .findByHotTrue()
+      .forEach(account -> consolidate(account.getPhoneNumber()));
+  }
+
+  @Override
+  @Transactional
+  public void run(ApplicationArguments args) {
+    if (!enabled) {
+      return;
+    }
+    for (String phoneNumber : hotAccounts) {
+      accountRepository
+        .findByPhoneNumber(phoneNumber.trim())
+        .ifPresentOrElse(
+          this::initializeShards,
+          () -> log.warn("Hot account {} not found, skipping", phoneNumber)
+        );
+    }
+  }
+
+  private void initializeShards(Account account) {
+    if (!account.isHot()) {
+      account.setHot(true);
+      accountRepository.save(account);
+    }
+    List<AccountBalanceShard> existing = shardRepository.findByPhoneNumber(
+      account.getPhoneNumber()
+    );
+    for (int i = 0; i < shardCount; i++) {
+      final int shardIndex = i;
+      if (existing.stream().noneMatch(s -> s.getShardIndex() == shardIndex)) {
+        shardRepository.save(
+          AccountBalanceShard.builder()
+            .phoneNumber(account.getPhoneNumber())
+            .shardIndex(shardIndex)
+            .amount(BigDecimal.ZERO)
+            .build()
+        );
+      }
+    }
+    log.info(
+      "Account {} is hot: balance is sharded across {} sub-balances",
+      account.getPhoneNumber(),
+      shardCount
+    );
+  }
+}
@@ -0,0 +1,13 @@
+package sbp.account.service;
+
+/**
+ * Способ изменения балансов в AccountServiceImpl.
+ */
+public enum FundsUpdateMode {
+  /** Загрузка сущности Account, расчет в Java и сохранение с проверкой @Version. */
+  ENTITY,
+  /** Условные UPDATE-запросы AccountRepository: проверка и изменение одним SQL-оператором. */
+  ATOMIC,
+  /** In-memory леджер с журналом и периодическими чекпоинтами в accounts (AccountLedger). */
+  LEDGER,
+}
@@ -7,6 +7,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import sbp.account.entity.Account;
 import sbp.account.repository.AccountRepository;
@@ -14,6 +15,7 @@ import sbp.account.repository.AccountRepository;
 @Component
 @RequiredArgsConstructor
 @Slf4j
+@Order(0)
 public class DataInitializer implements ApplicationRunner {
 
   private final AccountRepository accountRepository;
@@ -497,4 +497,52 @@ class AccountServiceApplicationTests {
       any(FundsProcessedEvent.class)
     );
   }
+
+  @Test
+  void processBatch_whenSecondReservationExceedsAvailable_shouldApplyFirstAndReportSecond() {
+    Account accountBefore = accountRepository
+      .findByPhoneNumber(SENDER_PHONE_LOW_BALANCE)
+      .orElseThrow();
+    BigDecimal initialReserved = accountBefore.getReservedAmount();
+
+    // 25.50 на счете: первое резервирование проходит, второе уже не помещается
+    ReserveFundsCommand first = ReserveFundsCommand.builder()
+      .senderPhoneNumber(SENDER_PHONE_LOW_BALANCE)
+      .amount(new BigDecimal("20.00"))
+      .correlationId(UUID.randomUUID())
+      .confirmationCode("111111")
+      .build();
+    ReserveFundsCommand second = ReserveFundsCommand.builder()
+      .senderPhoneNumber(SENDER_PHONE_LOW_BALANCE)
+      .amount(new BigDecimal("10.00"))
+      .correlationId(UUID.randomUUID())
+      .confirmationCode("222222")
+      .build();
+
+    accountService.processBatch(List.of(first, second), List.of());
+
+    Account accountAfter = accountRepository
+      .findByPhoneNumber(SENDER_PHONE_LOW_BALANCE)
+      .orElseThrow();
+    assertEquals(
+      0,
+      initialReserved
+        .add(first.getAmount())
+        .compareTo(accountAfter.getReservedAmount()),
+      "Only the first reservation should be applied"
+    );
+
+    ArgumentCaptor<FundsProcessedEvent> captor = ArgumentCaptor.forClass(
+      FundsProcessedEvent.class
+    );
+    verify(jmsTemplate, times(2)).convertAndSend(
+      eq(JmsQueueNames.TRANSFER_PROCESS_EIS_CMD_QUEUE),
+      captor.capture()
+    );
+    List<FundsProcessedEvent> events = captor.getAllValues();
+    assertEquals(first.getCorrelationId(), events.get(0).getCorrelationId());
+    assertTrue(events.get(0).isSuccess());
+    assertEquals(second.getCorrelationId(), events.get(1).getCorrelationId());
+    assertFalse(events.get(1).isSuccess());
+  }
 }
@@ -0,0 +1,120 @@
+package sbp.account.ledger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import sbp.account.entity.Account;
+import sbp.account.repository.AccountRepository;
+import sbp.account.service.FundsUpdateMode;
+
+class AccountLedgerRecoveryTest {
+
+  private static final String PHONE = "79001112233";
+
+  @TempDir
+  Path journalDir;
+
+  // Таблица accounts: то, что сохранил последний чекпоинт
+  private final Map<String, Account> table = new HashMap<>();
+
+  @BeforeEach
+  void setUp() {
+    Account account = new Account(PHONE, "sender@example.com");
+    account.setBalance(new BigDecimal("1000.00"));
+    table.put(PHONE, account);
+  }
+
+  @Test
+  void entriesAppendedAfterCheckpointAndRestartSurviveCrash() throws Exception {
+    AccountLedger first = startLedger();
+    assertEquals(LedgerResult.APPLIED, reserve(first, "100.00"));
+    first.shutdown(); // Чекпоинт удаляет сегмент с записью 1
+
+    AccountLedger second = startLedger();
+    assertEquals(LedgerResult.APPLIED, reserve(second, "200.00"));
+    // Аварийная остановка: без чекпоинта и закрытия журнала
+
+    AccountLedger third = startLedger();
+    assertEquals(
+      0,
+      new BigDecimal("300.00").compareTo(third.find(PHONE).getReservedAmount())
+    );
+  }
+
+  @Test
+  void numberingContinuesAfterCheckpointOfEmptySegment() throws Exception {
+    AccountLedger first = startLedger();
+    reserve(first, "100.00");
+    first.checkpoint();
+    first.checkpoint(); // Текущий сегмент пуст - остается единственным
+    first.shutdown();
+
+    AccountLedger second = startLedger();
+    reserve(second, "50.00");
+    assertEquals(2, second.find(PHONE).getLastSeq());
+  }
+
+  private AccountLedger startLedger() {
+    AccountRepository repository = mock(AccountRepository.class);
+    when(repository.findAll()).thenAnswer(invocation -> copyTable());
+    LedgerCheckpointWriter writer = mock(LedgerCheckpointWriter.class);
+    doAnswer(invocation -> {
+      List<LedgerAccount> snapshot = invocation.getArgument(0);
+      for (LedgerAccount ledgerAccount : snapshot) {
+        Account account = table.computeIfAbsent(
+          ledgerAccount.getPhoneNumber(),
+          phone -> new Account(phone, ledgerAccount.getEmail())
+        );
+        account.setBalance(ledgerAccount.getBalance());
+        account.setReservedAmount(ledgerAccount.getReservedAmount());
+        account.setLedgerSeq(ledgerAccount.getLastSeq());
+      }
+      return null;
+    })
+      .when(writer)
+      .write(anyList());
+
+    AccountLedger ledger = new AccountLedger(repository, writer);
+    ReflectionTestUtils.setField(
+      ledger,
+      "fundsUpdateMode",
+      FundsUpdateMode.LEDGER
+    );
+    ReflectionTestUtils.setField(ledger, "partitionCount", 2);
+    ReflectionTestUtils.setField(ledger, "journalDir", journalDir.toString());
+    ReflectionTestUtils.setField(ledger, "journalFsync", false);
+    ReflectionTestUtils.setField(ledger, "operationTimeoutMs", 5_000L);
+    ReflectionTestUtils.setField(ledger, "checkpointDeduplicationKeys", 100);
+    ledger.hydrate();
+    return ledger;
+  }
+
+  private List<Account> copyTable() {
+    return table
+      .values()
+      .stream()
+      .map(a -> {
+        Account copy = new Account(a.getPhoneNumber(), a.getEmail());
+        copy.setBalance(a.getBalance());
+        copy.setReservedAmount(a.getReservedAmount());
+        copy.setLedgerSeq(a.getLedgerSeq());
+        return copy;
+      })
+      .toList();
+  }
+
+  private static LedgerResult reserve(AccountLedger ledger, String amount) {
+    return ledger.reserve(PHONE, new BigDecimal(amount), UUID.randomUUID());
+  }
+}
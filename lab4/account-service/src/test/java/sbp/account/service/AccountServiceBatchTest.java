@@ -0,0 +1,141 @@
+package sbp.account.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import sbp.account.entity.Account;
+import sbp.account.ledger.AccountLedger;
+import sbp.account.repository.AccountRepository;
+import sbp.dto.JmsQueueNames;
+import sbp.dto.jms.FundsProcessedEvent;
+import sbp.dto.jms.ReleaseFundsCommand;
+import sbp.dto.jms.ReserveFundsCommand;
+
+class AccountServiceBatchTest {
+
+  private static final String SENDER = "79001112233";
+  private static final String HOT_RECIPIENT = "79003334455";
+
+  private final AccountRepository accountRepository = mock(
+    AccountRepository.class
+  );
+  private final JmsTemplate jmsTemplate = mock(JmsTemplate.class);
+  private final BalanceShardService balanceShardService = mock(
+    BalanceShardService.class
+  );
+  private final AccountServiceImpl accountService = new AccountServiceImpl(
+    accountRepository,
+    jmsTemplate,
+    balanceShardService,
+    mock(AccountLedger.class)
+  );
+
+  private Account sender;
+  private Account hotRecipient;
+
+  @BeforeEach
+  void setUp() {
+    sender = new Account(SENDER, "sender@example.com");
+    sender.setBalance(new BigDecimal("50.00"));
+    sender.setReservedAmount(new BigDecimal("30.00"));
+    hotRecipient = new Account(HOT_RECIPIENT, "hot@example.com");
+    hotRecipient.setHot(true);
+    when(accountRepository.findByPhoneNumberIn(anyCollection())).thenReturn(
+      List.of(sender, hotRecipient)
+    );
+    when(balanceShardService.isEnabled()).thenReturn(true);
+    when(balanceShardService.isSharded(any())).thenAnswer(inv ->
+      inv.<Account>getArgument(0).isHot()
+    );
+    when(balanceShardService.getTotalBalance(any())).thenAnswer(inv ->
+      inv.<Account>getArgument(0).getBalance()
+    );
+  }
+
+  @Test
+  void reservationUsesBalanceIncludingShards() {
+    // На основной строке 50.00, еще 100.00 лежит на шардах
+    when(balanceShardService.getTotalBalance(sender)).thenReturn(
+      new BigDecimal("150.00")
+    );
+
+    accountService.processBatch(List.of(reserve("100.00")), List.of());
+
+    assertEquals(
+      0,
+      new BigDecimal("130.00").compareTo(sender.getReservedAmount())
+    );
+    assertTrue(sentEvents().get(0).isSuccess());
+  }
+
+  @Test
+  void finalDebitConsolidatesSenderAndCreditsHotRecipientShard() {
+    ReleaseFundsCommand command = ReleaseFundsCommand.builder()
+      .correlationId(UUID.randomUUID())
+      .senderPhoneNumber(SENDER)
+      .recipientPhoneNumber(HOT_RECIPIENT)
+      .amount(new BigDecimal("30.00"))
+      .isFinalDebit(true)
+      .build();
+
+    accountService.processBatch(List.of(), List.of(command));
+
+    verify(balanceShardService).consolidate(SENDER);
+    verify(balanceShardService).credit(
+      HOT_RECIPIENT,
+      command.getCorrelationId(),
+      command.getAmount()
+    );
+    // Основная строка "горячего" получателя не меняется
+    assertEquals(0, BigDecimal.ZERO.compareTo(hotRecipient.getBalance()));
+    assertEquals(0, new BigDecimal("20.00").compareTo(sender.getBalance()));
+    assertTrue(sentEvents().get(0).isSuccess());
+  }
+
+  @Test
+  void ledgerModeIsRejected() {
+    ReflectionTestUtils.setField(
+      accountService,
+      "fundsUpdateMode",
+      FundsUpdateMode.LEDGER
+    );
+
+    assertThrows(IllegalStateException.class, () ->
+      accountService.processBatch(List.of(reserve("10.00")), List.of())
+    );
+    verify(accountRepository, never()).saveAll(any());
+    verify(balanceShardService, never()).consolidate(anyString());
+  }
+
+  private ReserveFundsCommand reserve(String amount) {
+    return ReserveFundsCommand.builder()
+      .correlationId(UUID.randomUUID())
+      .senderPhoneNumber(SENDER)
+      .amount(new BigDecimal(amount))
+      .confirmationCode("123456")
+      .build();
+  }
+
+  private List<FundsProcessedEvent> sentEvents() {
+    ArgumentCaptor<FundsProcessedEvent> captor = ArgumentCaptor.forClass(
+      FundsProcessedEvent.class
+    );
+    verify(jmsTemplate, atLeastOnce()).convertAndSend(
+      eq(JmsQueueNames.TRANSFER_PROCESS_EIS_CMD_QUEUE),
+      captor.capture()
+    );
+    return captor.getAllValues();
+  }
+}
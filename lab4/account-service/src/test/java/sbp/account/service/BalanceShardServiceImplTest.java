@@ -0,0 +1,45 @@
+package sbp.account.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import sbp.account.repository.AccountBalanceShardRepository;
+import sbp.account.repository.AccountRepository;
+
+class BalanceShardServiceImplTest {
+
+  private final BalanceShardServiceImpl service = new BalanceShardServiceImpl(
+    mock(AccountRepository.class),
+    mock(AccountBalanceShardRepository.class)
+  );
+
+  @Test
+  void shardingWithLedgerModeFailsStartup() {
+    configure(true, FundsUpdateMode.LEDGER);
+
+    assertThrows(IllegalStateException.class, service::checkFundsUpdateMode);
+  }
+
+  @Test
+  void shardingWithEntityOrAtomicModeStarts() {
+    configure(true, FundsUpdateMode.ENTITY);
+    assertDoesNotThrow(service::checkFundsUpdateMode);
+
+    configure(true, FundsUpdateMode.ATOMIC);
+    assertDoesNotThrow(service::checkFundsUpdateMode);
+  }
+
+  @Test
+  void disabledShardingIgnoresLedgerMode() {
+    configure(false, FundsUpdateMode.LEDGER);
+
+    assertDoesNotThrow(service::checkFundsUpdateMode);
+  }
+
+  private void configure(boolean enabled, FundsUpdateMode mode) {
+    ReflectionTestUtils.setField(service, "enabled", enabled);
+    ReflectionTestUtils.setField(service, "fundsUpdateMode", mode);
+  }
+}
@@ -0,0 +1,56 @@
+package sbp.benchmarks;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Точка входа benchmarks.jar: принимает обычные аргументы JMH и, если формат и файл результатов
+ * не заданы явно (-rf/-rff), пишет результаты в JSON в каталог results/ с отметкой времени.
+ */
+public final class BenchmarkRunner {
+
+  private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern(
+    "yyyyMMdd-HHmmss"
+  );
+
+  private BenchmarkRunner() {}
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    if (commandLine.shouldHelp()) {
+      commandLine.showHelp();
+      return;
+    }
+    if (commandLine.shouldList()) {
+      new Runner(commandLine).list();
+      return;
+    }
+
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+    if (!commandLine.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!commandLine.getResult().hasValue()) {
+      File resultsDir = new File(
+        System.getProperty("benchmarks.results-dir", "results")
+      );
+      resultsDir.mkdirs();
+      String extension = commandLine.getResultFormat().hasValue()
+        ? commandLine.getResultFormat().get().name().toLowerCase()
+        : "json";
+      options.result(
+        new File(
+          resultsDir,
+          "jmh-" + LocalDateTime.now().format(TIMESTAMP) + "." + extension
+        ).getPath()
+      );
+    }
+    new Runner(options.build()).run();
+  }
+}
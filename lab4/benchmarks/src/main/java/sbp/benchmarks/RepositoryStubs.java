@@ -0,0 +1,41 @@
+package sbp.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory заглушки Spring Data репозиториев для бенчмарков: реализуются только методы,
+ * вызываемые измеряемым кодом, остальные бросают UnsupportedOperationException.
+ */
+public final class RepositoryStubs {
+
+  private RepositoryStubs() {}
+
+  public static <R> R create(
+    Class<R> repositoryType,
+    Map<String, Function<Object[], Object>> methods
+  ) {
+    Object proxy = Proxy.newProxyInstance(
+      repositoryType.getClassLoader(),
+      new Class<?>[] { repositoryType },
+      (self, method, args) -> {
+        Function<Object[], Object> implementation = methods.get(
+          method.getName()
+        );
+        if (implementation != null) {
+          return implementation.apply(args);
+        }
+        return switch (method.getName()) {
+          case "toString" -> repositoryType.getSimpleName() + "Stub";
+          case "hashCode" -> System.identityHashCode(self);
+          case "equals" -> self == args[0];
+          default -> throw new UnsupportedOperationException(
+            repositoryType.getSimpleName() + "." + method.getName()
+          );
+        };
+      }
+    );
+    return repositoryType.cast(proxy);
+  }
+}
@@ -0,0 +1,156 @@
+package sbp.benchmarks.account;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessagePostProcessor;
+import sbp.account.entity.Account;
+import sbp.account.ledger.AccountLedger;
+import sbp.account.repository.AccountRepository;
+import sbp.account.service.AccountServiceImpl;
+import sbp.account.service.BalanceShardService;
+import sbp.benchmarks.RepositoryStubs;
+import sbp.dto.jms.ReleaseFundsCommand;
+import sbp.dto.jms.ReserveFundsCommand;
+
+/**
+ * Логика резервирования и окончательного списания AccountServiceImpl (режим ENTITY)
+ * на in-memory репозитории, без БД и брокера: измеряется только код сервиса.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountFundsBenchmark {
+
+  private static final String SENDER = "9990000001";
+  private static final String RECIPIENT = "9990000002";
+  private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+  private AccountServiceImpl accountService;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Map<String, Account> accounts = new ConcurrentHashMap<>();
+    accounts.put(SENDER, account(SENDER, new BigDecimal("1000000000000.00")));
+    accounts.put(RECIPIENT, account(RECIPIENT, BigDecimal.ZERO));
+
+    AccountRepository repository = RepositoryStubs.create(
+      AccountRepository.class,
+      Map.of(
+        "findByPhoneNumber",
+        args -> Optional.ofNullable(accounts.get((String) args[0])),
+        "save",
+        args -> {
+          Account account = (Account) args[0];
+          accounts.put(account.getPhoneNumber(), account);
+          return account;
+        }
+      )
+    );
+    accountService = new AccountServiceImpl(
+      repository,
+      new NoOpJmsTemplate(),
+      new DisabledBalanceShardService(),
+      new AccountLedger(repository, null)
+    );
+  }
+
+  @Benchmark
+  public void reserveFunds() {
+    accountService.reserveFunds(reserveCommand());
+  }
+
+  @Benchmark
+  public void reserveAndFinalDebit() {
+    ReserveFundsCommand reserve = reserveCommand();
+    accountService.reserveFunds(reserve);
+    accountService.processFundsReleaseOrDebit(
+      ReleaseFundsCommand.builder()
+        .correlationId(reserve.getCorrelationId())
+        .senderPhoneNumber(SENDER)
+        .recipientPhoneNumber(RECIPIENT)
+        .amount(AMOUNT)
+        .isFinalDebit(true)
+        .build()
+    );
+  }
+
+  private static ReserveFundsCommand reserveCommand() {
+    return ReserveFundsCommand.builder()
+      .correlationId(UUID.randomUUID())
+      .senderPhoneNumber(SENDER)
+      .amount(AMOUNT)
+      .confirmationCode("123456")
+      .build();
+  }
+
+  private static Account account(String phoneNumber, BigDecimal balance) {
+    Account account = new Account(phoneNumber, phoneNumber + "@example.com");
+    account.setBalance(balance);
+    return account;
+  }
+
+  private static final class NoOpJmsTemplate extends JmsTemplate {
+
+    @Override
+    public void convertAndSend(String destinationName, Object message) {}
+
+    @Override
+    public void convertAndSend(
+      String destinationName,
+      Object message,
+      MessagePostProcessor postProcessor
+    ) {}
+  }
+
+  private static final class DisabledBalanceShardService
+    implements BalanceShardService {
+
+    @Override
+    public boolean isEnabled() {
+      return false;
+    }
+
+    @Override
+    public boolean isSharded(Account account) {
+      return false;
+    }
+
+    @Override
+    public void credit(
+      String phoneNumber,
+      UUID correlationId,
+      BigDecimal amount
+    ) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public BigDecimal getTotalBalance(Account account) {
+      return account.getBalance();
+    }
+
+    @Override
+    public BigDecimal consolidate(String phoneNumber) {
+      return BigDecimal.ZERO;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package sbp.benchmarks.jms;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sbp.dto.jms.FundsProcessedEvent;
+import sbp.dto.messaging.BinaryDtoCodec;
+
+/**
+ * Стоимость кодирования и декодирования FundsProcessedEvent: JSON (Jackson, как в
+ * MappingJackson2MessageConverter сервисов) против BinaryDtoCodec. Размер сообщений выводится при старте.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JmsCodecBenchmark {
+
+  private ObjectMapper objectMapper;
+  private FundsProcessedEvent event;
+  private byte[] jsonBytes;
+  private byte[] binaryBytes;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    objectMapper = new ObjectMapper();
+    objectMapper.registerModule(new JavaTimeModule());
+    event = FundsProcessedEvent.builder()
+      .correlationId(UUID.randomUUID())
+      .senderPhoneNumber("79991112233")
+      .recipientPhoneNumber("79994445566")
+      .recipientEmail("recipient@example.com")
+      .amount(new BigDecimal("1500.50"))
+      .success(true)
+      .reason(null)
+      .build();
+    jsonBytes = objectMapper.writeValueAsBytes(event);
+    binaryBytes = BinaryDtoCodec.encode(event);
+    System.out.printf(
+      "%nFundsProcessedEvent size: json=%d bytes, binary=%d bytes%n",
+      jsonBytes.length,
+      binaryBytes.length
+    );
+  }
+
+  @Benchmark
+  public byte[] jsonEncode() throws Exception {
+    return objectMapper.writeValueAsBytes(event);
+  }
+
+  @Benchmark
+  public Object jsonDecode() throws Exception {
+    return objectMapper.readValue(jsonBytes, FundsProcessedEvent.class);
+  }
+
+  @Benchmark
+  public byte[] binaryEncode() {
+    return BinaryDtoCodec.encode(event);
+  }
+
+  @Benchmark
+  public Object binaryDecode() {
+    return BinaryDtoCodec.decode(binaryBytes);
+  }
+}
@@ -0,0 +1,104 @@
+package sbp.benchmarks.jms;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sbp.dto.jms.FundsProcessedEvent;
+import sbp.dto.messaging.BinaryJmsMessageConverter;
+import sbp.transfer.config.JmsConfiguration;
+
+/**
+ * Сериализация JMS DTO через конвертер, сконфигурированный в transfer-service (JmsConfiguration):
+ * JSON TextMessage и двоичный BytesMessage. Сообщения создаются классами ActiveMQ без брокера.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JmsConverterBenchmark {
+
+  @Param({ "json", "binary" })
+  public String format;
+
+  private BinaryJmsMessageConverter converter;
+  private Session session;
+  private FundsProcessedEvent event;
+  private Message encoded;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    JmsConfiguration configuration = new JmsConfiguration();
+    ObjectMapper objectMapper = configuration.objectMapperForJms();
+    converter = (BinaryJmsMessageConverter) configuration.jmsMessageConverter(
+      objectMapper
+    );
+    session = messageFactorySession();
+    event = FundsProcessedEvent.builder()
+      .correlationId(UUID.randomUUID())
+      .senderPhoneNumber("9991112222")
+      .recipientPhoneNumber("9993334444")
+      .recipientEmail("recipient@example.com")
+      .amount(new BigDecimal("1500.50"))
+      .success(true)
+      .build();
+    encoded = toMessage();
+  }
+
+  @Benchmark
+  public Message toMessage() throws Exception {
+    return "binary".equals(format)
+      ? converter.toBinaryMessage(event, session)
+      : converter.toMessage(event, session);
+  }
+
+  @Benchmark
+  public Object fromMessage() throws Exception {
+    if (encoded instanceof ActiveMQBytesMessage bytesMessage) {
+      // Полученное от брокера сообщение доступно только для чтения с начала тела
+      bytesMessage.reset();
+    }
+    return converter.fromMessage(encoded);
+  }
+
+  /**
+   * Сессия, умеющая только создавать сообщения - больше конвертеру не нужно.
+   */
+  private static Session messageFactorySession() {
+    return (Session) Proxy.newProxyInstance(
+      Session.class.getClassLoader(),
+      new Class<?>[] { Session.class },
+      (proxy, method, args) ->
+        switch (method.getName()) {
+          case "createTextMessage" -> {
+            ActiveMQTextMessage message = new ActiveMQTextMessage();
+            if (args != null && args.length == 1) {
+              message.setText((String) args[0]);
+            }
+            yield message;
+          }
+          case "createBytesMessage" -> new ActiveMQBytesMessage();
+          default -> throw new UnsupportedOperationException(method.getName());
+        }
+    );
+  }
+}
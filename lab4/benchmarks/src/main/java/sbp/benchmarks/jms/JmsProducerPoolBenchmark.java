@@ -0,0 +1,96 @@
+package sbp.benchmarks.jms;
+
+import jakarta.jms.ConnectionFactory;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jms.core.JmsTemplate;
+import sbp.dto.JmsQueueNames;
+import sbp.dto.messaging.JmsProducerPool;
+
+/**
+ * Отправка через JmsTemplate во встроенный брокер ActiveMQ:
+ * raw - исходная фабрика соединений (соединение, сессия и продюсер на каждое сообщение),
+ * pooled - та же фабрика за JmsProducerPool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JmsProducerPoolBenchmark {
+
+  @Param({ "raw", "pooled" })
+  public String factory;
+
+  private BrokerService broker;
+  private JmsProducerPool producerPool;
+  private JmsTemplate jmsTemplate;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    broker = new BrokerService();
+    broker.setBrokerName("benchmark");
+    broker.setPersistent(false);
+    broker.setUseJmx(false);
+    broker.setUseShutdownHook(false);
+    broker.start();
+    broker.waitUntilStarted();
+
+    ActiveMQConnectionFactory rawFactory = new ActiveMQConnectionFactory(
+      "vm://benchmark?create=false"
+    );
+    ConnectionFactory connectionFactory = rawFactory;
+    if ("pooled".equals(factory)) {
+      producerPool = new JmsProducerPool("benchmark", rawFactory, 10, 0);
+      producerPool.afterPropertiesSet();
+      connectionFactory = producerPool.getConnectionFactory();
+    }
+    jmsTemplate = new JmsTemplate(connectionFactory);
+    jmsTemplate.setSessionTransacted(true);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    if (producerPool != null) {
+      System.out.println("Producer pool stats: " + producerPool.stats());
+      producerPool.destroy();
+    }
+    broker.stop();
+    broker.waitUntilStopped();
+  }
+
+  @Benchmark
+  public void send() {
+    String correlationId = UUID.randomUUID().toString();
+    jmsTemplate.send(JmsQueueNames.ACCOUNT_RESERVE_FUNDS_CMD_QUEUE, session -> {
+      var message = session.createTextMessage(
+        "{\"correlationId\":\"" +
+        correlationId +
+        "\",\"amount\":" +
+        BigDecimal.TEN +
+        "}"
+      );
+      message.setStringProperty("_type", "sbp.dto.jms.ReserveFundsCommand");
+      return message;
+    });
+  }
+}
@@ -0,0 +1,355 @@
+package sbp.benchmarks.load;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatVirtualThreadsWebServerFactoryCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.servlet.context.AnnotationConfigServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import sbp.benchmarks.RepositoryStubs;
+import sbp.dto.rest.BankInfo;
+import sbp.transfer.controller.TransferController;
+import sbp.transfer.entity.Transfer;
+import sbp.transfer.integration.AsyncSbpAdapterClient;
+import sbp.transfer.integration.BankDirectoryReplica;
+import sbp.transfer.integration.SbpAdapterClient;
+import sbp.transfer.jms.AccountCommandPartitioner;
+import sbp.transfer.repository.TransferRepository;
+import sbp.transfer.security.AccessTokenService;
+import sbp.transfer.service.TransferQueryService;
+import sbp.transfer.service.handler.ConfirmationCodeSentEventHandler;
+import sbp.transfer.service.handler.FundsProcessedEventHandler;
+import sbp.transfer.service.handler.TransferConfirmationHandler;
+import sbp.transfer.service.handler.impl.TransferInitiationHandlerImpl;
+import sbp.transfer.service.impl.TransferOrchestrationServiceImpl;
+import sbp.transfer.service.limit.SenderLimitService;
+
+/**
+ * Нагрузочный тест режимов потоков на реальном пути инициации перевода: встроенный Tomcat,
+ * DispatcherServlet, TransferController, TransferOrchestrationServiceImpl и
+ * TransferInitiationHandlerImpl. Заглушены только внешние системы: SBP Adapter отвечает через
+ * 30-150 мс (как MockUtils.simulateNetworkDelay), запросы к БД и отправка в JMS занимают
+ * несколько миллисекунд.
+ * <p>
+ * Режимы: platform (пул Tomcat из maxThreads потоков, по умолчанию 200) и virtual (виртуальный
+ * поток на запрос, как при spring.threads.virtual.enabled=true; требует JDK 21+). Куча фиксируется
+ * флагом -Xmx при запуске.
+ *
+ * <pre>
+ * java -Xmx256m -cp target/benchmarks.jar sbp.benchmarks.load.ThreadModeLoadTest platform 10000
+ * java -Xmx256m -cp target/benchmarks.jar sbp.benchmarks.load.ThreadModeLoadTest virtual 10000
+ * </pre>
+ */
+public final class ThreadModeLoadTest {
+
+  private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+  private static final String SENDER = "9991112222";
+  private static final String BANK_ID = "SBP_BANK";
+  private static final long DB_CALL_MILLIS = 5;
+  private static final long JMS_SEND_MILLIS = 2;
+
+  private ThreadModeLoadTest() {}
+
+  public static void main(String[] args) throws Exception {
+    String mode = args.length > 0 ? args[0] : "platform";
+    int transfers = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+    int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+    int maxThreads = args.length > 3
+      ? Integer.parseInt(args[3])
+      : TOMCAT_DEFAULT_MAX_THREADS;
+    if ("virtual".equals(mode) && Runtime.version().feature() < 21) {
+      throw new IllegalStateException(
+        "Virtual threads require JDK 21+, running on " +
+        System.getProperty("java.version")
+      );
+    }
+
+    LoadStats stats = new LoadStats();
+    AnnotationConfigServletWebServerApplicationContext context =
+      new AnnotationConfigServletWebServerApplicationContext();
+    context.registerBean(
+      ServerSettings.class,
+      () -> new ServerSettings(mode, maxThreads)
+    );
+    context.registerBean(LoadStats.class, () -> stats);
+    context.register(InitiationServer.class);
+    context.refresh();
+
+    ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+    try {
+      URI initiateUri = URI.create(
+        "http://localhost:" +
+        context.getWebServer().getPort() +
+        "/api/v1/transfers/initiate"
+      );
+      HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .executor(clientExecutor)
+        .build();
+      run(client, initiateUri, stats, transfers, concurrency);
+
+      Arrays.sort(stats.latenciesNanos, 0, transfers);
+      System.out.printf(
+        "mode=%s transfers=%d concurrency=%d maxThreads=%s maxHeap=%dMB%n",
+        mode,
+        transfers,
+        concurrency,
+        "platform".equals(mode) ? String.valueOf(maxThreads) : "-",
+        Runtime.getRuntime().maxMemory() / (1024 * 1024)
+      );
+      System.out.printf(
+        "elapsed=%.2fs throughput=%.0f transfers/s peakInFlight=%d errors=%d%n",
+        stats.elapsedNanos / 1e9,
+        transfers / (stats.elapsedNanos / 1e9),
+        stats.peakInFlight.get(),
+        stats.errors.get()
+      );
+      System.out.printf(
+        "latency p50=%dms p99=%dms max=%dms heapUsed=%dMB peakThreads=%d%n",
+        percentileMillis(stats.latenciesNanos, transfers, 0.50),
+        percentileMillis(stats.latenciesNanos, transfers, 0.99),
+        stats.latenciesNanos[transfers - 1] / 1_000_000,
+        ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() /
+        (1024 * 1024),
+        ManagementFactory.getThreadMXBean().getPeakThreadCount()
+      );
+    } finally {
+      clientExecutor.shutdownNow();
+      context.close();
+    }
+  }
+
+  private static void run(
+    HttpClient client,
+    URI initiateUri,
+    LoadStats stats,
+    int transfers,
+    int concurrency
+  ) throws InterruptedException {
+    stats.latenciesNanos = new long[transfers];
+    Semaphore permits = new Semaphore(concurrency);
+    CountDownLatch done = new CountDownLatch(transfers);
+    long start = System.nanoTime();
+    for (int i = 0; i < transfers; i++) {
+      int index = i;
+      permits.acquire();
+      long submittedAt = System.nanoTime();
+      HttpRequest request = HttpRequest.newBuilder(initiateUri)
+        .header("Content-Type", "application/json")
+        .POST(
+          HttpRequest.BodyPublishers.ofString(
+            "{\"recipientPhoneNumber\":\"9993334444\",\"bankId\":\"" +
+            BANK_ID +
+            "\",\"amount\":150.00}"
+          )
+        )
+        .build();
+      client
+        .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        .whenComplete((response, error) -> {
+          stats.latenciesNanos[index] = System.nanoTime() - submittedAt;
+          if (error != null || response.statusCode() != 202) {
+            stats.errors.incrementAndGet();
+          }
+          permits.release();
+          done.countDown();
+        });
+    }
+    done.await();
+    stats.elapsedNanos = System.nanoTime() - start;
+  }
+
+  private static long percentileMillis(
+    long[] sortedNanos,
+    int count,
+    double percentile
+  ) {
+    int index = (int) Math.ceil(percentile * count) - 1;
+    return sortedNanos[Math.max(0, index)] / 1_000_000;
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  record ServerSettings(String mode, int maxThreads) {}
+
+  static final class LoadStats {
+
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger peakInFlight = new AtomicInteger();
+    final AtomicInteger errors = new AtomicInteger();
+    long[] latenciesNanos;
+    long elapsedNanos;
+  }
+
+  /**
+   * SbpAdapterClient без HTTP: ответ адаптера с сетевой задержкой. Заодно считает запросы,
+   * одновременно выполняемые сервером.
+   */
+  static final class DelayedSbpAdapterClient extends SbpAdapterClient {
+
+    private final LoadStats stats;
+
+    DelayedSbpAdapterClient(LoadStats stats) {
+      super(
+        new RestTemplateBuilder(),
+        new StaticListableBeanFactory().getBeanProvider(
+          AsyncSbpAdapterClient.class
+        ),
+        "http://localhost",
+        "/api/sbp/banks",
+        "/api/sbp/directory",
+        2000,
+        5000,
+        false,
+        3600,
+        600,
+        30,
+        1000,
+        1
+      );
+      this.stats = stats;
+    }
+
+    @Override
+    public Optional<BankInfo> getBankInfoById(String bankId) {
+      int current = stats.inFlight.incrementAndGet();
+      stats.peakInFlight.accumulateAndGet(current, Math::max);
+      try {
+        sleep(30 + ThreadLocalRandom.current().nextInt(121));
+        return Optional.of(new BankInfo(bankId, "Bank " + bankId, true));
+      } finally {
+        stats.inFlight.decrementAndGet();
+      }
+    }
+  }
+
+  @Configuration
+  @EnableWebMvc
+  static class InitiationServer {
+
+    @Bean
+    public TomcatServletWebServerFactory tomcatServletWebServerFactory(
+      ServerSettings settings
+    ) {
+      TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(
+        0
+      );
+      if ("virtual".equals(settings.mode())) {
+        // То же, что Boot применяет при spring.threads.virtual.enabled=true
+        new TomcatVirtualThreadsWebServerFactoryCustomizer().customize(factory);
+      } else {
+        factory.addConnectorCustomizers(connector ->
+          ((AbstractProtocol<?>) connector.getProtocolHandler()).setMaxThreads(
+              settings.maxThreads()
+            )
+        );
+      }
+      return factory;
+    }
+
+    @Bean
+    public DispatcherServlet dispatcherServlet() {
+      return new DispatcherServlet();
+    }
+
+    /** Вместо цепочки Spring Security: каждый запрос от аутентифицированного отправителя. */
+    @Bean
+    public Filter authenticatedSender() {
+      Principal sender = UsernamePasswordAuthenticationToken.authenticated(
+        SENDER,
+        null,
+        List.of()
+      );
+      return (request, response, chain) ->
+        chain.doFilter(
+          new HttpServletRequestWrapper((HttpServletRequest) request) {
+            @Override
+            public Principal getUserPrincipal() {
+              return sender;
+            }
+          },
+          response
+        );
+    }
+
+    @Bean
+    public TransferController transferController(LoadStats stats) {
+      TransferRepository repository = RepositoryStubs.create(
+        TransferRepository.class,
+        Map.of(
+          "findByCorrelationId",
+          args -> {
+            sleep(DB_CALL_MILLIS);
+            return Optional.empty();
+          },
+          "save",
+          args -> {
+            sleep(DB_CALL_MILLIS);
+            Transfer transfer = (Transfer) args[0];
+            if (transfer.getId() == null) {
+              transfer.setId(UUID.randomUUID());
+            }
+            return transfer;
+          }
+        )
+      );
+      // Реплика справочника банков и суточные лимиты выключены, как в конфигурации по умолчанию
+      StaticListableBeanFactory noBeans = new StaticListableBeanFactory();
+      TransferInitiationHandlerImpl initiationHandler =
+        new TransferInitiationHandlerImpl(
+          repository,
+          (destination, payload, messageGroupId) -> sleep(JMS_SEND_MILLIS),
+          new AccountCommandPartitioner(false, 16),
+          new DelayedSbpAdapterClient(stats),
+          noBeans.getBeanProvider(BankDirectoryReplica.class),
+          noBeans.getBeanProvider(SenderLimitService.class)
+        );
+      return new TransferController(
+        new TransferOrchestrationServiceImpl(
+          initiationHandler,
+          RepositoryStubs.create(TransferConfirmationHandler.class, Map.of()),
+          RepositoryStubs.create(FundsProcessedEventHandler.class, Map.of()),
+          RepositoryStubs.create(
+            ConfirmationCodeSentEventHandler.class,
+            Map.of()
+          )
+        ),
+        authentication -> authentication,
+        RepositoryStubs.create(TransferQueryService.class, Map.of()),
+        noBeans.getBeanProvider(AccessTokenService.class)
+      );
+    }
+  }
+}
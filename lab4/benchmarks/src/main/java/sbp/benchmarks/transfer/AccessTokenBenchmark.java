@@ -0,0 +1,50 @@
+package sbp.benchmarks.transfer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sbp.transfer.security.AccessTokenService;
+
+/**
+ * Выпуск и проверка access-токена (HMAC-SHA256) - стоимость аутентификации запроса с Bearer-токеном.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessTokenBenchmark {
+
+  private AccessTokenService accessTokenService;
+  private String token;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    accessTokenService = new AccessTokenService(
+      "benchmark-secret-benchmark-secret-32",
+      900
+    );
+    token = accessTokenService.issue("9991112222", List.of("ROLE_USER"));
+  }
+
+  @Benchmark
+  public String issue() {
+    return accessTokenService.issue("9991112222", List.of("ROLE_USER"));
+  }
+
+  @Benchmark
+  public AccessTokenService.AccessTokenClaims verify() {
+    return accessTokenService.verify(token);
+  }
+}
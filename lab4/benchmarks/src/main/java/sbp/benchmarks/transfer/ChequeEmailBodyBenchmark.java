@@ -0,0 +1,140 @@
+package sbp.benchmarks.transfer;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import sbp.dto.eis.ChequeDetailsDTO;
+import sbp.transfer.jca.email.internal.ChequeTemplate;
+import sbp.transfer.jca.email.internal.ChequeTemplates;
+import sbp.transfer.jca.email.internal.EmailConnectionImpl;
+
+/**
+ * Формирование электронного чека: рендеринг скомпилированного шаблона против прежнего
+ * StringBuilder и полное письмо (с кодированием в MIME) против прежнего multipart через
+ * MimeMessageHelper. Аллокации на одно письмо - gc.alloc.rate.norm при запуске с -prof gc.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChequeEmailBodyBenchmark {
+
+  private static final String MAIL_FROM = "noreply@sbp.example";
+
+  @Param({ "false", "true" })
+  public boolean textAlternative;
+
+  private Session session;
+  private ChequeTemplate htmlTemplate;
+  private EmailConnectionImpl connection;
+  private ChequeDetailsDTO details;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    session = Session.getInstance(new Properties());
+    ChequeTemplates templates = ChequeTemplates.load(
+      List.of("en", "ru"),
+      "en",
+      textAlternative
+    );
+    htmlTemplate = templates.html("en");
+    connection = new EmailConnectionImpl(null, MAIL_FROM, templates);
+    details = ChequeDetailsDTO.builder()
+      .transactionId(UUID.randomUUID())
+      .recipientEmail("recipient@example.com")
+      .senderInfo("9991112222")
+      .recipientInfo("SBP_BANK / 9993334444")
+      .amount(new BigDecimal("1500.50"))
+      .transactionTimestamp(LocalDateTime.now())
+      .subject("Электронный чек")
+      .operationDetails("Перевод средств по СБП")
+      .build();
+  }
+
+  @Benchmark
+  public String renderTemplate() {
+    return htmlTemplate.render(details);
+  }
+
+  @Benchmark
+  public String legacyStringBuilder() {
+    return legacyBody(details);
+  }
+
+  @Benchmark
+  public MimeMessage templateMessage() throws Exception {
+    MimeMessage message = new MimeMessage(session);
+    connection.writeChequeMessage(message, details);
+    message.saveChanges();
+    message.writeTo(OutputStream.nullOutputStream());
+    return message;
+  }
+
+  @Benchmark
+  public MimeMessage legacyMultipartMessage() throws Exception {
+    MimeMessage message = new MimeMessage(session);
+    MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+    helper.setFrom(MAIL_FROM);
+    helper.setTo(details.getRecipientEmail());
+    helper.setSubject(details.getSubject());
+    helper.setText(legacyBody(details), true);
+    message.saveChanges();
+    message.writeTo(OutputStream.nullOutputStream());
+    return message;
+  }
+
+  // Прежняя реализация EmailConnectionImpl.buildChequeEmailBody
+  private static String legacyBody(ChequeDetailsDTO details) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("<html><body>");
+    sb.append("<h1>Electronic Cheque</h1>");
+    sb
+      .append("<p><strong>Transaction ID:</strong> ")
+      .append(details.getTransactionId())
+      .append("</p>");
+    sb
+      .append("<p><strong>Date:</strong> ")
+      .append(details.getTransactionTimestamp())
+      .append("</p>");
+    sb
+      .append("<p><strong>Sender:</strong> ")
+      .append(details.getSenderInfo())
+      .append("</p>");
+    sb
+      .append("<p><strong>Recipient:</strong> ")
+      .append(details.getRecipientInfo())
+      .append("</p>");
+    sb
+      .append("<p><strong>Amount:</strong> ")
+      .append(details.getAmount())
+      .append("</p>");
+    sb
+      .append("<p><strong>Details:</strong> ")
+      .append(details.getOperationDetails())
+      .append("</p>");
+    sb.append("<hr><p>Thank you for using SBP!</p>");
+    sb.append("</body></html>");
+    return sb.toString();
+  }
+}
@@ -0,0 +1,91 @@
+package sbp.benchmarks.transfer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import sbp.transfer.security.CachingAuthenticationProvider;
+
+/**
+ * Аутентификация повторяющимися учетными данными: BCrypt-проверка на каждый запрос (direct)
+ * против CachingAuthenticationProvider (cached), где BCrypt выполняется только при первом запросе.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CredentialCacheBenchmark {
+
+  @Param({ "direct", "cached" })
+  public String provider;
+
+  private AuthenticationProvider authenticationProvider;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    String passwordHash = encoder.encode("password");
+    AuthenticationProvider bcryptProvider = new AuthenticationProvider() {
+      @Override
+      public Authentication authenticate(Authentication authentication) {
+        if (
+          !encoder.matches(
+            authentication.getCredentials().toString(),
+            passwordHash
+          )
+        ) {
+          throw new BadCredentialsException("Bad credentials");
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(
+          authentication.getName(),
+          null,
+          List.of(new SimpleGrantedAuthority("ROLE_USER"))
+        );
+      }
+
+      @Override
+      public boolean supports(Class<?> authentication) {
+        return true;
+      }
+    };
+    authenticationProvider = "cached".equals(provider)
+      ? new CachingAuthenticationProvider(bcryptProvider, 300_000, 10_000)
+      : bcryptProvider;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    if (authenticationProvider instanceof CachingAuthenticationProvider cache) {
+      cache.destroy();
+    }
+  }
+
+  @Benchmark
+  public Authentication authenticate() {
+    return authenticationProvider.authenticate(
+      UsernamePasswordAuthenticationToken.unauthenticated(
+        "9991112222",
+        "password"
+      )
+    );
+  }
+}
@@ -0,0 +1,102 @@
+package sbp.benchmarks.transfer;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import sbp.benchmarks.RepositoryStubs;
+import sbp.dto.enums.TransferStatus;
+import sbp.dto.rest.TransferConfirmationResponse;
+import sbp.transfer.entity.Transfer;
+import sbp.transfer.jms.AccountCommandPartitioner;
+import sbp.transfer.repository.TransferRepository;
+import sbp.transfer.scheduled.ConfirmationTimeoutScheduler;
+import sbp.transfer.service.handler.impl.TransferConfirmationHandlerImpl;
+import sbp.transfer.service.limit.SenderLimitService;
+
+/**
+ * Проверка кода подтверждения в TransferConfirmationHandlerImpl: совпадение кода
+ * (переход в PROCESSING_FUNDS и команда списания) и неверный код (счетчик попыток).
+ * Репозиторий на каждый вызов отдает свежий перевод в AWAITING_CONFIRMATION.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferConfirmationBenchmark {
+
+  private static final String SENDER = "9991112222";
+  private static final String CODE = "654321";
+
+  @Param({ "match", "mismatch" })
+  public String code;
+
+  private TransferConfirmationHandlerImpl handler;
+  private UUID transferId;
+  private String providedCode;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    transferId = UUID.randomUUID();
+    providedCode = "match".equals(code) ? CODE : "000000";
+
+    TransferRepository repository = RepositoryStubs.create(
+      TransferRepository.class,
+      Map.of(
+        "findById",
+        args -> Optional.of(awaitingConfirmation((UUID) args[0])),
+        "save",
+        args -> args[0]
+      )
+    );
+    // Колесо таймеров и суточные лимиты выключены, как в конфигурации по умолчанию
+    StaticListableBeanFactory noBeans = new StaticListableBeanFactory();
+    handler = new TransferConfirmationHandlerImpl(
+      repository,
+      (destination, payload, messageGroupId) -> {},
+      new AccountCommandPartitioner(false, 16),
+      noBeans.getBeanProvider(ConfirmationTimeoutScheduler.class),
+      noBeans.getBeanProvider(SenderLimitService.class)
+    );
+    Field maxAttempts = TransferConfirmationHandlerImpl.class.getDeclaredField(
+      "maxConfirmationAttempts"
+    );
+    maxAttempts.setAccessible(true);
+    maxAttempts.setInt(handler, 3);
+  }
+
+  @Benchmark
+  public TransferConfirmationResponse confirmTransfer() {
+    return handler.confirmTransfer(transferId, providedCode, SENDER);
+  }
+
+  private static Transfer awaitingConfirmation(UUID id) {
+    return Transfer.builder()
+      .id(id)
+      .correlationId(id)
+      .senderPhoneNumber(SENDER)
+      .recipientPhoneNumber("9993334444")
+      .recipientBankId("SBP_BANK")
+      .amount(new BigDecimal("150.00"))
+      .status(TransferStatus.AWAITING_CONFIRMATION)
+      .sbpConfirmationCode(CODE)
+      .build();
+  }
+}
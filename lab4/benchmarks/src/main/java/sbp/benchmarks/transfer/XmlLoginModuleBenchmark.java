@@ -0,0 +1,69 @@
+package sbp.benchmarks.transfer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.security.auth.Subject;
+import javax.security.auth.callback.Callback;
+import javax.security.auth.callback.CallbackHandler;
+import javax.security.auth.callback.NameCallback;
+import javax.security.auth.callback.PasswordCallback;
+import javax.security.auth.login.LoginException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sbp.transfer.security.jaas.XmlLoginModule;
+
+/**
+ * XmlLoginModule.login: чтение и разбор XML с пользователями и проверка BCrypt-хэша.
+ * Пользователи - benchmark-users.xml (пароль "password"; стоимость BCrypt как в users.xml сервиса).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlLoginModuleBenchmark {
+
+  @Param({ "valid", "unknown-user" })
+  public String credentials;
+
+  @Benchmark
+  public boolean login() throws LoginException {
+    String username = "valid".equals(credentials) ? "9991112222" : "nobody";
+    Map<String, Object> options = new HashMap<>();
+    options.put("xmlUserFile", "classpath:benchmark-users.xml");
+
+    XmlLoginModule module = new XmlLoginModule();
+    module.initialize(
+      new Subject(),
+      callbackHandler(username, "password"),
+      new HashMap<>(),
+      options
+    );
+    return module.login();
+  }
+
+  private static CallbackHandler callbackHandler(
+    String username,
+    String password
+  ) {
+    return (Callback[] callbacks) -> {
+      for (Callback callback : callbacks) {
+        if (callback instanceof NameCallback nameCallback) {
+          nameCallback.setName(username);
+        } else if (callback instanceof PasswordCallback passwordCallback) {
+          passwordCallback.setPassword(password.toCharArray());
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,25 @@
+package sbp.dto;
+
+public final class AccountMessageGroups {
+
+  private AccountMessageGroups() {
+    // Utility class, non-instantiable
+  }
+
+  // Стандартное свойство JMS: ActiveMQ доставляет все сообщения одной группы одному консьюмеру
+  public static final String GROUP_ID_PROPERTY = "JMSXGroupID";
+
+  public static final String GROUP_ID_PREFIX = "account-";
+
+  /**
+   * Номер партиции счета. Та же функция используется для партиций in-memory леджера,
+   * чтобы партиция очереди и партиция леджера совпадали при одинаковом числе партиций.
+   */
+  public static int partitionOf(String phoneNumber, int partitions) {
+    return Math.floorMod(phoneNumber.hashCode(), partitions);
+  }
+
+  public static String groupIdFor(String phoneNumber, int partitions) {
+    return GROUP_ID_PREFIX + partitionOf(phoneNumber, partitions);
+  }
+}
@@ -45,4 +45,6 @@ public class ChequeDetailsDTO implements Serializable {
   private String subject; // Тема письма с чеком
 
   private String operationDetails; // Например, "Перевод средств по СБП"
+
+  private String locale; // Язык шаблона чека (en, ru); null - язык по умолчанию
 }
@@ -0,0 +1,88 @@
+package sbp.dto.inbox;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Потокобезопасный фильтр Блума для строковых ключей.
+ * Ложноотрицательных ответов не бывает: если mightContain вернул false, ключ точно не добавлялся.
+ */
+public final class BloomFilter {
+
+  private static final double LN2 = Math.log(2);
+
+  private final AtomicLongArray words;
+  private final long numBits;
+  private final int numHashes;
+
+  public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+    if (expectedInsertions <= 0) {
+      throw new IllegalArgumentException("expectedInsertions must be positive");
+    }
+    if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException(
+        "falsePositiveRate must be in (0, 1)"
+      );
+    }
+    long bits = (long) Math.ceil(
+      (-expectedInsertions * Math.log(falsePositiveRate)) / (LN2 * LN2)
+    );
+    this.numBits = Math.max(64, bits);
+    this.numHashes = Math.max(
+      1,
+      (int) Math.round(((double) numBits / expectedInsertions) * LN2)
+    );
+    this.words = new AtomicLongArray((int) ((numBits + 63) / 64));
+  }
+
+  public void put(String key) {
+    long[] hashes = hash(key);
+    for (int i = 0; i < numHashes; i++) {
+      long bit = bitIndex(hashes, i);
+      int wordIndex = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long word;
+      do {
+        word = words.get(wordIndex);
+        if ((word & mask) != 0) {
+          break;
+        }
+      } while (!words.compareAndSet(wordIndex, word, word | mask));
+    }
+  }
+
+  public boolean mightContain(String key) {
+    long[] hashes = hash(key);
+    for (int i = 0; i < numHashes; i++) {
+      long bit = bitIndex(hashes, i);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long bitIndex(long[] hashes, int i) {
+    // Двойное хэширование: h1 + i * h2
+    return Math.floorMod(hashes[0] + i * hashes[1], numBits);
+  }
+
+  private static long[] hash(String key) {
+    byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+    // FNV-1a (64 бит) с последующим перемешиванием splitmix64 для двух независимых хэшей
+    long h = 0xcbf29ce484222325L;
+    for (byte b : bytes) {
+      h ^= b;
+      h *= 0x100000001b3L;
+    }
+    long h1 = mix(h);
+    long h2 = mix(h ^ 0x9e3779b97f4a7c15L) | 1L;
+    return new long[] { h1, h2 };
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
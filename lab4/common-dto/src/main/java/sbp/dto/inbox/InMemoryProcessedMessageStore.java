@@ -0,0 +1,72 @@
+package sbp.dto.inbox;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Хранилище ключей в памяти процесса - для сервисов без собственной БД.
+ * <p>
+ * Память не участвует в транзакции слушателя, поэтому ключ, записанный в активной
+ * Spring-транзакции, удаляется, если она не зафиксирована: повторная доставка откатанного
+ * сообщения обрабатывается заново, а не отбрасывается как дубликат.
+ */
+public class InMemoryProcessedMessageStore implements ProcessedMessageStore {
+
+  private final Map<String, Instant> keys = new ConcurrentHashMap<>();
+
+  @Override
+  public boolean exists(String messageType, UUID correlationId) {
+    Instant expiresAt = keys.get(key(messageType, correlationId));
+    return expiresAt != null && expiresAt.isAfter(Instant.now());
+  }
+
+  @Override
+  public boolean tryInsert(
+    String messageType,
+    UUID correlationId,
+    Instant expiresAt
+  ) {
+    String key = key(messageType, correlationId);
+    Instant now = Instant.now();
+    Instant previous = keys.putIfAbsent(key, expiresAt);
+    // Просроченный ключ заменяем атомарно
+    boolean inserted =
+      previous == null ||
+      (previous.isBefore(now) && keys.replace(key, previous, expiresAt));
+    if (inserted) {
+      forgetUnlessCommitted(key, expiresAt);
+    }
+    return inserted;
+  }
+
+  @Override
+  public int deleteExpired(Instant now) {
+    int before = keys.size();
+    keys.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+    return before - keys.size();
+  }
+
+  private void forgetUnlessCommitted(String key, Instant expiresAt) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+      new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          if (status != STATUS_COMMITTED) {
+            keys.remove(key, expiresAt);
+          }
+        }
+      }
+    );
+  }
+
+  private static String key(String messageType, UUID correlationId) {
+    return messageType + ":" + correlationId;
+  }
+}
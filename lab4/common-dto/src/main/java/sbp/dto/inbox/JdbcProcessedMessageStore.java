@@ -0,0 +1,123 @@
+package sbp.dto.inbox;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+/**
+ * Хранилище ключей в таблице inbox_processed_messages (PostgreSQL).
+ * Соединения берутся из DataSource сервиса, поэтому при работе внутри JTA-транзакции
+ * запись ключа фиксируется или откатывается вместе с бизнес-изменениями.
+ */
+public class JdbcProcessedMessageStore implements ProcessedMessageStore {
+
+  public static final String TABLE_NAME = "inbox_processed_messages";
+
+  private static final String CREATE_TABLE_SQL =
+    "CREATE TABLE IF NOT EXISTS " +
+    TABLE_NAME +
+    " (" +
+    "message_type VARCHAR(64) NOT NULL, " +
+    "correlation_id VARCHAR(36) NOT NULL, " +
+    "expires_at TIMESTAMP NOT NULL, " +
+    "PRIMARY KEY (message_type, correlation_id))";
+  private static final String CREATE_INDEX_SQL =
+    "CREATE INDEX IF NOT EXISTS idx_" +
+    TABLE_NAME +
+    "_expires_at ON " +
+    TABLE_NAME +
+    " (expires_at)";
+  private static final String EXISTS_SQL =
+    "SELECT 1 FROM " +
+    TABLE_NAME +
+    " WHERE message_type = ? AND correlation_id = ? AND expires_at > ?";
+  private static final String INSERT_SQL =
+    "INSERT INTO " +
+    TABLE_NAME +
+    " (message_type, correlation_id, expires_at) VALUES (?, ?, ?) " +
+    "ON CONFLICT (message_type, correlation_id) DO UPDATE SET expires_at = EXCLUDED.expires_at " +
+    "WHERE " +
+    TABLE_NAME +
+    ".expires_at <= ?";
+  private static final String DELETE_EXPIRED_SQL =
+    "DELETE FROM " + TABLE_NAME + " WHERE expires_at <= ?";
+
+  private final DataSource dataSource;
+
+  public JdbcProcessedMessageStore(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  public void createTableIfNotExists() {
+    try (
+      Connection connection = dataSource.getConnection();
+      Statement statement = connection.createStatement()
+    ) {
+      statement.execute(CREATE_TABLE_SQL);
+      statement.execute(CREATE_INDEX_SQL);
+    } catch (SQLException e) {
+      throw new IllegalStateException(
+        "Failed to create " + TABLE_NAME + " table",
+        e
+      );
+    }
+  }
+
+  @Override
+  public boolean exists(String messageType, UUID correlationId) {
+    try (
+      Connection connection = dataSource.getConnection();
+      PreparedStatement statement = connection.prepareStatement(EXISTS_SQL)
+    ) {
+      statement.setString(1, messageType);
+      statement.setString(2, correlationId.toString());
+      statement.setTimestamp(3, Timestamp.from(Instant.now()));
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next();
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to query " + TABLE_NAME, e);
+    }
+  }
+
+  @Override
+  public boolean tryInsert(
+    String messageType,
+    UUID correlationId,
+    Instant expiresAt
+  ) {
+    try (
+      Connection connection = dataSource.getConnection();
+      PreparedStatement statement = connection.prepareStatement(INSERT_SQL)
+    ) {
+      statement.setString(1, messageType);
+      statement.setString(2, correlationId.toString());
+      statement.setTimestamp(3, Timestamp.from(expiresAt));
+      statement.setTimestamp(4, Timestamp.from(Instant.now()));
+      return statement.executeUpdate() > 0;
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to insert into " + TABLE_NAME, e);
+    }
+  }
+
+  @Override
+  public int deleteExpired(Instant now) {
+    try (
+      Connection connection = dataSource.getConnection();
+      PreparedStatement statement = connection.prepareStatement(
+        DELETE_EXPIRED_SQL
+      )
+    ) {
+      statement.setTimestamp(1, Timestamp.from(now));
+      return statement.executeUpdate();
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to purge " + TABLE_NAME, e);
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package sbp.dto.inbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Идемпотентный inbox для JMS-слушателей.
+ * <p>
+ * Ключ (messageType, correlationId) записывается в ProcessedMessageStore в транзакции обработки
+ * сообщения. Перед хранилищем стоит фильтр Блума: для нового ключа (обычный случай) фильтр
+ * отвечает "точно нет" и проверочный запрос к хранилищу не выполняется - остается только вставка.
+ * К хранилищу за проверкой обращаемся лишь при срабатывании фильтра (повтор или ложное срабатывание).
+ * Фильтр ротируется раз в TTL, поэтому хранит ключи не меньше срока их жизни в хранилище.
+ */
+public class MessageInbox {
+
+  private final ProcessedMessageStore store;
+  private final boolean enabled;
+  private final Duration ttl;
+  private final Duration purgeInterval;
+  private final int expectedInsertions;
+  private final double falsePositiveRate;
+
+  private final AtomicReference<BloomGeneration> bloom;
+  private final AtomicLong nextPurgeAtMillis;
+
+  public MessageInbox(
+    ProcessedMessageStore store,
+    boolean enabled,
+    Duration ttl,
+    Duration purgeInterval,
+    int expectedInsertions,
+    double falsePositiveRate
+  ) {
+    this.store = store;
+    this.enabled = enabled;
+    this.ttl = ttl;
+    this.purgeInterval = purgeInterval;
+    this.expectedInsertions = expectedInsertions;
+    this.falsePositiveRate = falsePositiveRate;
+    long now = System.currentTimeMillis();
+    this.bloom = new AtomicReference<>(
+      new BloomGeneration(
+        newFilter(),
+        newFilter(),
+        now + ttl.toMillis()
+      )
+    );
+    this.nextPurgeAtMillis = new AtomicLong(now + purgeInterval.toMillis());
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Регистрирует сообщение как обработанное.
+   *
+   * @return true, если сообщение нужно обработать; false, если это дубликат.
+   */
+  public boolean tryAcquire(String messageType, UUID correlationId) {
+    if (!enabled) {
+      return true;
+    }
+    purgeIfDue();
+    String key = messageType + ":" + correlationId;
+    BloomGeneration generation = currentGeneration();
+    if (
+      generation.mightContain(key) && store.exists(messageType, correlationId)
+    ) {
+      return false;
+    }
+    // Вставка атомарна: при гонке двух доставок одного сообщения выиграет только одна
+    if (!store.tryInsert(messageType, correlationId, Instant.now().plus(ttl))) {
+      return false;
+    }
+    generation.current.put(key);
+    return true;
+  }
+
+  private BloomGeneration currentGeneration() {
+    BloomGeneration generation = bloom.get();
+    long now = System.currentTimeMillis();
+    if (now >= generation.rotateAtMillis) {
+      BloomGeneration rotated = new BloomGeneration(
+        newFilter(),
+        generation.current,
+        now + ttl.toMillis()
+      );
+      bloom.compareAndSet(generation, rotated);
+      generation = bloom.get();
+    }
+    return generation;
+  }
+
+  private void purgeIfDue() {
+    long now = System.currentTimeMillis();
+    long due = nextPurgeAtMillis.get();
+    if (
+      now >= due &&
+      nextPurgeAtMillis.compareAndSet(due, now + purgeInterval.toMillis())
+    ) {
+      store.deleteExpired(Instant.ofEpochMilli(now));
+    }
+  }
+
+  private BloomFilter newFilter() {
+    return new BloomFilter(expectedInsertions, falsePositiveRate);
+  }
+
+  private static final class BloomGeneration {
+
+    private final BloomFilter current;
+    private final BloomFilter previous;
+    private final long rotateAtMillis;
+
+    private BloomGeneration(
+      BloomFilter current,
+      BloomFilter previous,
+      long rotateAtMillis
+    ) {
+      this.current = current;
+      this.previous = previous;
+      this.rotateAtMillis = rotateAtMillis;
+    }
+
+    private boolean mightContain(String key) {
+      return current.mightContain(key) || previous.mightContain(key);
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package sbp.dto.inbox;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Хранилище ключей обработанных сообщений (messageType, correlationId).
+ */
+public interface ProcessedMessageStore {
+  /**
+   * Проверяет, записан ли ключ.
+   */
+  boolean exists(String messageType, UUID correlationId);
+
+  /**
+   * Записывает ключ, если его еще нет.
+   *
+   * @return true, если ключ записан; false, если он уже был.
+   */
+  boolean tryInsert(String messageType, UUID correlationId, Instant expiresAt);
+
+  /**
+   * Удаляет ключи с истекшим сроком хранения.
+   *
+   * @return Количество удаленных ключей.
+   */
+  int deleteExpired(Instant now);
+}
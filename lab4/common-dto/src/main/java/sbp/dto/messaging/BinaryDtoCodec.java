@@ -0,0 +1,399 @@
+package sbp.dto.messaging;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import sbp.dto.jms.CompleteTransferCommand;
+import sbp.dto.jms.ConfirmationCodeSentEvent;
+import sbp.dto.jms.FundsProcessedEvent;
+import sbp.dto.jms.ReleaseFundsCommand;
+import sbp.dto.jms.ReserveFundsCommand;
+import sbp.dto.jms.SendConfirmationCodeCommand;
+import sbp.dto.jms.SendFailureNotificationCommand;
+import sbp.dto.jms.SendSuccessNotificationCommand;
+
+/**
+ * Компактный двоичный формат для DTO из sbp.dto.jms.
+ * <p>
+ * Заголовок: версия схемы (1 байт) и идентификатор типа (1 байт), далее поля в фиксированном порядке:
+ * UUID - 16 байт, суммы - long в копейках (масштаб 2), строки - varint-длина и UTF-8.
+ * Суммы с масштабом больше 2 или вне диапазона long кодируются строкой без потери точности.
+ * Новые поля добавляются только в конец с увеличением версии схемы.
+ */
+public final class BinaryDtoCodec {
+
+  public static final int SCHEMA_VERSION = 1;
+
+  private static final int AMOUNT_SCALE = 2;
+  private static final byte AMOUNT_NULL = 0;
+  private static final byte AMOUNT_SCALED_LONG = 1;
+  private static final byte AMOUNT_DECIMAL_STRING = 2;
+
+  private static final Map<Class<?>, Schema<?>> SCHEMAS_BY_CLASS =
+    new HashMap<>();
+  private static final Schema<?>[] SCHEMAS_BY_ID = new Schema<?>[16];
+
+  static {
+    register(
+      1,
+      ReserveFundsCommand.class,
+      (dto, out) -> {
+        out.writeUuid(dto.getCorrelationId());
+        out.writeString(dto.getSenderPhoneNumber());
+        out.writeAmount(dto.getAmount());
+        out.writeString(dto.getConfirmationCode());
+      },
+      in ->
+        ReserveFundsCommand.builder()
+          .correlationId(in.readUuid())
+          .senderPhoneNumber(in.readString())
+          .amount(in.readAmount())
+          .confirmationCode(in.readString())
+          .build()
+    );
+    register(
+      2,
+      ReleaseFundsCommand.class,
+      (dto, out) -> {
+        out.writeUuid(dto.getCorrelationId());
+        out.writeString(dto.getSenderPhoneNumber());
+        out.writeString(dto.getRecipientPhoneNumber());
+        out.writeAmount(dto.getAmount());
+        out.writeBoolean(dto.isFinalDebit());
+      },
+      in ->
+        ReleaseFundsCommand.builder()
+          .correlationId(in.readUuid())
+          .senderPhoneNumber(in.readString())
+          .recipientPhoneNumber(in.readString())
+          .amount(in.readAmount())
+          .isFinalDebit(in.readBoolean())
+          .build()
+    );
+    register(
+      3,
+      FundsProcessedEvent.class,
+      (dto, out) -> {
+        out.writeUuid(dto.getCorrelationId());
+        out.writeString(dto.getSenderPhoneNumber());
+        out.writeString(dto.getRecipientPhoneNumber());
+        out.writeString(dto.getRecipientEmail());
+        out.writeAmount(dto.getAmount());
+        out.writeBoolean(dto.isSuccess());
+        out.writeString(dto.getReason());
+      },
+      in ->
+        FundsProcessedEvent.builder()
+          .correlationId(in.readUuid())
+          .senderPhoneNumber(in.readString())
+          .recipientPhoneNumber(in.readString())
+          .recipientEmail(in.readString())
+          .amount(in.readAmount())
+          .success(in.readBoolean())
+          .reason(in.readString())
+          .build()
+    );
+    register(
+      4,
+      CompleteTransferCommand.class,
+      (dto, out) -> {
+        out.writeUuid(dto.getCorrelationId());
+        out.writeString(dto.getSenderPhoneNumber());
+        out.writeString(dto.getRecipientPhoneNumber());
+        out.writeAmount(dto.getAmount());
+      },
+      in ->
+        CompleteTransferCommand.builder()
+          .correlationId(in.readUuid())
+          .senderPhoneNumber(in.readString())
+          .recipientPhoneNumber(in.readString())
+          .amount(in.readAmount())
+          .build()
+    );
+    register(
+      5,
+      ConfirmationCodeSentEvent.class,
+      (dto, out) -> out.writeUuid(dto.getCorrelationId()),
+      in ->
+        ConfirmationCodeSentEvent.builder().correlationId(in.readUuid()).build()
+    );
+    register(
+      6,
+      SendConfirmationCodeCommand.class,
+      (dto, out) -> {
+        out.writeUuid(dto.getCorrelationId());
+        out.writeString(dto.getPhoneNumber());
+        out.writeString(dto.getCode());
+      },
+      in ->
+        SendConfirmationCodeCommand.builder()
+          .correlationId(in.readUuid())
+          .phoneNumber(in.readString())
+          .code(in.readString())
+          .build()
+    );
+    register(
+      7,
+      SendSuccessNotificationCommand.class,
+      (dto, out) -> {
+        out.writeUuid(dto.getCorrelationId());
+        out.writeString(dto.getSenderPhoneNumber());
+        out.writeAmount(dto.getAmount());
+        out.writeString(dto.getRecipientInfo());
+      },
+      in ->
+        SendSuccessNotificationCommand.builder()
+          .correlationId(in.readUuid())
+          .senderPhoneNumber(in.readString())
+          .amount(in.readAmount())
+          .recipientInfo(in.readString())
+          .build()
+    );
+    register(
+      8,
+      SendFailureNotificationCommand.class,
+      (dto, out) -> {
+        out.writeUuid(dto.getCorrelationId());
+        out.writeString(dto.getSenderPhoneNumber());
+        out.writeAmount(dto.getAmount());
+        out.writeString(dto.getReason());
+      },
+      in ->
+        SendFailureNotificationCommand.builder()
+          .correlationId(in.readUuid())
+          .senderPhoneNumber(in.readString())
+          .amount(in.readAmount())
+          .reason(in.readString())
+          .build()
+    );
+  }
+
+  private BinaryDtoCodec() {}
+
+  public static boolean supports(Class<?> type) {
+    return SCHEMAS_BY_CLASS.containsKey(type);
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> byte[] encode(T dto) {
+    Schema<T> schema = (Schema<T>) SCHEMAS_BY_CLASS.get(dto.getClass());
+    if (schema == null) {
+      throw new IllegalArgumentException(
+        "Binary codec does not support " + dto.getClass().getName()
+      );
+    }
+    Writer out = new Writer();
+    out.writeByte(SCHEMA_VERSION);
+    out.writeByte(schema.typeId);
+    schema.writer.accept(dto, out);
+    return out.toByteArray();
+  }
+
+  public static Object decode(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    try {
+      int version = buffer.get();
+      if (version < 1 || version > SCHEMA_VERSION) {
+        throw new IllegalArgumentException(
+          "Unsupported binary schema version: " + version
+        );
+      }
+      int typeId = buffer.get();
+      Schema<?> schema = typeId > 0 && typeId < SCHEMAS_BY_ID.length
+        ? SCHEMAS_BY_ID[typeId]
+        : null;
+      if (schema == null) {
+        throw new IllegalArgumentException(
+          "Unknown binary type id: " + typeId
+        );
+      }
+      return schema.reader.apply(new Reader(buffer));
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Truncated binary message", e);
+    }
+  }
+
+  private static <T> void register(
+    int typeId,
+    Class<T> type,
+    BiConsumer<T, Writer> writer,
+    Function<Reader, T> reader
+  ) {
+    Schema<T> schema = new Schema<>(typeId, writer, reader);
+    SCHEMAS_BY_CLASS.put(type, schema);
+    SCHEMAS_BY_ID[typeId] = schema;
+  }
+
+  private record Schema<T>(
+    int typeId,
+    BiConsumer<T, Writer> writer,
+    Function<Reader, T> reader
+  ) {}
+
+  private static final class Writer {
+
+    private byte[] bytes = new byte[128];
+    private int position;
+
+    void writeByte(int value) {
+      ensureCapacity(1);
+      bytes[position++] = (byte) value;
+    }
+
+    void writeUuid(UUID value) {
+      if (value == null) {
+        writeByte(0);
+        return;
+      }
+      writeByte(1);
+      writeLong(value.getMostSignificantBits());
+      writeLong(value.getLeastSignificantBits());
+    }
+
+    void writeBoolean(boolean value) {
+      writeByte(value ? 1 : 0);
+    }
+
+    void writeString(String value) {
+      if (value == null) {
+        writeVarInt(0);
+        return;
+      }
+      byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(encoded.length + 1);
+      ensureCapacity(encoded.length);
+      System.arraycopy(encoded, 0, bytes, position, encoded.length);
+      position += encoded.length;
+    }
+
+    void writeAmount(BigDecimal value) {
+      if (value == null) {
+        writeByte(AMOUNT_NULL);
+        return;
+      }
+      try {
+        // movePointRight/longValueExact для небольших сумм обходятся без BigInteger
+        long scaled = value
+          .setScale(AMOUNT_SCALE, RoundingMode.UNNECESSARY)
+          .movePointRight(AMOUNT_SCALE)
+          .longValueExact();
+        writeByte(AMOUNT_SCALED_LONG);
+        writeLong(scaled);
+      } catch (ArithmeticException e) {
+        writeByte(AMOUNT_DECIMAL_STRING);
+        writeString(value.toPlainString());
+      }
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(bytes, position);
+    }
+
+    private void writeLong(long value) {
+      ensureCapacity(Long.BYTES);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        bytes[position++] = (byte) (value >>> shift);
+      }
+    }
+
+    private void writeVarInt(int value) {
+      while ((value & ~0x7F) != 0) {
+        writeByte((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      writeByte(value);
+    }
+
+    private void ensureCapacity(int additional) {
+      if (position + additional > bytes.length) {
+        bytes = Arrays.copyOf(
+          bytes,
+          Math.max(bytes.length * 2, position + additional)
+        );
+      }
+    }
+  }
+
+  private static final class Reader {
+
+    private final ByteBuffer buffer;
+
+    private Reader(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    UUID readUuid() {
+      if (buffer.get() == 0) {
+        return null;
+      }
+      return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    boolean readBoolean() {
+      return buffer.get() != 0;
+    }
+
+    String readString() {
+      int length = readVarInt();
+      if (length == 0) {
+        return null;
+      }
+      // Длина из поврежденного varint может быть отрицательной или больше остатка сообщения
+      if (length < 0 || length - 1 > buffer.remaining()) {
+        throw new IllegalArgumentException(
+          "Invalid string length " +
+          (length - 1) +
+          ", remaining " +
+          buffer.remaining()
+        );
+      }
+      byte[] bytes = new byte[length - 1];
+      buffer.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    BigDecimal readAmount() {
+      byte tag = buffer.get();
+      return switch (tag) {
+        case AMOUNT_NULL -> null;
+        case AMOUNT_SCALED_LONG -> BigDecimal.valueOf(
+          buffer.getLong(),
+          AMOUNT_SCALE
+        );
+        case AMOUNT_DECIMAL_STRING -> readDecimal();
+        default -> throw new IllegalArgumentException(
+          "Unknown amount encoding: " + tag
+        );
+      };
+    }
+
+    private BigDecimal readDecimal() {
+      String value = readString();
+      if (value == null) {
+        throw new IllegalArgumentException("Missing decimal amount");
+      }
+      // NumberFormatException - тоже IllegalArgumentException
+      return new BigDecimal(value);
+    }
+
+    private int readVarInt() {
+      int value = 0;
+      for (int shift = 0; shift < 32; shift += 7) {
+        byte b = buffer.get();
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Malformed varint");
+    }
+  }
+}
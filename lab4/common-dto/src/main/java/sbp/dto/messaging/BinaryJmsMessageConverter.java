@@ -0,0 +1,69 @@
+package sbp.dto.messaging;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+
+/**
+ * Конвертер с двоичным кодеком BinaryDtoCodec и запасным конвертером (JSON).
+ * <p>
+ * При приеме BytesMessage с заголовком {@value #CODEC_PROPERTY}={@value #CODEC_BINARY} декодируется двоично,
+ * все остальное передается запасному конвертеру, поэтому получатель понимает оба формата.
+ * При отправке по умолчанию используется запасной конвертер; двоичный формат выбирает
+ * CodecRoutingJmsTemplate для очередей, где получатели уже обновлены.
+ */
+public class BinaryJmsMessageConverter implements MessageConverter {
+
+  public static final String CODEC_PROPERTY = "_codec";
+  public static final String CODEC_BINARY = "sbp-bin";
+
+  private final MessageConverter fallbackConverter;
+
+  public BinaryJmsMessageConverter(MessageConverter fallbackConverter) {
+    this.fallbackConverter = fallbackConverter;
+  }
+
+  @Override
+  public Message toMessage(Object object, Session session)
+    throws JMSException, MessageConversionException {
+    return fallbackConverter.toMessage(object, session);
+  }
+
+  /**
+   * Сериализует объект двоичным кодеком; неподдерживаемые типы - запасным конвертером.
+   */
+  public Message toBinaryMessage(Object object, Session session)
+    throws JMSException, MessageConversionException {
+    if (!BinaryDtoCodec.supports(object.getClass())) {
+      return fallbackConverter.toMessage(object, session);
+    }
+    BytesMessage message = session.createBytesMessage();
+    message.writeBytes(BinaryDtoCodec.encode(object));
+    message.setStringProperty(CODEC_PROPERTY, CODEC_BINARY);
+    return message;
+  }
+
+  @Override
+  public Object fromMessage(Message message)
+    throws JMSException, MessageConversionException {
+    if (
+      message instanceof BytesMessage bytesMessage &&
+      CODEC_BINARY.equals(message.getStringProperty(CODEC_PROPERTY))
+    ) {
+      byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+      bytesMessage.readBytes(bytes);
+      try {
+        return BinaryDtoCodec.decode(bytes);
+      } catch (IllegalArgumentException e) {
+        throw new MessageConversionException(
+          "Failed to decode binary message: " + e.getMessage(),
+          e
+        );
+      }
+    }
+    return fallbackConverter.fromMessage(message);
+  }
+}
@@ -0,0 +1,64 @@
+package sbp.dto.messaging;
+
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Message;
+import java.util.Set;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessagePostProcessor;
+
+/**
+ * JmsTemplate, выбирающий формат сообщения по очереди назначения:
+ * для очередей из binaryDestinations - двоичный кодек, для остальных - конвертер по умолчанию (JSON).
+ */
+public class CodecRoutingJmsTemplate extends JmsTemplate {
+
+  private Set<String> binaryDestinations = Set.of();
+
+  public CodecRoutingJmsTemplate(ConnectionFactory connectionFactory) {
+    super(connectionFactory);
+  }
+
+  public void setBinaryDestinations(Set<String> binaryDestinations) {
+    this.binaryDestinations = Set.copyOf(binaryDestinations);
+  }
+
+  @Override
+  public void convertAndSend(String destinationName, Object message)
+    throws JmsException {
+    if (!usesBinary(destinationName)) {
+      super.convertAndSend(destinationName, message);
+      return;
+    }
+    send(destinationName, session ->
+      binaryConverter().toBinaryMessage(message, session)
+    );
+  }
+
+  @Override
+  public void convertAndSend(
+    String destinationName,
+    Object message,
+    MessagePostProcessor postProcessor
+  ) throws JmsException {
+    if (!usesBinary(destinationName)) {
+      super.convertAndSend(destinationName, message, postProcessor);
+      return;
+    }
+    send(destinationName, session -> {
+      Message jmsMessage = binaryConverter().toBinaryMessage(message, session);
+      return postProcessor.postProcessMessage(jmsMessage);
+    });
+  }
+
+  private boolean usesBinary(String destinationName) {
+    return (
+      binaryDestinations.contains(destinationName) &&
+      getMessageConverter() instanceof BinaryJmsMessageConverter
+    );
+  }
+
+  private BinaryJmsMessageConverter binaryConverter() {
+    return (BinaryJmsMessageConverter) getMessageConverter();
+  }
+}
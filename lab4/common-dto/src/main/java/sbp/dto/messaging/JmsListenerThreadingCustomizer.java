@@ -0,0 +1,30 @@
+package sbp.dto.messaging;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+
+/**
+ * Общая настройка потоков фабрик @JmsListener во всех сервисах. Boot 3.2 сам переводит
+ * на виртуальные потоки Tomcat и @Scheduled, но не фабрики слушателей, объявленные вручную.
+ */
+public final class JmsListenerThreadingCustomizer {
+
+  private JmsListenerThreadingCustomizer() {
+    // Utility class, non-instantiable
+  }
+
+  /**
+   * При spring.threads.virtual.enabled на JDK 21+ консьюмеры (и блокирующие вызовы
+   * в слушателях) выполняются на виртуальных потоках.
+   */
+  public static void customize(
+    DefaultJmsListenerContainerFactory factory,
+    Environment environment
+  ) {
+    if (Threading.VIRTUAL.isActive(environment)) {
+      factory.setTaskExecutor(new VirtualThreadTaskExecutor("jms-listener-"));
+    }
+  }
+}
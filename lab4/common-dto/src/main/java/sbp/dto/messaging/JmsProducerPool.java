@@ -0,0 +1,229 @@
+package sbp.dto.messaging;
+
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.jms.XAConnectionFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jms.connection.CachingConnectionFactory;
+
+/**
+ * Пул продюсеров для JmsTemplate: одно разделяемое соединение, кэш сессий и
+ * кэш MessageProducer по destination внутри каждой сессии (CachingConnectionFactory).
+ * Считает запросы сессий, создание физических сессий и продюсеров, отправки - по ним видно,
+ * насколько пул переиспользуется.
+ * <p>
+ * Только для фабрик без XA. Сессия XA-фабрики (Atomikos) привязывается к JTA-транзакции,
+ * в которой создана: разделяемое соединение и кэш сессий между транзакциями выводят отправку
+ * из глобальной транзакции или записывают ее в чужую. Такие фабрики не оборачиваются -
+ * их соединения и сессии пулит сам Atomikos (spring.jta.atomikos.connectionfactory.max-pool-size).
+ */
+@Slf4j
+public class JmsProducerPool implements InitializingBean, DisposableBean {
+
+  private static final String ATOMIKOS_PACKAGE_PREFIX = "com.atomikos.";
+
+  private final ConnectionFactory targetConnectionFactory;
+  // null, если целевая фабрика XA и пул не используется
+  private final MeteredCachingConnectionFactory connectionFactory;
+  private final long statsLogIntervalMs;
+  private final String name;
+
+  private final LongAdder sessionRequests = new LongAdder();
+  private final LongAdder sessionsCreated = new LongAdder();
+  private final LongAdder producersCreated = new LongAdder();
+  private final LongAdder messagesSent = new LongAdder();
+
+  private ScheduledExecutorService statsLogger;
+
+  public JmsProducerPool(
+    String name,
+    ConnectionFactory targetConnectionFactory,
+    int sessionCacheSize,
+    long statsLogIntervalMs
+  ) {
+    this.name = name;
+    this.statsLogIntervalMs = statsLogIntervalMs;
+    this.targetConnectionFactory = targetConnectionFactory;
+    if (isXaManaged(targetConnectionFactory)) {
+      log.warn(
+        "JMS producer pool [{}] disabled: {} enlists sessions in JTA transactions and is pooled by the transaction manager",
+        name,
+        targetConnectionFactory.getClass().getName()
+      );
+      this.connectionFactory = null;
+      return;
+    }
+    this.connectionFactory = new MeteredCachingConnectionFactory(
+      targetConnectionFactory
+    );
+    this.connectionFactory.setSessionCacheSize(sessionCacheSize);
+    this.connectionFactory.setCacheProducers(true);
+    // Консьюмеры кэшируют контейнеры слушателей, здесь они не нужны
+    this.connectionFactory.setCacheConsumers(false);
+    this.connectionFactory.setReconnectOnException(true);
+  }
+
+  /**
+   * Фабрика для JmsTemplate: пул или, для XA-фабрики, исходная фабрика без изменений.
+   */
+  public ConnectionFactory getConnectionFactory() {
+    return connectionFactory != null
+      ? connectionFactory
+      : targetConnectionFactory;
+  }
+
+  public boolean isPooling() {
+    return connectionFactory != null;
+  }
+
+  /**
+   * Фабрика, сессии которой участвуют в XA-транзакциях: XAConnectionFactory или обертка Atomikos.
+   */
+  public static boolean isXaManaged(ConnectionFactory connectionFactory) {
+    return (
+      connectionFactory instanceof XAConnectionFactory ||
+      connectionFactory.getClass().getName().startsWith(ATOMIKOS_PACKAGE_PREFIX)
+    );
+  }
+
+  public Stats stats() {
+    return new Stats(
+      sessionRequests.sum(),
+      sessionsCreated.sum(),
+      producersCreated.sum(),
+      messagesSent.sum()
+    );
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    if (connectionFactory == null) {
+      return;
+    }
+    connectionFactory.afterPropertiesSet();
+    if (statsLogIntervalMs > 0) {
+      statsLogger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jms-producer-pool-stats");
+        thread.setDaemon(true);
+        return thread;
+      });
+      statsLogger.scheduleAtFixedRate(
+        () -> log.info("JMS producer pool [{}]: {}", name, stats()),
+        statsLogIntervalMs,
+        statsLogIntervalMs,
+        TimeUnit.MILLISECONDS
+      );
+    }
+  }
+
+  @Override
+  public void destroy() {
+    if (statsLogger != null) {
+      statsLogger.shutdownNow();
+    }
+    if (connectionFactory == null) {
+      return;
+    }
+    log.info("JMS producer pool [{}] closing: {}", name, stats());
+    connectionFactory.destroy();
+  }
+
+  /**
+   * Снимок счетчиков пула.
+   */
+  public record Stats(
+    long sessionRequests,
+    long sessionsCreated,
+    long producersCreated,
+    long messagesSent
+  ) {
+    public double sessionHitRatio() {
+      return sessionRequests == 0
+        ? 0
+        : 1 - (double) sessionsCreated / sessionRequests;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+        "sessionRequests=%d, sessionsCreated=%d, sessionHitRatio=%.3f, producersCreated=%d, messagesSent=%d",
+        sessionRequests,
+        sessionsCreated,
+        sessionHitRatio(),
+        producersCreated,
+        messagesSent
+      );
+    }
+  }
+
+  private class MeteredCachingConnectionFactory
+    extends CachingConnectionFactory {
+
+    private MeteredCachingConnectionFactory(ConnectionFactory target) {
+      super(target);
+    }
+
+    @Override
+    protected Session getSession(Connection con, Integer mode)
+      throws JMSException {
+      sessionRequests.increment();
+      return super.getSession(con, mode);
+    }
+
+    @Override
+    protected Session createSession(Connection con, Integer mode)
+      throws JMSException {
+      sessionsCreated.increment();
+      return meter(super.createSession(con, mode), Session.class);
+    }
+  }
+
+  /**
+   * Оборачивает физическую сессию (или продюсер) прокси, считающим создание продюсеров и отправки.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T meter(T target, Class<T> type) {
+    InvocationHandler handler = (proxy, method, args) -> {
+      Object result = invoke(target, method, args);
+      if (
+        type == Session.class &&
+        method.getName().equals("createProducer") &&
+        result instanceof MessageProducer producer
+      ) {
+        producersCreated.increment();
+        return meter(producer, MessageProducer.class);
+      }
+      if (type == MessageProducer.class && method.getName().equals("send")) {
+        messagesSent.increment();
+      }
+      return result;
+    };
+    return (T) Proxy.newProxyInstance(
+      type.getClassLoader(),
+      new Class<?>[] { type },
+      handler
+    );
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args)
+    throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getTargetException();
+    }
+  }
+}
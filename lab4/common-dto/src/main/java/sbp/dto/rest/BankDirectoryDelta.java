@@ -0,0 +1,26 @@
+package sbp.dto.rest;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Изменения справочника банков между версиями fromVersion и toVersion.
+ * Если журнал изменений уже не содержит fromVersion, fullResyncRequired = true
+ * и получатель должен заново загрузить полный снимок.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BankDirectoryDelta {
+
+  private long fromVersion;
+  private long toVersion;
+  private boolean fullResyncRequired;
+  private List<BankInfo> upsertedBanks;
+  private List<String> removedBankIds;
+  private Map<String, List<String>> upsertedPhones;
+  private List<String> removedPhones;
+}
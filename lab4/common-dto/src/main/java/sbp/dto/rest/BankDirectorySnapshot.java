@@ -0,0 +1,20 @@
+package sbp.dto.rest;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Полный снимок справочника банков SBP Adapter на версии version.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BankDirectorySnapshot {
+
+  private long version;
+  private List<BankInfo> banks;
+  private Map<String, List<String>> phoneToBankIds;
+}
@@ -1,5 +1,6 @@
 package sbp.dto.rest;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,4 +14,20 @@ public class LoginResponse {
   private String message;
   private String username;
   private List<String> roles;
+
+  // Заполняются, если выдача токенов включена (transfer.security.token.enabled)
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String accessToken;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String tokenType;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long expiresIn; // Время жизни токена в секундах
+
+  public LoginResponse(String message, String username, List<String> roles) {
+    this.message = message;
+    this.username = username;
+    this.roles = roles;
+  }
 }
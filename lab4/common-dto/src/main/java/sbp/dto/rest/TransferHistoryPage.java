@@ -0,0 +1,19 @@
+package sbp.dto.rest;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Страница истории переводов, от новых к старым. nextCursor передается в следующий запрос;
+ * null - страниц больше нет.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferHistoryPage {
+
+  private List<TransferSummary> transfers;
+  private String nextCursor;
+}
@@ -0,0 +1,30 @@
+package sbp.dto.rest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import sbp.dto.enums.TransferStatus;
+
+/**
+ * Перевод для чтения (история, детали) - без кодов подтверждения и служебных полей.
+ * Заполняется проекцией JPQL, поэтому порядок и типы полей совпадают с конструктором в запросе.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferSummary {
+
+  private UUID transferId;
+  private UUID correlationId;
+  private String senderPhoneNumber;
+  private String recipientPhoneNumber;
+  private String recipientBankId;
+  private BigDecimal amount;
+  private TransferStatus status;
+  private String failureReason;
+  private LocalDateTime createdAt;
+  private LocalDateTime updatedAt;
+}
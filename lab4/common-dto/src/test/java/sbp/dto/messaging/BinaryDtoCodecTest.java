@@ -0,0 +1,235 @@
+package sbp.dto.messaging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import sbp.dto.jms.CompleteTransferCommand;
+import sbp.dto.jms.ConfirmationCodeSentEvent;
+import sbp.dto.jms.FundsProcessedEvent;
+import sbp.dto.jms.ReleaseFundsCommand;
+import sbp.dto.jms.ReserveFundsCommand;
+import sbp.dto.jms.SendConfirmationCodeCommand;
+import sbp.dto.jms.SendFailureNotificationCommand;
+import sbp.dto.jms.SendSuccessNotificationCommand;
+
+class BinaryDtoCodecTest {
+
+  private static final UUID ID = UUID.fromString(
+    "3f2c7a9e-1b4d-4e8f-9a6b-0c5d7e8f1a2b"
+  );
+
+  private static List<Object> allDtos() {
+    return List.of(
+      new ReserveFundsCommand(
+        ID,
+        "79001112233",
+        new BigDecimal("150.00"),
+        "1234"
+      ),
+      new ReleaseFundsCommand(
+        ID,
+        "79001112233",
+        "79004445566",
+        new BigDecimal("0.01"),
+        true
+      ),
+      new FundsProcessedEvent(
+        ID,
+        "79001112233",
+        "79004445566",
+        "получатель@example.com",
+        new BigDecimal("99999.99"),
+        false,
+        "Недостаточно средств"
+      ),
+      new CompleteTransferCommand(
+        ID,
+        "79001112233",
+        "79004445566",
+        new BigDecimal("1000.50")
+      ),
+      new ConfirmationCodeSentEvent(ID),
+      new SendConfirmationCodeCommand(ID, "79001112233", "0042"),
+      new SendSuccessNotificationCommand(
+        ID,
+        "79001112233",
+        new BigDecimal("250.00"),
+        "Банк / 79004445566"
+      ),
+      new SendFailureNotificationCommand(
+        ID,
+        "79001112233",
+        new BigDecimal("250.00"),
+        "Таймаут"
+      )
+    );
+  }
+
+  @Test
+  void roundTripsEveryRegisteredDto() {
+    for (Object dto : allDtos()) {
+      assertTrue(BinaryDtoCodec.supports(dto.getClass()));
+      assertEquals(dto, BinaryDtoCodec.decode(BinaryDtoCodec.encode(dto)));
+    }
+  }
+
+  @Test
+  void roundTripsNullFields() {
+    List<Object> dtos = List.of(
+      new ReserveFundsCommand(),
+      new ReleaseFundsCommand(),
+      new FundsProcessedEvent(),
+      new CompleteTransferCommand(),
+      new ConfirmationCodeSentEvent(),
+      new SendConfirmationCodeCommand(),
+      new SendSuccessNotificationCommand(),
+      new SendFailureNotificationCommand()
+    );
+    for (Object dto : dtos) {
+      assertEquals(dto, BinaryDtoCodec.decode(BinaryDtoCodec.encode(dto)));
+    }
+  }
+
+  @Test
+  void roundTripsAmountsOutsideScaledLong() {
+    for (String amount : List.of(
+      "123456789012345678901234.56",
+      "0.001",
+      "-5.125"
+    )) {
+      CompleteTransferCommand dto = new CompleteTransferCommand(
+        ID,
+        "79001112233",
+        "79004445566",
+        new BigDecimal(amount)
+      );
+      assertEquals(dto, BinaryDtoCodec.decode(BinaryDtoCodec.encode(dto)));
+    }
+  }
+
+  @Test
+  void rejectsEveryTruncatedPrefix() {
+    for (Object dto : allDtos()) {
+      byte[] bytes = BinaryDtoCodec.encode(dto);
+      for (int length = 0; length < bytes.length; length++) {
+        byte[] prefix = Arrays.copyOf(bytes, length);
+        assertThrows(
+          IllegalArgumentException.class,
+          () -> BinaryDtoCodec.decode(prefix),
+          dto.getClass().getSimpleName() + " prefix of " + length + " byte(s)"
+        );
+      }
+    }
+  }
+
+  @Test
+  void rejectsUnknownVersionAndTypeId() {
+    byte[] bytes = BinaryDtoCodec.encode(new ConfirmationCodeSentEvent(ID));
+    byte[] badVersion = bytes.clone();
+    badVersion[0] = (byte) (BinaryDtoCodec.SCHEMA_VERSION + 1);
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> BinaryDtoCodec.decode(badVersion)
+    );
+    for (byte typeId : new byte[] { 0, 15, 16, -1 }) {
+      byte[] badType = bytes.clone();
+      badType[1] = typeId;
+      assertThrows(
+        IllegalArgumentException.class,
+        () -> BinaryDtoCodec.decode(badType)
+      );
+    }
+  }
+
+  @Test
+  void rejectsNegativeStringLength() {
+    // SendConfirmationCodeCommand: uuid, затем phoneNumber с varint-длиной -1
+    byte[] bytes = sendConfirmationCodeWithPhoneLength(
+      new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F }
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> BinaryDtoCodec.decode(bytes)
+    );
+  }
+
+  @Test
+  void rejectsStringLengthBeyondMessage() {
+    byte[] bytes = sendConfirmationCodeWithPhoneLength(
+      new byte[] { (byte) 0xE8, 0x07 } // 1000
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> BinaryDtoCodec.decode(bytes)
+    );
+  }
+
+  @Test
+  void rejectsMalformedVarInt() {
+    byte[] bytes = sendConfirmationCodeWithPhoneLength(
+      new byte[] {
+        (byte) 0x80,
+        (byte) 0x80,
+        (byte) 0x80,
+        (byte) 0x80,
+        (byte) 0x80,
+        0x01,
+      }
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> BinaryDtoCodec.decode(bytes)
+    );
+  }
+
+  @Test
+  void rejectsCorruptAmount() {
+    byte[] bytes = BinaryDtoCodec.encode(
+      new CompleteTransferCommand(ID, null, null, new BigDecimal("1.00"))
+    );
+    // version, type, uuid (1 + 16), две null-строки -> тег суммы
+    int amountTag = 2 + 17 + 2;
+    byte[] unknownTag = bytes.clone();
+    unknownTag[amountTag] = 7;
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> BinaryDtoCodec.decode(unknownTag)
+    );
+
+    byte[] missingDecimal = Arrays.copyOf(bytes, amountTag + 2);
+    missingDecimal[amountTag] = 2; // десятичная строка
+    missingDecimal[amountTag + 1] = 0; // null
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> BinaryDtoCodec.decode(missingDecimal)
+    );
+
+    byte[] notANumber = Arrays.copyOf(bytes, amountTag + 5);
+    notANumber[amountTag] = 2;
+    notANumber[amountTag + 1] = 4; // длина 3
+    notANumber[amountTag + 2] = 'a';
+    notANumber[amountTag + 3] = 'b';
+    notANumber[amountTag + 4] = 'c';
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> BinaryDtoCodec.decode(notANumber)
+    );
+  }
+
+  private static byte[] sendConfirmationCodeWithPhoneLength(byte[] varInt) {
+    ByteBuffer buffer = ByteBuffer.allocate(2 + 17 + varInt.length + 4);
+    buffer.put((byte) BinaryDtoCodec.SCHEMA_VERSION);
+    buffer.put((byte) 6);
+    buffer.put((byte) 1);
+    buffer.putLong(ID.getMostSignificantBits());
+    buffer.putLong(ID.getLeastSignificantBits());
+    buffer.put(varInt);
+    buffer.put(new byte[] { 'a', 'b', 'c', 'd' });
+    return buffer.array();
+  }
+}
@@ -0,0 +1,35 @@
+package sbp.notification.config;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import sbp.dto.inbox.InMemoryProcessedMessageStore;
+import sbp.dto.inbox.MessageInbox;
+
+@Configuration
+public class InboxConfig {
+
+  // У сервиса уведомлений нет БД, ключи храним в памяти процесса
+  @Bean
+  public MessageInbox messageInbox(
+    @Value("${sbp.inbox.enabled:false}") boolean enabled,
+    @Value("${sbp.inbox.ttl-hours:72}") long ttlHours,
+    @Value("${sbp.inbox.purge-interval-ms:600000}") long purgeIntervalMs,
+    @Value(
+      "${sbp.inbox.bloom.expected-insertions:100000}"
+    ) int expectedInsertions,
+    @Value(
+      "${sbp.inbox.bloom.false-positive-rate:0.01}"
+    ) double falsePositiveRate
+  ) {
+    return new MessageInbox(
+      new InMemoryProcessedMessageStore(),
+      enabled,
+      Duration.ofHours(ttlHours),
+      Duration.ofMillis(purgeIntervalMs),
+      expectedInsertions,
+      falsePositiveRate
+    );
+  }
+}
@@ -1,5 +1,6 @@
 package sbp.notification.jms;
 
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jms.annotation.JmsListener;
@@ -7,6 +8,7 @@ import org.springframework.jms.core.JmsTemplate;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 import sbp.dto.JmsQueueNames;
+import sbp.dto.inbox.MessageInbox;
 import sbp.dto.jms.ConfirmationCodeSentEvent;
 import sbp.dto.jms.SendConfirmationCodeCommand;
 import sbp.dto.jms.SendFailureNotificationCommand;
@@ -20,6 +22,7 @@ public class NotificationCommandListener {
 
   private final JmsTemplate jmsTemplate;
   private final ConfirmationCodeDisplayService confirmationCodeDisplayService;
+  private final MessageInbox messageInbox;
 
   @JmsListener(destination = JmsQueueNames.NOTIFICATION_SEND_CODE_CMD_QUEUE)
   public void handleSendConfirmationCode(
@@ -29,6 +32,11 @@ public class NotificationCommandListener {
       "Processing SendConfirmationCodeCommand for CorrelationId: {}",
       command.getCorrelationId()
     );
+    if (
+      isDuplicate(SendConfirmationCodeCommand.class, command.getCorrelationId())
+    ) {
+      return;
+    }
 
     // "Отправляем" код
     log.info(
@@ -73,6 +81,14 @@ public class NotificationCommandListener {
       "Processing SendSuccessNotificationCommand for CorrelationId: {}",
       command.getCorrelationId()
     );
+    if (
+      isDuplicate(
+        SendSuccessNotificationCommand.class,
+        command.getCorrelationId()
+      )
+    ) {
+      return;
+    }
     log.info(
       "SIMULATING SENDING SUCCESS NOTIFICATION for CorrelationId: {}",
       command.getCorrelationId()
@@ -88,6 +104,14 @@ public class NotificationCommandListener {
       "Processing SendFailureNotificationCommand for CorrelationId: {}",
       command.getCorrelationId()
     );
+    if (
+      isDuplicate(
+        SendFailureNotificationCommand.class,
+        command.getCorrelationId()
+      )
+    ) {
+      return;
+    }
     log.info(
       "SIMULATING SENDING FAILURE NOTIFICATION for CorrelationId: {}, Reason: {}",
       command.getCorrelationId(),
@@ -95,4 +119,16 @@ public class NotificationCommandListener {
     );
     confirmationCodeDisplayService.removeCode(command.getCorrelationId());
   }
+
+  private boolean isDuplicate(Class<?> commandType, UUID correlationId) {
+    if (messageInbox.tryAcquire(commandType.getSimpleName(), correlationId)) {
+      return false;
+    }
+    log.warn(
+      "Duplicate {} skipped for CorrelationId: {}",
+      commandType.getSimpleName(),
+      correlationId
+    );
+    return true;
+  }
 }
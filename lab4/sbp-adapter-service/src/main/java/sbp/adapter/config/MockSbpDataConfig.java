@@ -2,11 +2,20 @@ package sbp.adapter.config;
 
 import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.springframework.stereotype.Component;
+import sbp.dto.rest.BankDirectoryDelta;
+import sbp.dto.rest.BankDirectorySnapshot;
 import sbp.dto.rest.BankInfo;
 
 @Component
@@ -33,6 +42,15 @@ public class MockSbpDataConfig {
 
   // Техническая ошибка будет оставшимися 5% (100 - 85 - 10)
 
+  // --- Версионирование справочника (для снимков и дельт) ---
+  private static final int CHANGE_LOG_CAPACITY = 10_000;
+
+  @Getter(AccessLevel.NONE)
+  private final Deque<DirectoryChange> changeLog = new ArrayDeque<>();
+
+  @Getter(AccessLevel.NONE)
+  private long version;
+
   @PostConstruct
   void initialize() {
     // Банки
@@ -63,6 +81,7 @@ public class MockSbpDataConfig {
     phoneToBankIds.put("9995556666", List.of("1000000004"));
     phoneToBankIds.put("9997778888", List.of("1000000003", "1000000009"));
     phoneToBankIds.put("9990000009", List.of("1000000009"));
+    version = 1;
   }
 
   public BankInfo getBankById(String bankId) {
@@ -72,4 +91,119 @@ public class MockSbpDataConfig {
   public List<String> getBankIdsByPhone(String phoneNumber) {
     return phoneToBankIds.get(phoneNumber);
   }
+
+  public synchronized void putBank(BankInfo bankInfo) {
+    bankRegistry.put(bankInfo.getBankId(), bankInfo);
+    recordChange(ChangeKind.BANK, bankInfo.getBankId());
+  }
+
+  public synchronized void removeBank(String bankId) {
+    if (bankRegistry.remove(bankId) != null) {
+      recordChange(ChangeKind.BANK, bankId);
+    }
+  }
+
+  public synchronized void putPhoneBankIds(
+    String phoneNumber,
+    List<String> bankIds
+  ) {
+    phoneToBankIds.put(phoneNumber, List.copyOf(bankIds));
+    recordChange(ChangeKind.PHONE, phoneNumber);
+  }
+
+  public synchronized void removePhone(String phoneNumber) {
+    if (phoneToBankIds.remove(phoneNumber) != null) {
+      recordChange(ChangeKind.PHONE, phoneNumber);
+    }
+  }
+
+  public synchronized long getDirectoryVersion() {
+    return version;
+  }
+
+  public synchronized BankDirectorySnapshot snapshot() {
+    return new BankDirectorySnapshot(
+      version,
+      List.copyOf(bankRegistry.values()),
+      Map.copyOf(phoneToBankIds)
+    );
+  }
+
+  /**
+   * Изменения с версии sinceVersion: текущие значения измененных записей и ключи удаленных.
+   */
+  public synchronized BankDirectoryDelta deltaSince(long sinceVersion) {
+    long oldestAvailable = changeLog.isEmpty()
+      ? version
+      : changeLog.peekFirst().version() - 1;
+    if (sinceVersion < oldestAvailable || sinceVersion > version) {
+      return new BankDirectoryDelta(
+        sinceVersion,
+        version,
+        true,
+        List.of(),
+        List.of(),
+        Map.of(),
+        List.of()
+      );
+    }
+
+    Set<String> changedBanks = new LinkedHashSet<>();
+    Set<String> changedPhones = new LinkedHashSet<>();
+    for (DirectoryChange change : changeLog) {
+      if (change.version() <= sinceVersion) {
+        continue;
+      }
+      if (change.kind() == ChangeKind.BANK) {
+        changedBanks.add(change.key());
+      } else {
+        changedPhones.add(change.key());
+      }
+    }
+
+    List<BankInfo> upsertedBanks = new ArrayList<>();
+    List<String> removedBankIds = new ArrayList<>();
+    for (String bankId : changedBanks) {
+      BankInfo bankInfo = bankRegistry.get(bankId);
+      if (bankInfo != null) {
+        upsertedBanks.add(bankInfo);
+      } else {
+        removedBankIds.add(bankId);
+      }
+    }
+    Map<String, List<String>> upsertedPhones = new HashMap<>();
+    List<String> removedPhones = new ArrayList<>();
+    for (String phoneNumber : changedPhones) {
+      List<String> bankIds = phoneToBankIds.get(phoneNumber);
+      if (bankIds != null) {
+        upsertedPhones.put(phoneNumber, bankIds);
+      } else {
+        removedPhones.add(phoneNumber);
+      }
+    }
+    return new BankDirectoryDelta(
+      sinceVersion,
+      version,
+      false,
+      upsertedBanks,
+      removedBankIds,
+      upsertedPhones,
+      removedPhones
+    );
+  }
+
+  private void recordChange(ChangeKind kind, String key) {
+    version++;
+    changeLog.addLast(new DirectoryChange(version, kind, key));
+    if (changeLog.size() > CHANGE_LOG_CAPACITY) {
+      changeLog.removeFirst();
+    }
+  }
+
+  private enum ChangeKind {
+    BANK,
+    PHONE,
+  }
+
+  private record DirectoryChange(long version, ChangeKind kind, String key) {}
 }
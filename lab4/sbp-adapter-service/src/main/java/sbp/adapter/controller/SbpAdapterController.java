@@ -15,6 +15,8 @@ import sbp.adapter.dto.SbpAdapterResponse;
 import sbp.adapter.exception.SbpBusinessException;
 import sbp.adapter.exception.SbpTechnicalException;
 import sbp.adapter.service.SbpAdapterLogic;
+import sbp.dto.rest.BankDirectoryDelta;
+import sbp.dto.rest.BankDirectorySnapshot;
 import sbp.dto.rest.BankInfo;
 
 @RestController
@@ -58,6 +60,18 @@ public class SbpAdapterController {
       });
   }
 
+  @GetMapping("/directory/snapshot")
+  public ResponseEntity<BankDirectorySnapshot> getDirectorySnapshot() {
+    return ResponseEntity.ok(sbpAdapterLogic.getDirectorySnapshot());
+  }
+
+  @GetMapping("/directory/delta")
+  public ResponseEntity<BankDirectoryDelta> getDirectoryDelta(
+    @RequestParam long since
+  ) {
+    return ResponseEntity.ok(sbpAdapterLogic.getDirectoryDelta(since));
+  }
+
   @PostMapping("/transfers")
   public ResponseEntity<SbpAdapterResponse> processSbpTransfer(
     @Valid @RequestBody SbpAdapterRequest request
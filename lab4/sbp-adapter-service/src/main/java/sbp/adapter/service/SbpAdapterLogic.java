@@ -12,6 +12,8 @@ import sbp.adapter.dto.SbpAdapterResponse;
 import sbp.adapter.exception.SbpBusinessException;
 import sbp.adapter.exception.SbpTechnicalException;
 import sbp.adapter.util.MockUtils;
+import sbp.dto.rest.BankDirectoryDelta;
+import sbp.dto.rest.BankDirectorySnapshot;
 import sbp.dto.rest.BankInfo;
 
 @Service
@@ -85,6 +87,27 @@ public class SbpAdapterLogic {
     }
   }
 
+  public BankDirectorySnapshot getDirectorySnapshot() {
+    BankDirectorySnapshot snapshot = mockConfig.snapshot();
+    log.info(
+      "SBP Adapter: Bank directory snapshot requested, version {}, {} banks",
+      snapshot.getVersion(),
+      snapshot.getBanks().size()
+    );
+    return snapshot;
+  }
+
+  public BankDirectoryDelta getDirectoryDelta(long sinceVersion) {
+    BankDirectoryDelta delta = mockConfig.deltaSince(sinceVersion);
+    log.debug(
+      "SBP Adapter: Bank directory delta {} -> {} (fullResyncRequired={})",
+      delta.getFromVersion(),
+      delta.getToVersion(),
+      delta.isFullResyncRequired()
+    );
+    return delta;
+  }
+
   public SbpAdapterResponse processTransfer(SbpAdapterRequest request)
     throws SbpBusinessException, SbpTechnicalException {
     log.debug(
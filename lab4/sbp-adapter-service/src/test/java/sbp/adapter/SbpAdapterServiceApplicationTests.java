@@ -6,6 +6,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +17,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import sbp.adapter.config.MockSbpDataConfig;
 import sbp.adapter.dto.SbpAdapterRequest;
+import sbp.dto.rest.BankInfo;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
 @AutoConfigureMockMvc
@@ -27,6 +29,9 @@ class SbpAdapterServiceApplicationTests {
   @Autowired
   private ObjectMapper objectMapper;
 
+  @Autowired
+  private MockSbpDataConfig mockSbpDataConfig;
+
   // Телефоны из MockSbpDataConfig для тестов
   private final String sberPhone = "9991112222";
   private final String tinkoffPhone = "9995556666";
@@ -76,6 +81,61 @@ class SbpAdapterServiceApplicationTests {
       .andExpect(status().isBadRequest());
   }
 
+  // --- Тесты для GET /api/sbp/directory/* ---
+
+  @Test
+  void getDirectorySnapshot_shouldReturnAllBanksAndPhones() throws Exception {
+    mockMvc
+      .perform(get("/api/sbp/directory/snapshot"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.version").isNumber())
+      .andExpect(jsonPath("$.banks[?(@.bankId == '1000000002')]").exists())
+      .andExpect(
+        jsonPath("$.phoneToBankIds['9991112222'][0]").value("1000000002")
+      );
+  }
+
+  @Test
+  void getDirectoryDelta_shouldReturnChangesSinceVersion() throws Exception {
+    long version = mockSbpDataConfig.getDirectoryVersion();
+    mockSbpDataConfig.putBank(
+      new BankInfo("1000000077", "Delta Bank (Mock)", true)
+    );
+    mockSbpDataConfig.putPhoneBankIds("9990770077", List.of("1000000077"));
+
+    mockMvc
+      .perform(
+        get("/api/sbp/directory/delta").param("since", String.valueOf(version))
+      )
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.fullResyncRequired").value(false))
+      .andExpect(jsonPath("$.toVersion").value(version + 2))
+      .andExpect(jsonPath("$.upsertedBanks[0].bankId").value("1000000077"))
+      .andExpect(
+        jsonPath("$.upsertedPhones['9990770077'][0]").value("1000000077")
+      );
+
+    mockSbpDataConfig.removeBank("1000000077");
+    mockSbpDataConfig.removePhone("9990770077");
+    mockMvc
+      .perform(
+        get("/api/sbp/directory/delta").param("since", String.valueOf(version))
+      )
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.upsertedBanks").isEmpty())
+      .andExpect(jsonPath("$.removedBankIds[0]").value("1000000077"))
+      .andExpect(jsonPath("$.removedPhones[0]").value("9990770077"));
+  }
+
+  @Test
+  void getDirectoryDelta_whenVersionUnknown_shouldRequireFullResync()
+    throws Exception {
+    mockMvc
+      .perform(get("/api/sbp/directory/delta").param("since", "0"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.fullResyncRequired").value(true));
+  }
+
   // --- Тесты для POST /api/sbp/transfers ---
 
   @Test
@@ -0,0 +1,55 @@
+package sbp.transfer.config;
+
+import java.time.Duration;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sbp.dto.inbox.JdbcProcessedMessageStore;
+import sbp.dto.inbox.MessageInbox;
+
+@Configuration
+@Slf4j
+public class InboxConfiguration {
+
+  @Bean
+  public MessageInbox messageInbox(
+    DataSource dataSource,
+    PlatformTransactionManager transactionManager,
+    @Value("${sbp.inbox.enabled:false}") boolean enabled,
+    @Value("${sbp.inbox.ttl-hours:72}") long ttlHours,
+    @Value("${sbp.inbox.purge-interval-ms:600000}") long purgeIntervalMs,
+    @Value(
+      "${sbp.inbox.bloom.expected-insertions:1000000}"
+    ) int expectedInsertions,
+    @Value(
+      "${sbp.inbox.bloom.false-positive-rate:0.01}"
+    ) double falsePositiveRate
+  ) {
+    JdbcProcessedMessageStore store = new JdbcProcessedMessageStore(
+      dataSource
+    );
+    if (enabled) {
+      // DDL выполняем в JTA-транзакции: соединения Atomikos вне транзакции не выдаются
+      new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+        store.createTableIfNotExists()
+      );
+      log.info(
+        "Message inbox enabled: ttl={}h, bloom expectedInsertions={}",
+        ttlHours,
+        expectedInsertions
+      );
+    }
+    return new MessageInbox(
+      store,
+      enabled,
+      Duration.ofHours(ttlHours),
+      Duration.ofMillis(purgeIntervalMs),
+      expectedInsertions,
+      falsePositiveRate
+    );
+  }
+}
@@ -5,11 +5,14 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.jaas.AuthorityGranter;
 import org.springframework.security.authentication.jaas.JaasAuthenticationCallbackHandler;
@@ -25,6 +28,10 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import sbp.transfer.security.AccessTokenAuthenticationFilter;
+import sbp.transfer.security.AccessTokenService;
+import sbp.transfer.security.CachingAuthenticationProvider;
 import sbp.transfer.security.jaas.RolePrincipal;
 
 @Configuration
@@ -118,19 +125,59 @@ public class SecurityConfig {
   }
 
   @Bean
-  public AuthenticationManager authenticationManager(
-    JaasAuthenticationProvider jaasAuthenticationProvider
+  @ConditionalOnProperty(
+    name = "transfer.security.credential-cache.enabled",
+    havingValue = "true"
+  )
+  public CachingAuthenticationProvider cachingAuthenticationProvider(
+    JaasAuthenticationProvider jaasAuthenticationProvider,
+    @Value(
+      "${transfer.security.credential-cache.ttl-seconds:300}"
+    ) long ttlSeconds,
+    @Value(
+      "${transfer.security.credential-cache.max-entries:10000}"
+    ) int maxEntries
   ) {
-    return new ProviderManager(
-      Collections.singletonList(jaasAuthenticationProvider)
+    log.info(
+      "Verified credential cache enabled: ttl={}s, maxEntries={}",
+      ttlSeconds,
+      maxEntries
+    );
+    return new CachingAuthenticationProvider(
+      jaasAuthenticationProvider,
+      ttlSeconds * 1000,
+      maxEntries
     );
   }
 
+  @Bean
+  public AuthenticationManager authenticationManager(
+    JaasAuthenticationProvider jaasAuthenticationProvider,
+    ObjectProvider<CachingAuthenticationProvider> cachingAuthenticationProvider
+  ) {
+    // Кэш проверенных учетных данных (если включен) стоит перед JAAS и BCrypt
+    CachingAuthenticationProvider cachingProvider =
+      cachingAuthenticationProvider.getIfAvailable();
+    AuthenticationProvider provider = cachingProvider != null
+      ? cachingProvider
+      : jaasAuthenticationProvider;
+    return new ProviderManager(Collections.singletonList(provider));
+  }
+
   @Bean
   public SecurityFilterChain securityFilterChain(
     HttpSecurity http,
-    AuthenticationManager authenticationManager
+    AuthenticationManager authenticationManager,
+    ObjectProvider<AccessTokenService> accessTokenService
   ) throws Exception {
+    // Bearer-токен проверяется локально (HMAC), Basic остается для совместимости
+    AccessTokenService tokenService = accessTokenService.getIfAvailable();
+    if (tokenService != null) {
+      http.addFilterBefore(
+        new AccessTokenAuthenticationFilter(tokenService),
+        BasicAuthenticationFilter.class
+      );
+    }
     http
       .csrf(AbstractHttpConfigurer::disable)
       .authenticationManager(authenticationManager)
@@ -155,6 +202,11 @@ public class SecurityConfig {
             "/api/v1/transfers/{id:[0-9a-fA-F\\-]+}"
           )
           .hasRole("ADMIN")
+          .requestMatchers(
+            org.springframework.http.HttpMethod.GET,
+            "/api/v1/transfers"
+          )
+          .hasAnyRole("USER", "ADMIN")
           .requestMatchers(
             org.springframework.http.HttpMethod.POST,
             "/api/v1/transfers/initiate"
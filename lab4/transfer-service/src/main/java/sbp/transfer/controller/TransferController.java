@@ -2,11 +2,14 @@ package sbp.transfer.controller;
 
 import jakarta.validation.Valid;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,17 +20,20 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import sbp.dto.enums.TransferStatus;
 import sbp.dto.rest.ConfirmTransferRequest;
 import sbp.dto.rest.ErrorResponse;
 import sbp.dto.rest.InitiateTransferRequest;
 import sbp.dto.rest.LoginRequest;
 import sbp.dto.rest.LoginResponse;
 import sbp.dto.rest.TransferConfirmationResponse;
+import sbp.dto.rest.TransferHistoryPage;
 import sbp.dto.rest.TransferInitiationResponse;
-import sbp.transfer.entity.Transfer;
+import sbp.dto.rest.TransferSummary;
 import sbp.transfer.exception.TransferNotFoundException;
-import sbp.transfer.repository.TransferRepository;
+import sbp.transfer.security.AccessTokenService;
 import sbp.transfer.service.TransferOrchestrationService;
+import sbp.transfer.service.TransferQueryService;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -37,7 +43,8 @@ public class TransferController {
 
   private final TransferOrchestrationService transferOrchestrationService;
   private final AuthenticationManager authenticationManager;
-  private final TransferRepository transferRepository;
+  private final TransferQueryService transferQueryService;
+  private final ObjectProvider<AccessTokenService> accessTokenService;
 
   @PostMapping("/auth/login")
   public ResponseEntity<?> login(
@@ -67,9 +74,19 @@ public class TransferController {
         username,
         roles
       );
-      return ResponseEntity.ok(
-        new LoginResponse("Login successful", username, roles)
+      LoginResponse response = new LoginResponse(
+        "Login successful",
+        username,
+        roles
       );
+      AccessTokenService tokenService = accessTokenService.getIfAvailable();
+      if (tokenService != null) {
+        // Дальнейшие запросы идут с Bearer-токеном, без повторного JAAS/BCrypt
+        response.setAccessToken(tokenService.issue(username, roles));
+        response.setTokenType("Bearer");
+        response.setExpiresIn(tokenService.getTtlSeconds());
+      }
+      return ResponseEntity.ok(response);
     } catch (BadCredentialsException e) {
       log.warn(
         "Login failed for user {}: Invalid credentials",
@@ -254,11 +271,8 @@ public class TransferController {
       id
     );
     try {
-      Transfer transfer = transferRepository
-        .findById(id)
-        .orElseThrow(() ->
-          new TransferNotFoundException("Transfer not found with ID: " + id)
-        );
+      // Проекция без кодов подтверждения и служебных полей сущности
+      TransferSummary transfer = transferQueryService.getTransfer(id);
       log.debug("Returning transfer details for PK ID: {}", id);
       return ResponseEntity.ok(transfer);
     } catch (TransferNotFoundException e) {
@@ -279,4 +293,73 @@ public class TransferController {
     }
     // Можно добавить catch (Exception e)
   }
+
+  /**
+   * История переводов по курсору. Пользователь видит только свои переводы,
+   * администратор - переводы любого отправителя (параметр sender).
+   */
+  @GetMapping("/transfers")
+  @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+  public ResponseEntity<?> getTransferHistory(
+    @RequestParam(required = false) String sender,
+    @RequestParam(required = false) TransferStatus status,
+    @RequestParam(required = false) @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE_TIME
+    ) LocalDateTime from,
+    @RequestParam(required = false) @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE_TIME
+    ) LocalDateTime to,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(required = false) Integer limit,
+    Authentication authentication
+  ) {
+    boolean admin = authentication
+      .getAuthorities()
+      .stream()
+      .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    String senderPhoneNumber = sender != null
+      ? sender
+      : authentication.getName();
+    if (!admin && !senderPhoneNumber.equals(authentication.getName())) {
+      log.warn(
+        "User '{}' requested transfer history of another sender",
+        authentication.getName()
+      );
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).body(
+        new ErrorResponse(
+          Instant.now(),
+          HttpStatus.FORBIDDEN.value(),
+          "Forbidden",
+          "Access to another sender's transfers is denied",
+          "/api/v1/transfers"
+        )
+      );
+    }
+    try {
+      TransferHistoryPage page = transferQueryService.getHistory(
+        senderPhoneNumber,
+        status,
+        from,
+        to,
+        cursor,
+        limit
+      );
+      return ResponseEntity.ok(page);
+    } catch (IllegalArgumentException e) {
+      log.warn(
+        "Bad transfer history request for sender {}: {}",
+        senderPhoneNumber,
+        e.getMessage()
+      );
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+        new ErrorResponse(
+          Instant.now(),
+          HttpStatus.BAD_REQUEST.value(),
+          "Bad Request",
+          e.getMessage(),
+          "/api/v1/transfers"
+        )
+      );
+    }
+  }
 }
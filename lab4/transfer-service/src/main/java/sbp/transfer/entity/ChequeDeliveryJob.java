@@ -0,0 +1,71 @@
+package sbp.transfer.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Задание на отправку электронного чека, записанное в транзакции успешного перевода.
+ * Один чек на перевод, поэтому ключ - идентификатор перевода. Отправляет ChequeDeliveryWorker.
+ */
+@Entity
+@Table(
+  name = "cheque_delivery_jobs",
+  indexes = @Index(
+    name = "idx_cheque_delivery_jobs_status_next_attempt",
+    columnList = "status, nextAttemptAt"
+  )
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChequeDeliveryJob {
+
+  public enum Status {
+    PENDING,
+    IN_PROGRESS,
+    SENT,
+    DEAD,
+  }
+
+  @Id
+  private UUID transferId;
+
+  @Column(nullable = false)
+  private String recipientEmail;
+
+  // Домен получателя, по нему ограничивается частота отправки
+  @Column(nullable = false)
+  private String recipientDomain;
+
+  @Column(nullable = false, length = 4000)
+  private String payload;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  @Builder.Default
+  private Status status = Status.PENDING;
+
+  @Column(nullable = false)
+  @Builder.Default
+  private int attempts = 0;
+
+  // Для IN_PROGRESS - срок аренды задания воркером, после него задание снова доступно
+  @Column(nullable = false)
+  @Builder.Default
+  private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+  @Column(length = 1000)
+  private String lastError;
+
+  @Column(nullable = false, updatable = false)
+  @Builder.Default
+  private LocalDateTime createdAt = LocalDateTime.now();
+
+  private LocalDateTime sentAt;
+}
@@ -0,0 +1,71 @@
+package sbp.transfer.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Исходящее JMS-сообщение, записанное в той же транзакции, что и бизнес-изменения.
+ * Публикуется в брокер OutboxRelay.
+ */
+@Entity
+@Table(
+  name = "outbox_messages",
+  indexes = @Index(
+    name = "idx_outbox_messages_status_next_attempt",
+    columnList = "status, nextAttemptAt"
+  )
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+
+  public enum Status {
+    PENDING,
+    PUBLISHED,
+    FAILED,
+  }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.UUID)
+  private UUID id;
+
+  @Column(nullable = false)
+  private String destination;
+
+  @Column(nullable = false)
+  private String payloadType;
+
+  @Column(nullable = false, length = 4000)
+  private String payload;
+
+  private String messageGroupId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  @Builder.Default
+  private Status status = Status.PENDING;
+
+  @Column(nullable = false)
+  @Builder.Default
+  private int attempts = 0;
+
+  @Column(nullable = false)
+  @Builder.Default
+  private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+  @Column(length = 1000)
+  private String lastError;
+
+  @Column(nullable = false, updatable = false)
+  @Builder.Default
+  private LocalDateTime createdAt = LocalDateTime.now();
+
+  private LocalDateTime publishedAt;
+}
@@ -0,0 +1,48 @@
+package sbp.transfer.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Сумма переводов отправителя за один часовой интервал. Скользящий суточный лимит -
+ * сумма последних 24 интервалов, поэтому на отправителя читается не больше 24 строк.
+ */
+@Entity
+@Table(
+  name = "sender_limit_buckets",
+  indexes = @Index(
+    name = "idx_sender_limit_buckets_sender_bucket",
+    columnList = "senderPhoneNumber, bucketStart"
+  )
+)
+@IdClass(SenderLimitBucket.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SenderLimitBucket {
+
+  @Id
+  private String senderPhoneNumber;
+
+  @Id
+  private LocalDateTime bucketStart;
+
+  @Column(nullable = false)
+  private BigDecimal amount;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+
+    private String senderPhoneNumber;
+    private LocalDateTime bucketStart;
+  }
+}
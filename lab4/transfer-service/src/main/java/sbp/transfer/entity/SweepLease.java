@@ -0,0 +1,28 @@
+package sbp.transfer.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Аренда бакета плановых очисток: реплика-владелец обходит только переводы своих бакетов.
+ * Бакет перевода - младший байт correlationId по модулю числа бакетов.
+ */
+@Entity
+@Table(name = "sweep_leases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweepLease {
+
+  @Id
+  private Integer bucket;
+
+  private String owner;
+
+  private LocalDateTime leaseUntil;
+}
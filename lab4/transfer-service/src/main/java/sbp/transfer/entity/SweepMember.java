@@ -0,0 +1,26 @@
+package sbp.transfer.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Живая реплика transfer-service: по числу реплик со свежим heartbeat бакеты делятся поровну.
+ */
+@Entity
+@Table(name = "sweep_members")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweepMember {
+
+  @Id
+  private String instanceId;
+
+  @Column(nullable = false)
+  private LocalDateTime heartbeatAt;
+}
@@ -11,7 +11,25 @@ import lombok.NoArgsConstructor;
 import sbp.dto.enums.TransferStatus;
 
 @Entity
-@Table(name = "transfers")
+@Table(
+  name = "transfers",
+  indexes = {
+    // Для постраничного обхода просроченных переводов в ScheduledTransferTasks
+    @Index(
+      name = "idx_transfers_status_created_at_id",
+      columnList = "status, createdAt, id"
+    ),
+    // История отправителя по курсору (TransferQueryService), без фильтра и с фильтром по статусу
+    @Index(
+      name = "idx_transfers_sender_created_at_id",
+      columnList = "senderPhoneNumber, createdAt, id"
+    ),
+    @Index(
+      name = "idx_transfers_sender_status_created_at_id",
+      columnList = "senderPhoneNumber, status, createdAt, id"
+    )
+  }
+)
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,320 @@
+package sbp.transfer.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sbp.dto.rest.BankInfo;
+import sbp.transfer.exception.SbpAdapterException;
+
+/**
+ * Неблокирующий клиент SBP Adapter на java.net.http.HttpClient.
+ * <p>
+ * HttpClient держит пул keep-alive соединений и не занимает поток на время ожидания ответа.
+ * Число одновременных запросов к адаптеру ограничено семафором: при исчерпании лимита запрос
+ * сразу отклоняется. Поиск банка хеджируется: если ответа нет за hedge-delay, отправляется второй
+ * запрос и берется первый успешный ответ. Ошибки 5xx и сетевые ошибки открывают предохранитель,
+ * после чего вызовы отклоняются без обращения к адаптеру до пробного запроса.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "sbp.adapter.client.mode", havingValue = "async")
+public class AsyncSbpAdapterClient {
+
+  private final HttpClient httpClient;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final String sbpAdapterBanksApiUrl;
+  private final Duration requestTimeout;
+  private final long hedgeDelayMillis;
+  private final Semaphore concurrencyLimit;
+  private final SbpAdapterCircuitBreaker circuitBreaker;
+
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder hedges = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder shortCircuited = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+
+  public AsyncSbpAdapterClient(
+    @Value("${sbp.adapter.base-url}") String sbpAdapterBaseUrl,
+    @Value("${sbp.adapter.api.banks.path:/api/sbp/banks}") String banksApiPath,
+    @Value("${sbp.adapter.timeout.connect:2000}") int connectTimeout,
+    @Value("${sbp.adapter.timeout.read:5000}") int readTimeout,
+    @Value(
+      "${sbp.adapter.async.max-concurrent-requests:64}"
+    ) int maxConcurrentRequests,
+    @Value("${sbp.adapter.async.hedge-delay-ms:200}") long hedgeDelayMillis,
+    @Value(
+      "${sbp.adapter.async.circuit-breaker.failure-threshold:5}"
+    ) int failureThreshold,
+    @Value(
+      "${sbp.adapter.async.circuit-breaker.open-duration-ms:10000}"
+    ) long openDurationMillis
+  ) {
+    this.httpClient = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofMillis(connectTimeout))
+      .build();
+    this.sbpAdapterBanksApiUrl = sbpAdapterBaseUrl + banksApiPath;
+    this.requestTimeout = Duration.ofMillis(readTimeout);
+    this.hedgeDelayMillis = hedgeDelayMillis;
+    this.concurrencyLimit = new Semaphore(maxConcurrentRequests);
+    this.circuitBreaker = new SbpAdapterCircuitBreaker(
+      failureThreshold,
+      openDurationMillis
+    );
+    log.info(
+      "Async SBP Adapter client enabled: maxConcurrentRequests={}, hedgeDelay={}ms, failureThreshold={}, openDuration={}ms",
+      maxConcurrentRequests,
+      hedgeDelayMillis,
+      failureThreshold,
+      openDurationMillis
+    );
+  }
+
+  /**
+   * Асинхронный поиск банка по bankId.
+   *
+   * @return Future с Optional.empty() для 404; завершается SbpAdapterException при ошибке адаптера,
+   *         открытом предохранителе или превышении лимита запросов.
+   */
+  public CompletableFuture<Optional<BankInfo>> getBankInfoByIdAsync(
+    String bankId
+  ) {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      shortCircuited.increment();
+      return CompletableFuture.failedFuture(
+        new SbpAdapterException(
+          "SBP Adapter circuit breaker is open, bankId " + bankId
+        )
+      );
+    }
+
+    CompletableFuture<Optional<BankInfo>> result = new CompletableFuture<>();
+    AtomicInteger outstanding = new AtomicInteger(1);
+    sendBankLookup(bankId).whenComplete((value, error) ->
+      onAttemptComplete(result, outstanding, value, error)
+    );
+    if (hedgeDelayMillis > 0) {
+      CompletableFuture.delayedExecutor(
+        hedgeDelayMillis,
+        TimeUnit.MILLISECONDS
+      ).execute(() -> {
+        // Второй запрос, только если первый еще не завершился
+        if (result.isDone() || !tryIncrementIfPositive(outstanding)) {
+          return;
+        }
+        hedges.increment();
+        sendBankLookup(bankId).whenComplete((value, error) ->
+          onAttemptComplete(result, outstanding, value, error)
+        );
+      });
+    }
+
+    result.whenComplete((value, error) -> {
+      if (error == null) {
+        circuitBreaker.onSuccess();
+      } else if (unwrap(error) instanceof AdapterUnavailableException) {
+        failures.increment();
+        circuitBreaker.onFailure();
+      } else if (unwrap(error) instanceof ConcurrencyLimitException) {
+        circuitBreaker.onRejected(); // Запрос не дошел до адаптера
+      } else {
+        failures.increment();
+        circuitBreaker.onIgnored();
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Синхронная обертка: ожидание ограничено таймаутом чтения и задержкой хеджирования.
+   */
+  public Optional<BankInfo> getBankInfoById(String bankId) {
+    try {
+      return getBankInfoByIdAsync(bankId).get(
+        requestTimeout.toMillis() + hedgeDelayMillis,
+        TimeUnit.MILLISECONDS
+      );
+    } catch (ExecutionException e) {
+      Throwable cause = unwrap(e.getCause());
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new SbpAdapterException(
+        "Unexpected error communicating with SBP Adapter for bankId " + bankId,
+        cause
+      );
+    } catch (TimeoutException e) {
+      throw new SbpAdapterException(
+        "SBP Adapter request timed out for bankId " + bankId,
+        e
+      );
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SbpAdapterException(
+        "Interrupted while waiting for SBP Adapter, bankId " + bankId,
+        e
+      );
+    }
+  }
+
+  public SbpAdapterCircuitBreaker.State getCircuitBreakerState() {
+    return circuitBreaker.getState();
+  }
+
+  @Scheduled(
+    fixedDelayString = "${sbp.adapter.async.stats-log-interval-ms:60000}"
+  )
+  public void logStats() {
+    log.info(
+      "Async SBP Adapter client: requests={}, hedges={}, rejected={}, shortCircuited={}, failures={}, availablePermits={}, circuitBreaker={}",
+      requests.sum(),
+      hedges.sum(),
+      rejected.sum(),
+      shortCircuited.sum(),
+      failures.sum(),
+      concurrencyLimit.availablePermits(),
+      circuitBreaker.getState()
+    );
+  }
+
+  private CompletableFuture<Optional<BankInfo>> sendBankLookup(String bankId) {
+    if (!concurrencyLimit.tryAcquire()) {
+      rejected.increment();
+      return CompletableFuture.failedFuture(
+        new ConcurrencyLimitException(
+          "SBP Adapter concurrency limit reached, bankId " + bankId
+        )
+      );
+    }
+    requests.increment();
+    HttpRequest request = HttpRequest.newBuilder(
+      URI.create(sbpAdapterBanksApiUrl + "/" + bankId)
+    )
+      .timeout(requestTimeout)
+      .header("Accept", "application/json")
+      .GET()
+      .build();
+    try {
+      return httpClient
+        .sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+        .thenApply(response -> toBankInfo(bankId, response))
+        .whenComplete((value, error) -> concurrencyLimit.release());
+    } catch (RuntimeException e) {
+      concurrencyLimit.release();
+      throw e;
+    }
+  }
+
+  private Optional<BankInfo> toBankInfo(
+    String bankId,
+    HttpResponse<byte[]> response
+  ) {
+    int status = response.statusCode();
+    if (status == 404) {
+      log.warn("Bank with ID {} not found in SBP Adapter (404)", bankId);
+      return Optional.empty();
+    }
+    if (status >= 500) {
+      throw new AdapterUnavailableException(
+        "SBP Adapter server error: " + status + " for bankId " + bankId,
+        null
+      );
+    }
+    if (status != 200) {
+      throw new SbpAdapterException(
+        "SBP Adapter client error: " + status + " for bankId " + bankId
+      );
+    }
+    try {
+      return Optional.ofNullable(
+        objectMapper.readValue(response.body(), BankInfo.class)
+      );
+    } catch (IOException e) {
+      throw new SbpAdapterException(
+        "Malformed bank info from SBP Adapter for bankId " + bankId,
+        e
+      );
+    }
+  }
+
+  private static void onAttemptComplete(
+    CompletableFuture<Optional<BankInfo>> result,
+    AtomicInteger outstanding,
+    Optional<BankInfo> value,
+    Throwable error
+  ) {
+    if (error == null) {
+      result.complete(value);
+      return;
+    }
+    // Ошибка отдается вызывающему, только когда завершились все попытки
+    if (outstanding.decrementAndGet() == 0) {
+      Throwable cause = unwrap(error);
+      result.completeExceptionally(
+        cause instanceof SbpAdapterException
+          ? cause
+          : new AdapterUnavailableException(
+            "Could not connect to SBP Adapter: " + cause.getMessage(),
+            cause
+          )
+      );
+    }
+  }
+
+  private static boolean tryIncrementIfPositive(AtomicInteger counter) {
+    int current;
+    do {
+      current = counter.get();
+      if (current <= 0) {
+        return false;
+      }
+    } while (!counter.compareAndSet(current, current + 1));
+    return true;
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null
+      ? error.getCause()
+      : error;
+  }
+
+  /**
+   * Адаптер недоступен (5xx, ошибка соединения, таймаут) - учитывается предохранителем.
+   */
+  private static class AdapterUnavailableException
+    extends SbpAdapterException {
+
+    AdapterUnavailableException(String message, Throwable cause) {
+      super(message, cause);
+    }
+  }
+
+  /**
+   * Исчерпан лимит одновременных запросов - запрос не отправлялся.
+   */
+  private static class ConcurrencyLimitException extends SbpAdapterException {
+
+    ConcurrencyLimitException(String message) {
+      super(message);
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package sbp.transfer.integration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sbp.dto.rest.BankDirectoryDelta;
+import sbp.dto.rest.BankDirectorySnapshot;
+import sbp.dto.rest.BankInfo;
+
+/**
+ * Локальная реплика справочника банков SBP Adapter.
+ * <p>
+ * При первом опросе загружается полный снимок, затем по расписанию - только дельты от текущей
+ * версии. Состояние заменяется целиком (неизменяемые карты), поэтому чтение идет без блокировок.
+ * Если реплика давно не обновлялась (max-staleness), она считается неготовой и вызывающий код
+ * обращается к адаптеру напрямую.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(
+  name = "sbp.adapter.directory-replica.enabled",
+  havingValue = "true"
+)
+public class BankDirectoryReplica {
+
+  private final SbpAdapterClient sbpAdapterClient;
+  private final long maxStalenessMillis;
+
+  private volatile DirectoryState state; // null до первой загрузки снимка
+
+  public BankDirectoryReplica(
+    SbpAdapterClient sbpAdapterClient,
+    @Value(
+      "${sbp.adapter.directory-replica.max-staleness-ms:300000}"
+    ) long maxStalenessMillis
+  ) {
+    this.sbpAdapterClient = sbpAdapterClient;
+    this.maxStalenessMillis = maxStalenessMillis;
+  }
+
+  /**
+   * Реплика загружена и обновлялась не позднее max-staleness назад.
+   */
+  public boolean isReady() {
+    DirectoryState current = state;
+    return (
+      current != null &&
+      System.currentTimeMillis() - current.syncedAtMillis() <=
+      maxStalenessMillis
+    );
+  }
+
+  public Optional<BankInfo> findBankById(String bankId) {
+    DirectoryState current = state;
+    return current == null
+      ? Optional.empty()
+      : Optional.ofNullable(current.banks().get(bankId));
+  }
+
+  public List<String> findBankIdsByPhone(String phoneNumber) {
+    DirectoryState current = state;
+    return current == null
+      ? List.of()
+      : current.phoneToBankIds().getOrDefault(phoneNumber, List.of());
+  }
+
+  public long getVersion() {
+    DirectoryState current = state;
+    return current == null ? 0 : current.version();
+  }
+
+  @Scheduled(
+    initialDelay = 0,
+    fixedDelayString = "${sbp.adapter.directory-replica.poll-interval-ms:30000}"
+  )
+  public void refresh() {
+    try {
+      DirectoryState current = state;
+      if (current == null) {
+        loadSnapshot();
+        return;
+      }
+      BankDirectoryDelta delta = sbpAdapterClient.getBankDirectoryDelta(
+        current.version()
+      );
+      if (delta.isFullResyncRequired()) {
+        log.info(
+          "Bank directory delta from version {} is not available, reloading snapshot",
+          current.version()
+        );
+        loadSnapshot();
+        return;
+      }
+      state = apply(current, delta);
+      if (delta.getToVersion() != current.version()) {
+        log.info(
+          "Bank directory replica updated {} -> {}: {} banks changed, {} removed, {} phones changed, {} removed",
+          current.version(),
+          delta.getToVersion(),
+          sizeOf(delta.getUpsertedBanks()),
+          sizeOf(delta.getRemovedBankIds()),
+          delta.getUpsertedPhones() == null
+            ? 0
+            : delta.getUpsertedPhones().size(),
+          sizeOf(delta.getRemovedPhones())
+        );
+      }
+    } catch (RuntimeException e) {
+      // Оставляем прежнее состояние; по истечении max-staleness валидация уйдет к адаптеру
+      log.warn(
+        "Failed to refresh bank directory replica (version {}): {}",
+        getVersion(),
+        e.getMessage()
+      );
+    }
+  }
+
+  private void loadSnapshot() {
+    BankDirectorySnapshot snapshot = sbpAdapterClient.getBankDirectorySnapshot();
+    Map<String, BankInfo> banks = new HashMap<>();
+    for (BankInfo bankInfo : snapshot.getBanks()) {
+      banks.put(bankInfo.getBankId(), bankInfo);
+    }
+    state = new DirectoryState(
+      snapshot.getVersion(),
+      Map.copyOf(banks),
+      Map.copyOf(snapshot.getPhoneToBankIds()),
+      System.currentTimeMillis()
+    );
+    log.info(
+      "Bank directory snapshot loaded: version {}, {} banks, {} phones",
+      snapshot.getVersion(),
+      banks.size(),
+      snapshot.getPhoneToBankIds().size()
+    );
+  }
+
+  private static DirectoryState apply(
+    DirectoryState current,
+    BankDirectoryDelta delta
+  ) {
+    long now = System.currentTimeMillis();
+    if (delta.getToVersion() == current.version()) {
+      return new DirectoryState(
+        current.version(),
+        current.banks(),
+        current.phoneToBankIds(),
+        now
+      );
+    }
+    Map<String, BankInfo> banks = new HashMap<>(current.banks());
+    if (delta.getUpsertedBanks() != null) {
+      for (BankInfo bankInfo : delta.getUpsertedBanks()) {
+        banks.put(bankInfo.getBankId(), bankInfo);
+      }
+    }
+    if (delta.getRemovedBankIds() != null) {
+      delta.getRemovedBankIds().forEach(banks::remove);
+    }
+    Map<String, List<String>> phones = new HashMap<>(current.phoneToBankIds());
+    if (delta.getUpsertedPhones() != null) {
+      phones.putAll(delta.getUpsertedPhones());
+    }
+    if (delta.getRemovedPhones() != null) {
+      delta.getRemovedPhones().forEach(phones::remove);
+    }
+    return new DirectoryState(
+      delta.getToVersion(),
+      Map.copyOf(banks),
+      Map.copyOf(phones),
+      now
+    );
+  }
+
+  private static int sizeOf(List<?> list) {
+    return list == null ? 0 : list.size();
+  }
+
+  private record DirectoryState(
+    long version,
+    Map<String, BankInfo> banks,
+    Map<String, List<String>> phoneToBankIds,
+    long syncedAtMillis
+  ) {}
+}
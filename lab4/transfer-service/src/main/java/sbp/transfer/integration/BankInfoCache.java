@@ -0,0 +1,270 @@
+package sbp.transfer.integration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import sbp.dto.rest.BankInfo;
+
+/**
+ * Кэш сведений о банках перед SBP Adapter.
+ * <p>
+ * Найденные банки живут ttl, но после refreshAfter перечитываются в фоне (refresh-ahead): запрос
+ * получает текущее значение и не ждет адаптер. "Банк не найден" кэшируется на короткое время.
+ * Одновременные промахи по одному bankId объединяются в один HTTP-запрос. Ошибки адаптера не
+ * кэшируются; при неудачном фоновом обновлении остается прежнее значение до истечения ttl.
+ */
+@Slf4j
+public class BankInfoCache implements AutoCloseable {
+
+  private final Function<String, Optional<BankInfo>> loader;
+  private final long ttlMillis;
+  private final long refreshAfterMillis;
+  private final long negativeTtlMillis;
+  private final Map<String, CachedBank> entries;
+  private final Map<String, CompletableFuture<Optional<BankInfo>>> inFlight =
+    new ConcurrentHashMap<>();
+  private final ExecutorService refreshExecutor;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder negativeHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder refreshes = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LongAdder loadTimeNanos = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public BankInfoCache(
+    Function<String, Optional<BankInfo>> loader,
+    long ttlMillis,
+    long refreshAfterMillis,
+    long negativeTtlMillis,
+    int maxEntries,
+    int refreshThreads
+  ) {
+    this.loader = loader;
+    this.ttlMillis = ttlMillis;
+    this.refreshAfterMillis = Math.min(refreshAfterMillis, ttlMillis);
+    this.negativeTtlMillis = negativeTtlMillis;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(
+        Map.Entry<String, CachedBank> eldest
+      ) {
+        if (size() > maxEntries) {
+          evictions.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+    AtomicInteger threadCounter = new AtomicInteger();
+    this.refreshExecutor = Executors.newFixedThreadPool(
+      refreshThreads,
+      runnable -> {
+        Thread thread = new Thread(
+          runnable,
+          "bank-info-refresh-" + threadCounter.incrementAndGet()
+        );
+        thread.setDaemon(true);
+        return thread;
+      }
+    );
+  }
+
+  public Optional<BankInfo> get(String bankId) {
+    long now = System.currentTimeMillis();
+    CachedBank cached;
+    synchronized (entries) {
+      cached = entries.get(bankId);
+      if (cached != null && cached.expiresAtMillis() <= now) {
+        entries.remove(bankId);
+        cached = null;
+      }
+    }
+    if (cached != null) {
+      if (cached.value().isPresent()) {
+        hits.increment();
+        if (cached.refreshAtMillis() <= now) {
+          refreshAsync(bankId);
+        }
+      } else {
+        negativeHits.increment();
+      }
+      return cached.value();
+    }
+
+    misses.increment();
+    CompletableFuture<Optional<BankInfo>> own = new CompletableFuture<>();
+    CompletableFuture<Optional<BankInfo>> existing = inFlight.putIfAbsent(
+      bankId,
+      own
+    );
+    if (existing != null) {
+      // Загрузка по этому bankId уже идет - ждем ее результат
+      coalesced.increment();
+      return await(existing);
+    }
+    try {
+      Optional<BankInfo> value = loadAndStore(bankId);
+      own.complete(value);
+      return value;
+    } catch (RuntimeException e) {
+      own.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(bankId, own);
+    }
+  }
+
+  public void invalidateAll() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  public Stats stats() {
+    int size;
+    synchronized (entries) {
+      size = entries.size();
+    }
+    long loadCount = loads.sum();
+    return new Stats(
+      size,
+      hits.sum(),
+      negativeHits.sum(),
+      misses.sum(),
+      coalesced.sum(),
+      refreshes.sum(),
+      loadCount,
+      loadFailures.sum(),
+      evictions.sum(),
+      loadCount == 0 ? 0 : loadTimeNanos.sum() / loadCount / 1_000_000.0
+    );
+  }
+
+  public void logStats() {
+    Stats stats = stats();
+    long lookups = stats.hits() + stats.negativeHits() + stats.misses();
+    log.info(
+      "Bank info cache: size={}, hits={}, negativeHits={}, misses={}, coalesced={}, refreshes={}, loads={}, loadFailures={}, evictions={}, avgLoadMs={}, hitRatio={}",
+      stats.size(),
+      stats.hits(),
+      stats.negativeHits(),
+      stats.misses(),
+      stats.coalesced(),
+      stats.refreshes(),
+      stats.loads(),
+      stats.loadFailures(),
+      stats.evictions(),
+      String.format("%.1f", stats.averageLoadMillis()),
+      lookups == 0
+        ? 0
+        : String.format(
+          "%.3f",
+          (double) (stats.hits() + stats.negativeHits()) / lookups
+        )
+    );
+  }
+
+  @Override
+  public void close() {
+    refreshExecutor.shutdownNow();
+  }
+
+  private void refreshAsync(String bankId) {
+    CompletableFuture<Optional<BankInfo>> own = new CompletableFuture<>();
+    if (inFlight.putIfAbsent(bankId, own) != null) {
+      return; // Уже обновляется
+    }
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          own.complete(loadAndStore(bankId));
+        } catch (RuntimeException e) {
+          log.warn(
+            "Background refresh of bank info for bankId {} failed, keeping cached value: {}",
+            bankId,
+            e.getMessage()
+          );
+          own.completeExceptionally(e);
+        } finally {
+          inFlight.remove(bankId, own);
+        }
+      });
+      refreshes.increment();
+    } catch (RejectedExecutionException e) {
+      inFlight.remove(bankId, own);
+    }
+  }
+
+  private Optional<BankInfo> loadAndStore(String bankId) {
+    long start = System.nanoTime();
+    Optional<BankInfo> value;
+    try {
+      value = loader.apply(bankId);
+    } catch (RuntimeException e) {
+      loadFailures.increment();
+      throw e;
+    } finally {
+      loads.increment();
+      loadTimeNanos.add(System.nanoTime() - start);
+    }
+
+    long now = System.currentTimeMillis();
+    CachedBank entry = value.isPresent()
+      ? new CachedBank(value, now + refreshAfterMillis, now + ttlMillis)
+      : new CachedBank(
+        value,
+        now + negativeTtlMillis,
+        now + negativeTtlMillis
+      );
+    synchronized (entries) {
+      entries.put(bankId, entry);
+    }
+    return value;
+  }
+
+  private static Optional<BankInfo> await(
+    CompletableFuture<Optional<BankInfo>> future
+  ) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private record CachedBank(
+    Optional<BankInfo> value,
+    long refreshAtMillis,
+    long expiresAtMillis
+  ) {}
+
+  public record Stats(
+    int size,
+    long hits,
+    long negativeHits,
+    long misses,
+    long coalesced,
+    long refreshes,
+    long loads,
+    long loadFailures,
+    long evictions,
+    double averageLoadMillis
+  ) {}
+}
@@ -0,0 +1,109 @@
+package sbp.transfer.integration;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Простой автомат "предохранителя" для вызовов SBP Adapter.
+ * <p>
+ * CLOSED: вызовы проходят, после failureThreshold ошибок подряд - OPEN.
+ * OPEN: вызовы сразу отклоняются, через openDurationMillis пропускается один пробный вызов (HALF_OPEN).
+ * HALF_OPEN: успех пробного вызова закрывает предохранитель, ошибка снова открывает.
+ * Если пробный вызов не был отправлен (отклонен локальным лимитом), пробным станет следующий.
+ */
+@Slf4j
+public class SbpAdapterCircuitBreaker {
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN,
+  }
+
+  private final int failureThreshold;
+  private final long openDurationMillis;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAtMillis;
+  private boolean probeInFlight;
+
+  public SbpAdapterCircuitBreaker(
+    int failureThreshold,
+    long openDurationMillis
+  ) {
+    this.failureThreshold = failureThreshold;
+    this.openDurationMillis = openDurationMillis;
+  }
+
+  /**
+   * @return true, если вызов можно выполнять; false - предохранитель открыт.
+   */
+  public synchronized boolean tryAcquirePermission() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (System.currentTimeMillis() - openedAtMillis >= openDurationMillis) {
+          state = State.HALF_OPEN; // Пропускаем один пробный вызов
+          probeInFlight = true;
+          log.info("SBP Adapter circuit breaker is HALF_OPEN, sending probe");
+          return true;
+        }
+        return false;
+      default:
+        if (probeInFlight) {
+          return false; // HALF_OPEN: пробный вызов уже выполняется
+        }
+        probeInFlight = true;
+        return true;
+    }
+  }
+
+  public synchronized void onSuccess() {
+    if (state != State.CLOSED) {
+      log.info("SBP Adapter circuit breaker is CLOSED");
+    }
+    state = State.CLOSED;
+    consecutiveFailures = 0;
+    probeInFlight = false;
+  }
+
+  public synchronized void onFailure() {
+    consecutiveFailures++;
+    probeInFlight = false;
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      if (state != State.OPEN) {
+        log.warn(
+          "SBP Adapter circuit breaker is OPEN after {} consecutive failures, failing fast for {} ms",
+          consecutiveFailures,
+          openDurationMillis
+        );
+      }
+      state = State.OPEN;
+      openedAtMillis = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * Вызов завершился, но его исход не говорит о доступности адаптера (например, 4xx).
+   */
+  public synchronized void onIgnored() {
+    if (state == State.HALF_OPEN) {
+      state = State.CLOSED;
+      consecutiveFailures = 0;
+    }
+    probeInFlight = false;
+  }
+
+  /**
+   * Вызов не был отправлен в адаптер (исчерпан лимит одновременных запросов) и ничего не говорит
+   * о его доступности: в HALF_OPEN предохранитель ждет следующего пробного вызова.
+   */
+  public synchronized void onRejected() {
+    probeInFlight = false;
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+}
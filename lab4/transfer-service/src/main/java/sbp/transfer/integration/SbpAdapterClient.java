@@ -1,18 +1,23 @@
 package sbp.transfer.integration;
 
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import sbp.dto.rest.BankDirectoryDelta;
+import sbp.dto.rest.BankDirectorySnapshot;
 import sbp.dto.rest.BankInfo;
 import sbp.transfer.exception.SbpAdapterException;
 
@@ -22,19 +27,57 @@ public class SbpAdapterClient {
 
   private final RestTemplate restTemplate;
   private final String sbpAdapterBanksApiUrl;
+  private final String sbpAdapterDirectoryApiUrl;
+  private final BankInfoCache bankInfoCache; // null, если кэш выключен
+  private final AsyncSbpAdapterClient asyncClient; // null в режиме blocking
 
   public SbpAdapterClient(
     RestTemplateBuilder restTemplateBuilder,
+    ObjectProvider<AsyncSbpAdapterClient> asyncSbpAdapterClient,
     @Value("${sbp.adapter.base-url}") String sbpAdapterBaseUrl,
     @Value("${sbp.adapter.api.banks.path:/api/sbp/banks}") String banksApiPath,
+    @Value(
+      "${sbp.adapter.api.directory.path:/api/sbp/directory}"
+    ) String directoryApiPath,
     @Value("${sbp.adapter.timeout.connect:2000}") int connectTimeout,
-    @Value("${sbp.adapter.timeout.read:5000}") int readTimeout
+    @Value("${sbp.adapter.timeout.read:5000}") int readTimeout,
+    @Value("${sbp.adapter.bank-cache.enabled:false}") boolean cacheEnabled,
+    @Value("${sbp.adapter.bank-cache.ttl-seconds:3600}") long cacheTtlSeconds,
+    @Value(
+      "${sbp.adapter.bank-cache.refresh-after-seconds:600}"
+    ) long cacheRefreshAfterSeconds,
+    @Value(
+      "${sbp.adapter.bank-cache.negative-ttl-seconds:30}"
+    ) long cacheNegativeTtlSeconds,
+    @Value("${sbp.adapter.bank-cache.max-entries:1000}") int cacheMaxEntries,
+    @Value("${sbp.adapter.bank-cache.refresh-threads:2}") int cacheRefreshThreads
   ) {
     this.restTemplate = restTemplateBuilder
       .setConnectTimeout(Duration.ofMillis(connectTimeout))
       .setReadTimeout(Duration.ofMillis(readTimeout))
       .build();
     this.sbpAdapterBanksApiUrl = sbpAdapterBaseUrl + banksApiPath;
+    this.sbpAdapterDirectoryApiUrl = sbpAdapterBaseUrl + directoryApiPath;
+    this.asyncClient = asyncSbpAdapterClient.getIfAvailable();
+    if (cacheEnabled) {
+      this.bankInfoCache = new BankInfoCache(
+        this::fetchBankInfoById,
+        cacheTtlSeconds * 1000,
+        cacheRefreshAfterSeconds * 1000,
+        cacheNegativeTtlSeconds * 1000,
+        cacheMaxEntries,
+        cacheRefreshThreads
+      );
+      log.info(
+        "Bank info cache enabled: ttl={}s, refreshAfter={}s, negativeTtl={}s, maxEntries={}",
+        cacheTtlSeconds,
+        cacheRefreshAfterSeconds,
+        cacheNegativeTtlSeconds,
+        cacheMaxEntries
+      );
+    } else {
+      this.bankInfoCache = null;
+    }
   }
 
   /**
@@ -47,6 +90,76 @@ public class SbpAdapterClient {
    *                             которую невозможно обработать как "не найдено".
    */
   public Optional<BankInfo> getBankInfoById(String bankId) {
+    return bankInfoCache != null
+      ? bankInfoCache.get(bankId)
+      : fetchBankInfoById(bankId);
+  }
+
+  /**
+   * Загружает полный снимок справочника банков.
+   *
+   * @throws SbpAdapterException при любой ошибке взаимодействия с адаптером.
+   */
+  public BankDirectorySnapshot getBankDirectorySnapshot() {
+    return getDirectory(
+      sbpAdapterDirectoryApiUrl + "/snapshot",
+      BankDirectorySnapshot.class
+    );
+  }
+
+  /**
+   * Загружает изменения справочника банков начиная с версии sinceVersion.
+   *
+   * @throws SbpAdapterException при любой ошибке взаимодействия с адаптером.
+   */
+  public BankDirectoryDelta getBankDirectoryDelta(long sinceVersion) {
+    return getDirectory(
+      sbpAdapterDirectoryApiUrl + "/delta?since=" + sinceVersion,
+      BankDirectoryDelta.class
+    );
+  }
+
+  private <T> T getDirectory(String url, Class<T> responseType) {
+    try {
+      T body = restTemplate.getForObject(url, responseType);
+      if (body == null) {
+        throw new SbpAdapterException(
+          "Empty bank directory response from SBP Adapter. URL: " + url
+        );
+      }
+      return body;
+    } catch (RestClientException e) {
+      throw new SbpAdapterException(
+        "Failed to load bank directory from SBP Adapter. URL: " + url,
+        e
+      );
+    }
+  }
+
+  @Scheduled(
+    fixedDelayString = "${sbp.adapter.bank-cache.stats-log-interval-ms:60000}"
+  )
+  public void logBankInfoCacheStats() {
+    if (bankInfoCache != null) {
+      bankInfoCache.logStats();
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (bankInfoCache != null) {
+      bankInfoCache.close();
+    }
+  }
+
+  private Optional<BankInfo> fetchBankInfoById(String bankId) {
+    // В режиме async запрос идет через неблокирующий клиент с лимитом и предохранителем
+    return asyncClient != null
+      ? asyncClient.getBankInfoById(bankId)
+      : fetchBankInfoByIdBlocking(bankId);
+  }
+
+  private Optional<BankInfo> fetchBankInfoByIdBlocking(String bankId) {
     String url = sbpAdapterBanksApiUrl + "/" + bankId; // Формируем полный URL для конкретного bankId
     log.debug(
       "Requesting bank info from SBP Adapter. URL: {}, bankId: {}",
@@ -0,0 +1,320 @@
+package sbp.transfer.integration.eis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.resource.cci.ConnectionFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sbp.dto.eis.ChequeDetailsDTO;
+import sbp.transfer.entity.ChequeDeliveryJob;
+import sbp.transfer.jca.email.EmailConnection;
+import sbp.transfer.repository.ChequeDeliveryJobRepository;
+
+/**
+ * Надежная отправка электронных чеков через таблицу cheque_delivery_jobs.
+ * <p>
+ * Задание записывается в транзакции успешного перевода ({@link #enqueue}), поэтому перевод
+ * завершается сразу после движения средств и не зависит от SMTP. Планировщик забирает
+ * задания пачками (FOR UPDATE SKIP LOCKED) не больше числа свободных воркеров, помечает их
+ * IN_PROGRESS с арендой на lease-ms и передает в ограниченный пул потоков. Письма на один
+ * домен ограничены по частоте; задание, не получившее токен, откладывается без расхода попытки.
+ * Ошибки повторяются с экспоненциальной задержкой, после max-attempts задание переходит в DEAD.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "eis.cheque.durable.enabled", havingValue = "true")
+public class ChequeDeliveryWorker {
+
+  private final ChequeDeliveryJobRepository jobRepository;
+  private final ConnectionFactory connectionFactory;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final DomainRateLimiter rateLimiter;
+  private final ThreadPoolExecutor executor;
+  private final int workers;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private final LongAdder enqueued = new LongAdder();
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder retried = new LongAdder();
+  private final LongAdder deadLettered = new LongAdder();
+  private final LongAdder throttled = new LongAdder();
+
+  @Value("${eis.cheque.durable.batch-size:50}")
+  private int batchSize;
+
+  @Value("${eis.cheque.durable.max-attempts:8}")
+  private int maxAttempts;
+
+  @Value("${eis.cheque.durable.retry-base-delay-ms:5000}")
+  private long retryBaseDelayMs;
+
+  @Value("${eis.cheque.durable.retry-max-delay-ms:3600000}")
+  private long retryMaxDelayMs;
+
+  @Value("${eis.cheque.durable.lease-ms:300000}")
+  private long leaseMs;
+
+  @Value("${eis.cheque.durable.retention-hours:72}")
+  private long retentionHours;
+
+  public ChequeDeliveryWorker(
+    ChequeDeliveryJobRepository jobRepository,
+    @Qualifier("emailConnectionFactory") ConnectionFactory connectionFactory,
+    @Qualifier("objectMapperForJms") ObjectMapper objectMapper,
+    PlatformTransactionManager transactionManager,
+    @Value("${eis.cheque.durable.workers:4}") int workers,
+    @Value(
+      "${eis.cheque.durable.domain-rate-per-second:10}"
+    ) double domainRatePerSecond
+  ) {
+    this.jobRepository = jobRepository;
+    this.connectionFactory = connectionFactory;
+    this.objectMapper = objectMapper;
+    // Соединения Atomikos выдаются только внутри JTA-транзакции, поэтому все обращения к БД через шаблон
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.rateLimiter = new DomainRateLimiter(domainRatePerSecond);
+    this.workers = workers;
+    AtomicInteger threadCounter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(
+      workers,
+      workers,
+      0,
+      TimeUnit.MILLISECONDS,
+      new LinkedBlockingQueue<>(),
+      runnable -> {
+        Thread thread = new Thread(
+          runnable,
+          "cheque-job-" + threadCounter.incrementAndGet()
+        );
+        thread.setDaemon(true);
+        return thread;
+      }
+    );
+  }
+
+  /**
+   * Записывает задание в текущей транзакции. Повторная доставка события перевода
+   * не создает второго задания.
+   */
+  public void enqueue(ChequeDetailsDTO chequeDetails) throws Exception {
+    UUID transferId = chequeDetails.getTransactionId();
+    if (jobRepository.existsById(transferId)) {
+      log.info(
+        "Cheque delivery job for transfer {} already exists, skipping",
+        transferId
+      );
+      return;
+    }
+    String email = chequeDetails.getRecipientEmail();
+    jobRepository.save(
+      ChequeDeliveryJob.builder()
+        .transferId(transferId)
+        .recipientEmail(email)
+        .recipientDomain(
+          email.substring(email.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT)
+        )
+        .payload(objectMapper.writeValueAsString(chequeDetails))
+        .build()
+    );
+    enqueued.increment();
+  }
+
+  @Scheduled(fixedDelayString = "${eis.cheque.durable.poll-interval-ms:500}")
+  public void dispatch() {
+    int free = workers - inFlight.get();
+    if (free <= 0) {
+      return;
+    }
+    List<ChequeDeliveryJob> claimed = transactionTemplate.execute(status ->
+      claim(Math.min(free, batchSize))
+    );
+    if (claimed == null || claimed.isEmpty()) {
+      return;
+    }
+    List<UUID> deferred = new ArrayList<>();
+    for (ChequeDeliveryJob job : claimed) {
+      if (!rateLimiter.tryAcquire(job.getRecipientDomain())) {
+        throttled.increment();
+        deferred.add(job.getTransferId());
+        continue;
+      }
+      inFlight.incrementAndGet();
+      executor.execute(() -> deliver(job));
+    }
+    if (!deferred.isEmpty()) {
+      transactionTemplate.executeWithoutResult(status -> defer(deferred));
+    }
+  }
+
+  @Scheduled(
+    fixedDelayString = "${eis.cheque.durable.stats-log-interval-ms:60000}"
+  )
+  public void logStats() {
+    long[] counts = transactionTemplate.execute(status ->
+      new long[] {
+        jobRepository.countByStatus(ChequeDeliveryJob.Status.PENDING),
+        jobRepository.countByStatus(ChequeDeliveryJob.Status.IN_PROGRESS),
+        jobRepository.countByStatus(ChequeDeliveryJob.Status.DEAD),
+      }
+    );
+    log.info(
+      "Cheque delivery jobs: pending={}, inProgress={}, dead={}, inFlight={}, enqueued={}, sent={}, retried={}, deadLettered={}, throttled={}",
+      counts[0],
+      counts[1],
+      counts[2],
+      inFlight.get(),
+      enqueued.sum(),
+      sent.sum(),
+      retried.sum(),
+      deadLettered.sum(),
+      throttled.sum()
+    );
+  }
+
+  @Scheduled(cron = "${eis.cheque.durable.cleanup.cron:0 30 * * * ?}")
+  public void deleteSentJobs() {
+    Integer deleted = transactionTemplate.execute(status ->
+      jobRepository.deleteByStatusAndSentAtBefore(
+        ChequeDeliveryJob.Status.SENT,
+        LocalDateTime.now().minusHours(retentionHours)
+      )
+    );
+    if (deleted != null && deleted > 0) {
+      log.info("Cheque delivery cleanup removed {} sent job(s)", deleted);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    // Незавершенные задания останутся IN_PROGRESS и будут подобраны после истечения аренды
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  private List<ChequeDeliveryJob> claim(int limit) {
+    List<ChequeDeliveryJob> batch = jobRepository.lockNextBatch(
+      LocalDateTime.now(),
+      limit
+    );
+    LocalDateTime leaseUntil = LocalDateTime.now().plus(
+      leaseMs,
+      ChronoUnit.MILLIS
+    );
+    for (ChequeDeliveryJob job : batch) {
+      job.setStatus(ChequeDeliveryJob.Status.IN_PROGRESS);
+      job.setNextAttemptAt(leaseUntil);
+    }
+    return jobRepository.saveAll(batch);
+  }
+
+  private void defer(List<UUID> transferIds) {
+    LocalDateTime nextAttemptAt = LocalDateTime.now().plus(
+      rateLimiter.retryDelayMillis(),
+      ChronoUnit.MILLIS
+    );
+    for (ChequeDeliveryJob job : jobRepository.findAllById(transferIds)) {
+      job.setStatus(ChequeDeliveryJob.Status.PENDING);
+      job.setNextAttemptAt(nextAttemptAt);
+    }
+  }
+
+  private void deliver(ChequeDeliveryJob job) {
+    try {
+      ChequeDetailsDTO chequeDetails = objectMapper.readValue(
+        job.getPayload(),
+        ChequeDetailsDTO.class
+      );
+      EmailConnection connection =
+        (EmailConnection) connectionFactory.getConnection();
+      try {
+        connection.sendElectronicCheque(chequeDetails);
+      } finally {
+        connection.close();
+      }
+      transactionTemplate.executeWithoutResult(status ->
+        markSent(job.getTransferId())
+      );
+      sent.increment();
+    } catch (Exception e) {
+      transactionTemplate.executeWithoutResult(status ->
+        scheduleRetry(job.getTransferId(), e)
+      );
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  private void markSent(UUID transferId) {
+    jobRepository
+      .findById(transferId)
+      .ifPresent(job -> {
+        job.setStatus(ChequeDeliveryJob.Status.SENT);
+        job.setAttempts(job.getAttempts() + 1);
+        job.setSentAt(LocalDateTime.now());
+        job.setLastError(null);
+      });
+  }
+
+  private void scheduleRetry(UUID transferId, Exception e) {
+    ChequeDeliveryJob job = jobRepository.findById(transferId).orElse(null);
+    if (job == null) {
+      return;
+    }
+    int attempts = job.getAttempts() + 1;
+    job.setAttempts(attempts);
+    job.setLastError(truncate(e.getMessage()));
+    if (attempts >= maxAttempts) {
+      job.setStatus(ChequeDeliveryJob.Status.DEAD);
+      deadLettered.increment();
+      log.error(
+        "Cheque for transfer {} to {} moved to DEAD after {} attempt(s): {}",
+        transferId,
+        job.getRecipientEmail(),
+        attempts,
+        e.getMessage(),
+        e
+      );
+      return;
+    }
+    long delayMs = Math.min(
+      retryMaxDelayMs,
+      retryBaseDelayMs * (1L << Math.min(attempts - 1, 20))
+    );
+    job.setStatus(ChequeDeliveryJob.Status.PENDING);
+    job.setNextAttemptAt(LocalDateTime.now().plus(delayMs, ChronoUnit.MILLIS));
+    retried.increment();
+    log.warn(
+      "Cheque for transfer {} to {} failed (attempt {}), retry in {} ms: {}",
+      transferId,
+      job.getRecipientEmail(),
+      attempts,
+      delayMs,
+      e.getMessage()
+    );
+  }
+
+  private String truncate(String value) {
+    if (value == null) {
+      return null;
+    }
+    return value.length() > 1000 ? value.substring(0, 1000) : value;
+  }
+}
@@ -0,0 +1,52 @@
+package sbp.transfer.integration.eis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sbp.dto.eis.ChequeDetailsDTO;
+import sbp.dto.enums.TransferStatus;
+import sbp.transfer.repository.TransferRepository;
+
+/**
+ * Фиксирует ошибку отправки чека, произошедшую после коммита перевода (асинхронная очередь
+ * и ее синхронный запасной путь): перевод SUCCESSFUL переходит в EIS_ERROR с причиной,
+ * как при ошибке синхронной отправки в FundsProcessedEventHandlerImpl.
+ */
+@Component
+@Slf4j
+public class ChequeFailureRecorder {
+
+  private final TransferRepository transferRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  public ChequeFailureRecorder(
+    TransferRepository transferRepository,
+    PlatformTransactionManager transactionManager
+  ) {
+    this.transferRepository = transferRepository;
+    // Вызывается из рабочих потоков вне транзакции, а Atomikos выдает соединения только внутри нее
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  public void recordFailure(ChequeDetailsDTO chequeDetails, Exception error) {
+    try {
+      transactionTemplate.executeWithoutResult(status ->
+        transferRepository
+          .findById(chequeDetails.getTransactionId())
+          .filter(transfer -> transfer.getStatus() == TransferStatus.SUCCESSFUL)
+          .ifPresent(transfer -> {
+            transfer.setStatus(TransferStatus.EIS_ERROR);
+            transfer.setFailureReason("EIS error: " + error.getMessage());
+          })
+      );
+    } catch (RuntimeException e) {
+      log.error(
+        "Could not record cheque failure for transfer {}: {}",
+        chequeDetails.getTransactionId(),
+        e.getMessage(),
+        e
+      );
+    }
+  }
+}
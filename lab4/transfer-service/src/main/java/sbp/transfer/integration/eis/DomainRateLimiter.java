@@ -0,0 +1,63 @@
+package sbp.transfer.integration.eis;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token bucket на каждый почтовый домен получателя: не больше ratePerSecond писем в секунду
+ * на домен с запасом в одну секунду. Неположительная частота отключает ограничение.
+ */
+class DomainRateLimiter {
+
+  private final double ratePerSecond;
+  private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+  DomainRateLimiter(double ratePerSecond) {
+    this.ratePerSecond = ratePerSecond;
+  }
+
+  boolean tryAcquire(String domain) {
+    if (ratePerSecond <= 0) {
+      return true;
+    }
+    return buckets
+      .computeIfAbsent(domain, d -> new Bucket(ratePerSecond))
+      .tryAcquire();
+  }
+
+  /**
+   * Через сколько миллисекунд у домена появится следующий токен (оценка сверху).
+   */
+  long retryDelayMillis() {
+    return ratePerSecond <= 0 ? 0 : (long) Math.ceil(1000 / ratePerSecond);
+  }
+
+  private static final class Bucket {
+
+    private final double rate;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    Bucket(double rate) {
+      this.rate = rate;
+      this.capacity = Math.max(1, rate);
+      this.tokens = capacity;
+      this.lastRefillNanos = System.nanoTime();
+    }
+
+    synchronized boolean tryAcquire() {
+      long now = System.nanoTime();
+      tokens = Math.min(
+        capacity,
+        tokens + ((now - lastRefillNanos) / 1_000_000_000.0) * rate
+      );
+      lastRefillNanos = now;
+      if (tokens < 1) {
+        return false;
+      }
+      tokens -= 1;
+      return true;
+    }
+  }
+}
@@ -3,9 +3,14 @@ package sbp.transfer.integration.eis;
 import jakarta.annotation.Resource; // Для инъекции по имени
 import jakarta.resource.cci.ConnectionFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import sbp.dto.EisService;
 import sbp.dto.eis.ChequeDetailsDTO;
+import sbp.transfer.jca.email.ChequeDeliveryQueue;
 import sbp.transfer.jca.email.EmailConnection;
 
 @Service("jcaStyleEisService") // Имя бина
@@ -16,9 +21,74 @@ public class JcaStyleEisServiceImpl implements EisService {
   @Resource(name = "emailConnectionFactory")
   private ConnectionFactory cciConnectionFactory;
 
+  // Есть, если включена асинхронная отправка (eis.cheque.async.enabled)
+  @Autowired
+  private ObjectProvider<ChequeDeliveryQueue> chequeDeliveryQueue;
+
+  // Есть, если включена надежная отправка через таблицу заданий (eis.cheque.durable.enabled)
+  @Autowired
+  private ObjectProvider<ChequeDeliveryWorker> chequeDeliveryWorker;
+
+  @Autowired
+  private ChequeFailureRecorder chequeFailureRecorder;
+
   @Override
   public void sendElectronicCheque(ChequeDetailsDTO chequeDetails)
     throws Exception {
+    ChequeDeliveryWorker worker = chequeDeliveryWorker.getIfAvailable();
+    if (worker != null) {
+      // Задание фиксируется вместе с переводом, отправка и повторы - в ChequeDeliveryWorker
+      worker.enqueue(chequeDetails);
+      log.info(
+        "JCA-Style EIS: Electronic cheque for transaction ID {} stored for durable delivery",
+        chequeDetails.getTransactionId()
+      );
+      return;
+    }
+    ChequeDeliveryQueue queue = chequeDeliveryQueue.getIfAvailable();
+    if (queue == null) {
+      sendNow(chequeDetails);
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      // Чек уходит только после фиксации транзакции, в которой перевод стал успешным
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            enqueue(queue, chequeDetails);
+          }
+        }
+      );
+    } else {
+      enqueue(queue, chequeDetails);
+    }
+    log.info(
+      "JCA-Style EIS: Electronic cheque for transaction ID {} queued for asynchronous delivery",
+      chequeDetails.getTransactionId()
+    );
+  }
+
+  private void enqueue(
+    ChequeDeliveryQueue queue,
+    ChequeDetailsDTO chequeDetails
+  ) {
+    if (queue.offer(chequeDetails)) {
+      return;
+    }
+    log.warn(
+      "JCA-Style EIS: Cheque delivery queue is full, sending cheque for transaction ID {} synchronously",
+      chequeDetails.getTransactionId()
+    );
+    try {
+      sendNow(chequeDetails);
+    } catch (Exception e) {
+      // Транзакция уже зафиксирована: ошибку фиксируем статусом перевода
+      chequeFailureRecorder.recordFailure(chequeDetails, e);
+    }
+  }
+
+  private void sendNow(ChequeDetailsDTO chequeDetails) throws Exception {
     log.info(
       "JCA-Style EIS: Attempting to send electronic cheque for transaction ID: {}",
       chequeDetails.getTransactionId()
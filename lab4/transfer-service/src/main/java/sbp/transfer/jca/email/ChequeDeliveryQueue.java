@@ -0,0 +1,195 @@
+package sbp.transfer.jca.email;
+
+import jakarta.resource.ResourceException;
+import jakarta.resource.cci.ConnectionFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import sbp.dto.eis.ChequeDetailsDTO;
+
+/**
+ * Асинхронная отправка электронных чеков.
+ * <p>
+ * Чеки ставятся в ограниченную очередь в памяти, рабочие потоки забирают их пачками до batchSize
+ * и отправляют каждую пачку через одно соединение коннектора (одна SMTP-сессия на пачку).
+ * Вызывающий не ждет SMTP. Неотправленный чек передается обработчику ошибок (onFailure).
+ * Очередь не переживает аварийную остановку процесса; при штатной остановке оставшиеся чеки
+ * отправляются до завершения. Рабочие циклы выполняются на общем
+ * TaskExecutor приложения, поэтому с spring.threads.virtual.enabled они идут на виртуальных потоках.
+ */
+@Slf4j
+public class ChequeDeliveryQueue {
+
+  private final ConnectionFactory connectionFactory;
+  private final TaskExecutor taskExecutor;
+  private final BlockingQueue<ChequeDetailsDTO> queue;
+  private final int workers;
+  private final int batchSize;
+  private final BiConsumer<ChequeDetailsDTO, Exception> onFailure;
+  private CountDownLatch stopped = new CountDownLatch(0);
+  private volatile boolean running;
+
+  private final LongAdder enqueued = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+
+  public ChequeDeliveryQueue(
+    ConnectionFactory connectionFactory,
+    TaskExecutor taskExecutor,
+    int capacity,
+    int workers,
+    int batchSize,
+    BiConsumer<ChequeDetailsDTO, Exception> onFailure
+  ) {
+    this.connectionFactory = connectionFactory;
+    this.taskExecutor = taskExecutor;
+    this.queue = new LinkedBlockingQueue<>(capacity);
+    this.workers = workers;
+    this.batchSize = batchSize;
+    this.onFailure = onFailure;
+  }
+
+  public synchronized void start() {
+    running = true;
+    stopped = new CountDownLatch(workers);
+    for (int i = 0; i < workers; i++) {
+      taskExecutor.execute(() -> {
+        try {
+          runWorker();
+        } finally {
+          stopped.countDown();
+        }
+      });
+    }
+    log.info(
+      "Cheque delivery queue started: capacity={}, workers={}, batchSize={}",
+      queue.remainingCapacity(),
+      workers,
+      batchSize
+    );
+  }
+
+  /**
+   * @return false, если очередь заполнена - вызывающий должен отправить чек сам.
+   */
+  public boolean offer(ChequeDetailsDTO chequeDetails) {
+    if (running && queue.offer(chequeDetails)) {
+      enqueued.increment();
+      return true;
+    }
+    rejected.increment();
+    return false;
+  }
+
+  public synchronized void close() {
+    running = false;
+    // Потоки принадлежат общему пулу и не прерываются: рабочий цикл выходит после poll (до 1 с)
+    try {
+      if (!stopped.await(5, TimeUnit.SECONDS)) {
+        log.warn("Cheque delivery workers did not stop within 5 s");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    List<ChequeDetailsDTO> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    if (!remaining.isEmpty()) {
+      log.info(
+        "Sending {} queued cheques before shutdown",
+        remaining.size()
+      );
+      for (int from = 0; from < remaining.size(); from += batchSize) {
+        deliver(
+          remaining.subList(from, Math.min(from + batchSize, remaining.size()))
+        );
+      }
+    }
+  }
+
+  @Scheduled(
+    fixedDelayString = "${eis.cheque.async.stats-log-interval-ms:60000}"
+  )
+  public void logStats() {
+    log.info(
+      "Cheque delivery queue: queued={}, enqueued={}, rejected={}, sent={}, failed={}, batches={}",
+      queue.size(),
+      enqueued.sum(),
+      rejected.sum(),
+      sent.sum(),
+      failed.sum(),
+      batches.sum()
+    );
+  }
+
+  private void runWorker() {
+    List<ChequeDetailsDTO> batch = new ArrayList<>(batchSize);
+    while (running) {
+      try {
+        ChequeDetailsDTO first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        deliver(batch);
+      } catch (InterruptedException e) {
+        // Остановка пула: оставшиеся чеки отправит close()
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        log.error("Unexpected error in cheque delivery worker", e);
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void deliver(List<ChequeDetailsDTO> batch) {
+    batches.increment();
+    EmailConnection connection;
+    try {
+      connection = (EmailConnection) connectionFactory.getConnection();
+    } catch (ResourceException e) {
+      failed.add(batch.size());
+      log.error(
+        "Could not obtain email connection, {} cheques not sent: {}",
+        batch.size(),
+        e.getMessage()
+      );
+      batch.forEach(chequeDetails -> onFailure.accept(chequeDetails, e));
+      return;
+    }
+    try {
+      for (ChequeDetailsDTO chequeDetails : batch) {
+        try {
+          connection.sendElectronicCheque(chequeDetails);
+          sent.increment();
+        } catch (ResourceException e) {
+          failed.increment();
+          log.error(
+            "Failed to send electronic cheque for transaction ID {}: {}",
+            chequeDetails.getTransactionId(),
+            e.getMessage()
+          );
+          onFailure.accept(chequeDetails, e);
+        }
+      }
+    } finally {
+      try {
+        connection.close();
+      } catch (ResourceException e) {
+        log.warn("Error closing EmailConnection: {}", e.getMessage());
+      }
+    }
+  }
+}
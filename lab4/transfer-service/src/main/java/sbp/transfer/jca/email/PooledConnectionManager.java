@@ -0,0 +1,177 @@
+package sbp.transfer.jca.email;
+
+import jakarta.resource.ResourceException;
+import jakarta.resource.spi.ConnectionEvent;
+import jakarta.resource.spi.ConnectionEventListener;
+import jakarta.resource.spi.ConnectionManager;
+import jakarta.resource.spi.ConnectionRequestInfo;
+import jakarta.resource.spi.ManagedConnection;
+import jakarta.resource.spi.ManagedConnectionFactory;
+import jakarta.resource.spi.ResourceAllocationException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Пулирующий ConnectionManager для email-коннектора.
+ * <p>
+ * ManagedConnection (и его авторизованное SMTP-соединение) после закрытия клиентского handle
+ * возвращается в пул и выдается следующему вызывающему. Размер пула ограничен maxSize: при
+ * исчерпании вызывающий ждет не дольше acquireTimeout. Соединения, простоявшие дольше maxIdle,
+ * закрываются при следующей выдаче, так как SMTP-сервер все равно разорвет их по таймауту.
+ */
+@Slf4j
+public class PooledConnectionManager
+  implements ConnectionManager, ConnectionEventListener {
+
+  private static final long serialVersionUID = 1L;
+
+  private final long acquireTimeoutMillis;
+  private final long maxIdleMillis;
+  private final transient Semaphore permits;
+  private final transient Deque<IdleConnection> idle = new ArrayDeque<>();
+
+  private final transient LongAdder created = new LongAdder();
+  private final transient LongAdder reused = new LongAdder();
+  private final transient LongAdder destroyed = new LongAdder();
+  private final transient LongAdder acquireTimeouts = new LongAdder();
+
+  public PooledConnectionManager(
+    int maxSize,
+    long acquireTimeoutMillis,
+    long maxIdleMillis
+  ) {
+    this.permits = new Semaphore(maxSize, true);
+    this.acquireTimeoutMillis = acquireTimeoutMillis;
+    this.maxIdleMillis = maxIdleMillis;
+  }
+
+  @Override
+  public Object allocateConnection(
+    ManagedConnectionFactory mcf,
+    ConnectionRequestInfo cxRequestInfo
+  ) throws ResourceException {
+    try {
+      if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+        acquireTimeouts.increment();
+        throw new ResourceAllocationException(
+          "No email connection available within " + acquireTimeoutMillis + " ms"
+        );
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResourceAllocationException(
+        "Interrupted while waiting for email connection"
+      );
+    }
+
+    try {
+      ManagedConnection mc = pollIdle();
+      if (mc == null) {
+        mc = mcf.createManagedConnection(null, cxRequestInfo);
+        mc.addConnectionEventListener(this);
+        created.increment();
+      } else {
+        reused.increment();
+      }
+      return mc.getConnection(null, cxRequestInfo);
+    } catch (ResourceException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public void connectionClosed(ConnectionEvent event) {
+    ManagedConnection mc = (ManagedConnection) event.getSource();
+    try {
+      mc.cleanup();
+      synchronized (idle) {
+        idle.push(new IdleConnection(mc, System.currentTimeMillis()));
+      }
+    } catch (ResourceException e) {
+      destroyQuietly(mc);
+    } finally {
+      permits.release();
+    }
+  }
+
+  @Override
+  public void connectionErrorOccurred(ConnectionEvent event) {
+    destroyQuietly((ManagedConnection) event.getSource());
+    permits.release();
+  }
+
+  @Override
+  public void localTransactionStarted(ConnectionEvent event) {}
+
+  @Override
+  public void localTransactionCommitted(ConnectionEvent event) {}
+
+  @Override
+  public void localTransactionRolledback(ConnectionEvent event) {}
+
+  /**
+   * Закрывает все свободные соединения (при остановке приложения).
+   */
+  public void close() {
+    synchronized (idle) {
+      while (!idle.isEmpty()) {
+        destroyQuietly(idle.pop().connection());
+      }
+    }
+  }
+
+  @Scheduled(
+    fixedDelayString = "${eis.mail.pool.stats-log-interval-ms:60000}"
+  )
+  public void logStats() {
+    int idleCount;
+    synchronized (idle) {
+      idleCount = idle.size();
+    }
+    log.info(
+      "Email connection pool: idle={}, availablePermits={}, created={}, reused={}, destroyed={}, acquireTimeouts={}",
+      idleCount,
+      permits.availablePermits(),
+      created.sum(),
+      reused.sum(),
+      destroyed.sum(),
+      acquireTimeouts.sum()
+    );
+  }
+
+  private ManagedConnection pollIdle() {
+    long now = System.currentTimeMillis();
+    synchronized (idle) {
+      while (!idle.isEmpty()) {
+        // LIFO: самое "свежее" соединение, у которого меньше шансов быть разорванным сервером
+        IdleConnection candidate = idle.pop();
+        if (now - candidate.idleSinceMillis() <= maxIdleMillis) {
+          return candidate.connection();
+        }
+        destroyQuietly(candidate.connection());
+      }
+    }
+    return null;
+  }
+
+  private void destroyQuietly(ManagedConnection mc) {
+    try {
+      mc.removeConnectionEventListener(this);
+      mc.destroy();
+    } catch (ResourceException e) {
+      log.warn("Failed to destroy email connection: {}", e.getMessage());
+    }
+    destroyed.increment();
+  }
+
+  private record IdleConnection(
+    ManagedConnection connection,
+    long idleSinceMillis
+  ) {}
+}
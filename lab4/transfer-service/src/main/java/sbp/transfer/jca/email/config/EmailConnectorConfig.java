@@ -1,8 +1,17 @@
 package sbp.transfer.jca.email.config;
 
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import sbp.transfer.integration.eis.ChequeFailureRecorder;
+import sbp.transfer.jca.email.ChequeDeliveryQueue;
+import sbp.transfer.jca.email.PooledConnectionManager;
+import sbp.transfer.jca.email.internal.ChequeTemplates;
 import sbp.transfer.jca.email.spi.EmailManagedConnectionFactoryImpl;
 
 @Configuration
@@ -23,6 +32,15 @@ public class EmailConnectorConfig {
   @Value("${EIS_MAIL_FROM}")
   private String eisMailFrom;
 
+  @Value("${eis.cheque.template.locales:en}")
+  private List<String> chequeTemplateLocales;
+
+  @Value("${eis.cheque.template.default-locale:en}")
+  private String chequeTemplateDefaultLocale;
+
+  @Value("${eis.cheque.template.text-alternative:false}")
+  private boolean chequeTemplateTextAlternative;
+
   @Bean
   public EmailManagedConnectionFactoryImpl emailManagedConnectionFactory() {
     EmailManagedConnectionFactoryImpl mcf =
@@ -32,13 +50,64 @@ public class EmailConnectorConfig {
     mcf.setUsername(eisMailUser);
     mcf.setPassword(eisMailPassword);
     mcf.setMailFrom(eisMailFrom);
+    mcf.setChequeTemplates(
+      ChequeTemplates.load(
+        chequeTemplateLocales,
+        chequeTemplateDefaultLocale,
+        chequeTemplateTextAlternative
+      )
+    );
     return mcf;
   }
 
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(name = "eis.mail.pool.enabled", havingValue = "true")
+  public PooledConnectionManager emailConnectionManager(
+    @Value("${eis.mail.pool.max-size:4}") int maxSize,
+    @Value("${eis.mail.pool.acquire-timeout-ms:5000}") long acquireTimeoutMillis,
+    @Value("${eis.mail.pool.max-idle-ms:60000}") long maxIdleMillis
+  ) {
+    return new PooledConnectionManager(
+      maxSize,
+      acquireTimeoutMillis,
+      maxIdleMillis
+    );
+  }
+
   @Bean(name = "emailConnectionFactory")
   public jakarta.resource.cci.ConnectionFactory cciEmailConnectionFactory(
-    EmailManagedConnectionFactoryImpl emailManagedConnectionFactory
+    EmailManagedConnectionFactoryImpl emailManagedConnectionFactory,
+    ObjectProvider<PooledConnectionManager> emailConnectionManager
   ) throws jakarta.resource.ResourceException {
-    return (jakarta.resource.cci.ConnectionFactory) emailManagedConnectionFactory.createConnectionFactory();
+    // С пулом SMTP-соединения переиспользуются, без него - новое соединение на каждый чек
+    PooledConnectionManager connectionManager =
+      emailConnectionManager.getIfAvailable();
+    return (jakarta.resource.cci.ConnectionFactory) (connectionManager != null
+        ? emailManagedConnectionFactory.createConnectionFactory(
+          connectionManager
+        )
+        : emailManagedConnectionFactory.createConnectionFactory());
+  }
+
+  @Bean(initMethod = "start", destroyMethod = "close")
+  @ConditionalOnProperty(name = "eis.cheque.async.enabled", havingValue = "true")
+  public ChequeDeliveryQueue chequeDeliveryQueue(
+    @Qualifier(
+      "emailConnectionFactory"
+    ) jakarta.resource.cci.ConnectionFactory emailConnectionFactory,
+    @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+    @Value("${eis.cheque.async.queue-capacity:10000}") int capacity,
+    @Value("${eis.cheque.async.workers:2}") int workers,
+    @Value("${eis.cheque.async.batch-size:50}") int batchSize,
+    ChequeFailureRecorder chequeFailureRecorder
+  ) {
+    return new ChequeDeliveryQueue(
+      emailConnectionFactory,
+      taskExecutor,
+      capacity,
+      workers,
+      batchSize,
+      chequeFailureRecorder::recordFailure
+    );
   }
 }
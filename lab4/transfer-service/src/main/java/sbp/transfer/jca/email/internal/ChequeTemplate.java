@@ -0,0 +1,161 @@
+package sbp.transfer.jca.email.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import sbp.dto.eis.ChequeDetailsDTO;
+
+/**
+ * Скомпилированный шаблон чека. Текст с плейсхолдерами {{name}} один раз разбирается
+ * на чередующиеся литералы и поля, рендеринг - только последовательные append без разбора
+ * и промежуточных строк. Для HTML-шаблонов значения экранируются.
+ */
+public final class ChequeTemplate {
+
+  // Буфер переиспользуется потоком; слишком разросшийся буфер не удерживаем
+  private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+  private static final ThreadLocal<StringBuilder> BUFFER =
+    ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+  enum Field {
+    TRANSACTION_ID("transactionId"),
+    DATE("date"),
+    SENDER("sender"),
+    RECIPIENT("recipient"),
+    AMOUNT("amount"),
+    DETAILS("details");
+
+    private final String placeholder;
+
+    Field(String placeholder) {
+      this.placeholder = placeholder;
+    }
+
+    static Field byPlaceholder(String placeholder) {
+      for (Field field : values()) {
+        if (field.placeholder.equals(placeholder)) {
+          return field;
+        }
+      }
+      throw new IllegalArgumentException(
+        "Unknown cheque template placeholder: {{" + placeholder + "}}"
+      );
+    }
+  }
+
+  private final String[] literals; // literals.length == fields.length + 1
+  private final Field[] fields;
+  private final boolean html;
+  private final int estimatedLength;
+
+  private ChequeTemplate(String[] literals, Field[] fields, boolean html) {
+    this.literals = literals;
+    this.fields = fields;
+    this.html = html;
+    int length = 0;
+    for (String literal : literals) {
+      length += literal.length();
+    }
+    this.estimatedLength = length + fields.length * 40;
+  }
+
+  public static ChequeTemplate compile(String source, boolean html) {
+    List<String> literals = new ArrayList<>();
+    List<Field> fields = new ArrayList<>();
+    int from = 0;
+    while (true) {
+      int open = source.indexOf("{{", from);
+      if (open < 0) {
+        break;
+      }
+      int close = source.indexOf("}}", open + 2);
+      if (close < 0) {
+        throw new IllegalArgumentException(
+          "Unclosed placeholder at position " + open
+        );
+      }
+      literals.add(source.substring(from, open));
+      fields.add(Field.byPlaceholder(source.substring(open + 2, close).trim()));
+      from = close + 2;
+    }
+    literals.add(source.substring(from));
+    return new ChequeTemplate(
+      literals.toArray(new String[0]),
+      fields.toArray(new Field[0]),
+      html
+    );
+  }
+
+  public boolean isHtml() {
+    return html;
+  }
+
+  /**
+   * Рендерит чек в переиспользуемый буфер потока; аллоцируется только итоговая строка.
+   */
+  public String render(ChequeDetailsDTO details) {
+    StringBuilder out = BUFFER.get();
+    out.setLength(0);
+    out.ensureCapacity(estimatedLength);
+    renderTo(details, out);
+    String result = out.toString();
+    if (out.capacity() > MAX_RETAINED_BUFFER) {
+      BUFFER.remove();
+    }
+    return result;
+  }
+
+  public void renderTo(ChequeDetailsDTO details, StringBuilder out) {
+    for (int i = 0; i < fields.length; i++) {
+      out.append(literals[i]);
+      appendField(fields[i], details, out);
+    }
+    out.append(literals[fields.length]);
+  }
+
+  private void appendField(
+    Field field,
+    ChequeDetailsDTO details,
+    StringBuilder out
+  ) {
+    switch (field) {
+      // UUID, дата и сумма не содержат спецсимволов HTML
+      case TRANSACTION_ID -> out.append(details.getTransactionId());
+      case DATE -> out.append(details.getTransactionTimestamp());
+      case AMOUNT -> out.append(details.getAmount());
+      case SENDER -> appendText(details.getSenderInfo(), out);
+      case RECIPIENT -> appendText(details.getRecipientInfo(), out);
+      case DETAILS -> appendText(details.getOperationDetails(), out);
+    }
+  }
+
+  private void appendText(String value, StringBuilder out) {
+    int first = html && value != null ? firstSpecialChar(value) : -1;
+    if (first < 0) {
+      out.append(value);
+      return;
+    }
+    out.append(value, 0, first);
+    for (int i = first; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '<' -> out.append("&lt;");
+        case '>' -> out.append("&gt;");
+        case '&' -> out.append("&amp;");
+        case '"' -> out.append("&quot;");
+        case '\'' -> out.append("&#39;");
+        default -> out.append(c);
+      }
+    }
+  }
+
+  // Обычно спецсимволов нет, и значение копируется целиком
+  private static int firstSpecialChar(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '<' || c == '>' || c == '&' || c == '"' || c == '\'') {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,147 @@
+package sbp.transfer.jca.email.internal;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import sbp.dto.eis.ChequeDetailsDTO;
+
+/**
+ * Набор шаблонов чека по языкам, загружается и компилируется один раз при старте
+ * из classpath:cheque-templates/cheque_{locale}.html (и .txt для текстовой альтернативы).
+ * <p>
+ * Без текстовой альтернативы тело письма - одна часть text/html, без multipart-обертки.
+ * С альтернативой - multipart/alternative из text/plain и text/html.
+ */
+public final class ChequeTemplates {
+
+  private static final String CHARSET = "UTF-8";
+  private static final String RESOURCE_PREFIX = "/cheque-templates/cheque_";
+
+  private static volatile ChequeTemplates defaults;
+
+  private final Map<String, ChequeTemplate> htmlTemplates;
+  private final Map<String, ChequeTemplate> textTemplates;
+  private final String defaultLocale;
+  private final boolean textAlternative;
+
+  private ChequeTemplates(
+    Map<String, ChequeTemplate> htmlTemplates,
+    Map<String, ChequeTemplate> textTemplates,
+    String defaultLocale,
+    boolean textAlternative
+  ) {
+    this.htmlTemplates = htmlTemplates;
+    this.textTemplates = textTemplates;
+    this.defaultLocale = defaultLocale;
+    this.textAlternative = textAlternative;
+  }
+
+  public static ChequeTemplates load(
+    List<String> locales,
+    String defaultLocale,
+    boolean textAlternative
+  ) {
+    if (!locales.contains(defaultLocale)) {
+      throw new IllegalArgumentException(
+        "Default cheque locale '" + defaultLocale + "' is not in " + locales
+      );
+    }
+    Map<String, ChequeTemplate> html = new HashMap<>();
+    Map<String, ChequeTemplate> text = new HashMap<>();
+    for (String locale : locales) {
+      html.put(
+        locale,
+        ChequeTemplate.compile(readResource(locale + ".html"), true)
+      );
+      if (textAlternative) {
+        text.put(
+          locale,
+          ChequeTemplate.compile(readResource(locale + ".txt"), false)
+        );
+      }
+    }
+    return new ChequeTemplates(
+      Map.copyOf(html),
+      Map.copyOf(text),
+      defaultLocale,
+      textAlternative
+    );
+  }
+
+  /**
+   * Английский HTML-шаблон без текстовой альтернативы - если коннектор не настроен явно.
+   */
+  public static ChequeTemplates defaults() {
+    ChequeTemplates result = defaults;
+    if (result == null) {
+      result = load(List.of("en"), "en", false);
+      defaults = result;
+    }
+    return result;
+  }
+
+  public ChequeTemplate html(String locale) {
+    return select(htmlTemplates, locale);
+  }
+
+  public ChequeTemplate text(String locale) {
+    return select(textTemplates, locale);
+  }
+
+  /**
+   * Рендерит чек на языке details.locale (или языке по умолчанию) прямо в тело письма.
+   */
+  public void writeContent(MimeMessage message, ChequeDetailsDTO details)
+    throws MessagingException {
+    String html = html(details.getLocale()).render(details);
+    if (!textAlternative) {
+      message.setText(html, CHARSET, "html");
+      return;
+    }
+    MimeBodyPart textPart = new MimeBodyPart();
+    textPart.setText(text(details.getLocale()).render(details), CHARSET);
+    MimeBodyPart htmlPart = new MimeBodyPart();
+    htmlPart.setText(html, CHARSET, "html");
+    // Порядок частей в multipart/alternative - от простой к предпочтительной
+    MimeMultipart alternative = new MimeMultipart("alternative");
+    alternative.addBodyPart(textPart);
+    alternative.addBodyPart(htmlPart);
+    message.setContent(alternative);
+  }
+
+  private ChequeTemplate select(
+    Map<String, ChequeTemplate> templates,
+    String locale
+  ) {
+    // Map.copyOf не допускает null-ключей даже при поиске
+    ChequeTemplate template = locale != null ? templates.get(locale) : null;
+    return template != null ? template : templates.get(defaultLocale);
+  }
+
+  private static String readResource(String name) {
+    try (
+      InputStream in = ChequeTemplates.class.getResourceAsStream(
+        RESOURCE_PREFIX + name
+      )
+    ) {
+      if (in == null) {
+        throw new IllegalStateException(
+          "Cheque template not found: " + RESOURCE_PREFIX + name
+        );
+      }
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new IllegalStateException(
+        "Failed to read cheque template " + name,
+        e
+      );
+    }
+  }
+}
@@ -1,5 +1,8 @@
 package sbp.transfer.jca.email.internal;
 
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 import jakarta.resource.NotSupportedException;
 import jakarta.resource.ResourceException;
@@ -7,43 +10,45 @@ import jakarta.resource.cci.ConnectionMetaData;
 import jakarta.resource.cci.Interaction;
 import jakarta.resource.cci.LocalTransaction;
 import jakarta.resource.cci.ResultSetInfo;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import sbp.dto.eis.ChequeDetailsDTO;
 import sbp.transfer.jca.email.EmailConnection;
+import sbp.transfer.jca.email.spi.EmailManagedConnectionImpl;
 
 @Slf4j
 public class EmailConnectionImpl implements EmailConnection {
 
-  private final JavaMailSender mailSender;
+  private final EmailManagedConnectionImpl managedConnection;
   private final String mailFrom;
+  private final ChequeTemplates chequeTemplates;
+  // Повторный close() не должен второй раз вернуть ManagedConnection в пул
+  private final AtomicBoolean closed = new AtomicBoolean();
 
-  public EmailConnectionImpl(JavaMailSender mailSender, String mailFrom) {
-    this.mailSender = mailSender;
+  public EmailConnectionImpl(
+    EmailManagedConnectionImpl managedConnection,
+    String mailFrom,
+    ChequeTemplates chequeTemplates
+  ) {
+    this.managedConnection = managedConnection;
     this.mailFrom = mailFrom;
+    this.chequeTemplates = chequeTemplates;
   }
 
   @Override
   public void sendElectronicCheque(ChequeDetailsDTO chequeDetails)
     throws ResourceException {
+    if (closed.get()) {
+      throw new ResourceException("EmailConnection is closed");
+    }
     log.debug(
       "EmailConnection: Sending electronic cheque for transaction ID: {}",
       chequeDetails.getTransactionId()
     );
     try {
-      MimeMessage mimeMessage = mailSender.createMimeMessage();
-      MimeMessageHelper helper = new MimeMessageHelper(
-        mimeMessage,
-        true,
-        "UTF-8"
-      );
-      helper.setFrom(mailFrom);
-      helper.setTo(chequeDetails.getRecipientEmail());
-      helper.setSubject(chequeDetails.getSubject());
-      String emailBody = buildChequeEmailBody(chequeDetails);
-      helper.setText(emailBody, true);
-      mailSender.send(mimeMessage);
+      MimeMessage mimeMessage = managedConnection.createMimeMessage();
+      writeChequeMessage(mimeMessage, chequeDetails);
+      managedConnection.send(mimeMessage);
       log.debug(
         "EmailConnection: Successfully sent electronic cheque to {} for transaction ID: {}",
         chequeDetails.getRecipientEmail(),
@@ -62,42 +67,30 @@ public class EmailConnectionImpl implements EmailConnection {
 
   @Override
   public void close() throws ResourceException {
-    log.debug(
-      "EmailConnection: close() called. No specific resources to release for JavaMailSender."
-    );
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+    // SMTP-соединение принадлежит ManagedConnection: вернется в пул или будет закрыто
+    if (managedConnection != null) {
+      managedConnection.connectionHandleClosed(this);
+    }
   }
 
-  private String buildChequeEmailBody(ChequeDetailsDTO details) {
-    StringBuilder sb = new StringBuilder();
-    sb.append("<html><body>");
-    sb.append("<h1>Electronic Cheque</h1>");
-    sb
-      .append("<p><strong>Transaction ID:</strong> ")
-      .append(details.getTransactionId())
-      .append("</p>");
-    sb
-      .append("<p><strong>Date:</strong> ")
-      .append(details.getTransactionTimestamp())
-      .append("</p>");
-    sb
-      .append("<p><strong>Sender:</strong> ")
-      .append(details.getSenderInfo())
-      .append("</p>");
-    sb
-      .append("<p><strong>Recipient:</strong> ")
-      .append(details.getRecipientInfo())
-      .append("</p>");
-    sb
-      .append("<p><strong>Amount:</strong> ")
-      .append(details.getAmount())
-      .append("</p>");
-    sb
-      .append("<p><strong>Details:</strong> ")
-      .append(details.getOperationDetails())
-      .append("</p>");
-    sb.append("<hr><p>Thank you for using SBP!</p>");
-    sb.append("</body></html>");
-    return sb.toString();
+  /**
+   * Заполняет письмо с чеком. Тело рендерится скомпилированным шаблоном сразу в MimeMessage:
+   * без вложений multipart не нужен, MimeMessageHelper не используется.
+   */
+  public void writeChequeMessage(
+    MimeMessage mimeMessage,
+    ChequeDetailsDTO chequeDetails
+  ) throws MessagingException {
+    mimeMessage.setFrom(new InternetAddress(mailFrom));
+    mimeMessage.setRecipient(
+      Message.RecipientType.TO,
+      new InternetAddress(chequeDetails.getRecipientEmail())
+    );
+    mimeMessage.setSubject(chequeDetails.getSubject(), "UTF-8");
+    chequeTemplates.writeContent(mimeMessage, chequeDetails);
   }
 
   // --- Реализация методов из jakarta.resource.cci.Connection ---
@@ -10,6 +10,7 @@ import java.util.Set;
 import javax.security.auth.Subject;
 import lombok.Getter;
 import lombok.Setter;
+import sbp.transfer.jca.email.internal.ChequeTemplates;
 
 @Setter
 @Getter
@@ -24,9 +25,16 @@ public class EmailManagedConnectionFactoryImpl
   private String password;
   private String mailFrom;
   private transient PrintWriter logWriter;
+  private transient ChequeTemplates chequeTemplates; // Компилируются один раз в EmailConnectorConfig
 
   public EmailManagedConnectionFactoryImpl() {}
 
+  public ChequeTemplates getChequeTemplates() {
+    return chequeTemplates != null
+      ? chequeTemplates
+      : ChequeTemplates.defaults();
+  }
+
   @Override
   public Object createConnectionFactory(ConnectionManager cxManager)
     throws ResourceException {
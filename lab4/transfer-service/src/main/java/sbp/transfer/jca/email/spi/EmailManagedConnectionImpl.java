@@ -1,42 +1,46 @@
 package sbp.transfer.jca.email.spi;
 
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
 import jakarta.resource.ResourceException;
+import jakarta.resource.spi.ConnectionEvent;
 import jakarta.resource.spi.ConnectionEventListener;
 import jakarta.resource.spi.ConnectionRequestInfo;
 import jakarta.resource.spi.LocalTransaction;
 import jakarta.resource.spi.ManagedConnection;
 import jakarta.resource.spi.ManagedConnectionMetaData;
 import java.io.PrintWriter;
-import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.security.auth.Subject;
 import javax.transaction.xa.XAResource;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
 import sbp.transfer.jca.email.internal.EmailConnectionImpl;
 
 public class EmailManagedConnectionImpl implements ManagedConnection {
 
   private final EmailManagedConnectionFactoryImpl mcf;
-  private JavaMailSender mailSender;
+  private final Session session;
+  private Transport transport; // Открывается при первой отправке и переиспользуется до destroy()
   private PrintWriter logWriter;
-  private final List<ConnectionEventListener> listeners = new ArrayList<>();
+  private final List<ConnectionEventListener> listeners =
+    new CopyOnWriteArrayList<>();
   private EmailConnectionImpl currentAppLevelConnectionHandle;
 
   public EmailManagedConnectionImpl(EmailManagedConnectionFactoryImpl mcf) {
     this.mcf = mcf;
-    JavaMailSenderImpl sender = new JavaMailSenderImpl();
-    sender.setHost(mcf.getHost());
-    sender.setPort(mcf.getPort());
-    if (mcf.getUsername() != null && !mcf.getUsername().isEmpty()) {
-      sender.setUsername(mcf.getUsername());
-      sender.setPassword(mcf.getPassword());
-      Properties props = sender.getJavaMailProperties();
+    Properties props = new Properties();
+    props.put("mail.smtp.host", mcf.getHost());
+    props.put("mail.smtp.port", String.valueOf(mcf.getPort()));
+    if (hasCredentials()) {
       props.put("mail.smtp.auth", "true");
       props.put("mail.smtp.starttls.enable", "true");
     }
-    this.mailSender = sender;
+    this.session = Session.getInstance(props);
   }
 
   @Override
@@ -50,15 +54,59 @@ public class EmailManagedConnectionImpl implements ManagedConnection {
       );
     }
     currentAppLevelConnectionHandle = new EmailConnectionImpl(
-      this.mailSender,
-      mcf.getMailFrom()
+      this,
+      mcf.getMailFrom(),
+      mcf.getChequeTemplates()
     );
     return currentAppLevelConnectionHandle;
   }
 
+  public MimeMessage createMimeMessage() {
+    return new MimeMessage(session);
+  }
+
+  /**
+   * Отправляет письмо через SMTP-соединение этого ManagedConnection. Соединение (connect, STARTTLS,
+   * AUTH) устанавливается один раз; если сервер его закрыл, выполняется одна попытка с новым.
+   */
+  public synchronized void send(MimeMessage message) throws MessagingException {
+    if (message.getSentDate() == null) {
+      message.setSentDate(new Date());
+    }
+    message.saveChanges();
+    try {
+      connectedTransport().sendMessage(message, message.getAllRecipients());
+    } catch (SendFailedException e) {
+      throw e; // Ошибка адресов, соединение исправно
+    } catch (MessagingException e) {
+      closeTransport();
+      connectedTransport().sendMessage(message, message.getAllRecipients());
+    }
+  }
+
+  /**
+   * Вызывается при закрытии клиентского handle. Без ConnectionManager (нет слушателей)
+   * соединение сразу закрывается, иначе менеджер возвращает его в пул.
+   */
+  public void connectionHandleClosed(EmailConnectionImpl handle) {
+    if (listeners.isEmpty()) {
+      closeTransport();
+      currentAppLevelConnectionHandle = null;
+      return;
+    }
+    ConnectionEvent event = new ConnectionEvent(
+      this,
+      ConnectionEvent.CONNECTION_CLOSED
+    );
+    event.setConnectionHandle(handle);
+    for (ConnectionEventListener listener : listeners) {
+      listener.connectionClosed(event);
+    }
+  }
+
   @Override
   public void destroy() throws ResourceException {
-    this.mailSender = null;
+    closeTransport();
   }
 
   @Override
@@ -126,6 +174,39 @@ public class EmailManagedConnectionImpl implements ManagedConnection {
     };
   }
 
+  private boolean hasCredentials() {
+    return mcf.getUsername() != null && !mcf.getUsername().isEmpty();
+  }
+
+  private Transport connectedTransport() throws MessagingException {
+    if (transport == null) {
+      Transport newTransport = session.getTransport("smtp");
+      if (hasCredentials()) {
+        newTransport.connect(
+          mcf.getHost(),
+          mcf.getPort(),
+          mcf.getUsername(),
+          mcf.getPassword()
+        );
+      } else {
+        newTransport.connect(mcf.getHost(), mcf.getPort(), null, null);
+      }
+      transport = newTransport;
+    }
+    return transport;
+  }
+
+  private synchronized void closeTransport() {
+    if (transport != null) {
+      try {
+        transport.close();
+      } catch (MessagingException e) {
+        // Соединение уже разорвано
+      }
+      transport = null;
+    }
+  }
+
   @Override
   public void setLogWriter(PrintWriter out) throws ResourceException {
     this.logWriter = out;
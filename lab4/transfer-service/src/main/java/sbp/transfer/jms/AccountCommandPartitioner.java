@@ -0,0 +1,34 @@
+package sbp.transfer.jms;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import sbp.dto.AccountMessageGroups;
+
+/**
+ * Вычисляет JMSXGroupID команд в account-service по номеру отправителя:
+ * ActiveMQ закрепляет группу за одним консьюмером, поэтому команды одного счета
+ * обрабатываются строго по порядку одним потоком.
+ */
+@Component
+public class AccountCommandPartitioner {
+
+  private final boolean enabled;
+  private final int partitions;
+
+  public AccountCommandPartitioner(
+    @Value("${sbp.account.partitioning.enabled:false}") boolean enabled,
+    @Value("${sbp.account.partitions:16}") int partitions
+  ) {
+    this.enabled = enabled;
+    this.partitions = partitions;
+  }
+
+  /**
+   * @return Идентификатор группы или null, если партиционирование выключено.
+   */
+  public String groupIdFor(String senderPhoneNumber) {
+    return enabled
+      ? AccountMessageGroups.groupIdFor(senderPhoneNumber, partitions)
+      : null;
+  }
+}
@@ -0,0 +1,39 @@
+package sbp.transfer.jms;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Component;
+import sbp.dto.AccountMessageGroups;
+
+/**
+ * Отправка напрямую через JmsTemplate: сообщение участвует в JTA-транзакции (XA).
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+  name = "transfer.messaging.mode",
+  havingValue = "direct",
+  matchIfMissing = true
+)
+public class DirectJmsMessagePublisher implements TransferMessagePublisher {
+
+  private final JmsTemplate jmsTemplate;
+
+  @Override
+  public void publish(
+    String destination,
+    Object payload,
+    String messageGroupId
+  ) {
+    jmsTemplate.convertAndSend(destination, payload, message -> {
+      if (messageGroupId != null) {
+        message.setStringProperty(
+          AccountMessageGroups.GROUP_ID_PROPERTY,
+          messageGroupId
+        );
+      }
+      return message;
+    });
+  }
+}
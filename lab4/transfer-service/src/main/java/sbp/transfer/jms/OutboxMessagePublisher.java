@@ -0,0 +1,59 @@
+package sbp.transfer.jms;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import sbp.transfer.entity.OutboxMessage;
+import sbp.transfer.repository.OutboxMessageRepository;
+
+/**
+ * Режим outbox: сообщение сохраняется в outbox_messages в той же транзакции, что и изменения Transfer.
+ * Транзакция обработчика затрагивает только БД, и Atomikos фиксирует ее однофазным коммитом.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "transfer.messaging.mode", havingValue = "outbox")
+public class OutboxMessagePublisher implements TransferMessagePublisher {
+
+  private final OutboxMessageRepository outboxMessageRepository;
+  private final ObjectMapper objectMapper;
+
+  public OutboxMessagePublisher(
+    OutboxMessageRepository outboxMessageRepository,
+    @Qualifier("objectMapperForJms") ObjectMapper objectMapper
+  ) {
+    this.outboxMessageRepository = outboxMessageRepository;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public void publish(
+    String destination,
+    Object payload,
+    String messageGroupId
+  ) {
+    try {
+      OutboxMessage message = outboxMessageRepository.save(
+        OutboxMessage.builder()
+          .destination(destination)
+          .payloadType(payload.getClass().getName())
+          .payload(objectMapper.writeValueAsString(payload))
+          .messageGroupId(messageGroupId)
+          .build()
+      );
+      log.debug(
+        "Outbox message {} stored for destination {}",
+        message.getId(),
+        destination
+      );
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException(
+        "Failed to serialize outbox payload " + payload.getClass().getName(),
+        e
+      );
+    }
+  }
+}
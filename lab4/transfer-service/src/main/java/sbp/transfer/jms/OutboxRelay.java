@@ -0,0 +1,199 @@
+package sbp.transfer.jms;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import sbp.dto.AccountMessageGroups;
+import sbp.transfer.entity.OutboxMessage;
+import sbp.transfer.repository.OutboxMessageRepository;
+
+/**
+ * Публикует сообщения outbox пачками. Выборка (FOR UPDATE SKIP LOCKED), отправка в брокер
+ * и отметка PUBLISHED выполняются одной JTA-транзакцией на пачку, поэтому сообщение
+ * не публикуется дважды, а стоимость двухфазного коммита делится на всю пачку.
+ * <p>
+ * Ошибка отправки откатывает всю пачку (XA-транзакция уже rollback-only), а попытка неудачного
+ * сообщения учитывается отдельной транзакцией после отката. Неудачные сообщения повторяются
+ * с экспоненциальной задержкой, после max-attempts помечаются FAILED и не блокируют остальные.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "transfer.messaging.mode", havingValue = "outbox")
+public class OutboxRelay {
+
+  // Идентификатор записи outbox передается в сообщении для дедупликации у получателя
+  public static final String OUTBOX_MESSAGE_ID_PROPERTY = "sbp_outbox_id";
+
+  private static final String DTO_PACKAGE_PREFIX = "sbp.dto.";
+
+  private final OutboxMessageRepository outboxMessageRepository;
+  private final JmsTemplate jmsTemplate;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${transfer.outbox.batch-size:100}")
+  private int batchSize;
+
+  @Value("${transfer.outbox.max-attempts:10}")
+  private int maxAttempts;
+
+  @Value("${transfer.outbox.retry-base-delay-ms:1000}")
+  private long retryBaseDelayMs;
+
+  @Value("${transfer.outbox.retry-max-delay-ms:300000}")
+  private long retryMaxDelayMs;
+
+  @Value("${transfer.outbox.retention-hours:24}")
+  private long retentionHours;
+
+  public OutboxRelay(
+    OutboxMessageRepository outboxMessageRepository,
+    JmsTemplate jmsTemplate,
+    @Qualifier("objectMapperForJms") ObjectMapper objectMapper,
+    PlatformTransactionManager transactionManager
+  ) {
+    this.outboxMessageRepository = outboxMessageRepository;
+    this.jmsTemplate = jmsTemplate;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @Scheduled(fixedDelayString = "${transfer.outbox.poll-interval-ms:200}")
+  public void relayBatch() {
+    FailedSend failed = transactionTemplate.execute(this::publishBatch);
+    if (failed != null) {
+      // Транзакция пачки откатана и блокировки сняты - попытку фиксируем отдельно,
+      // иначе она откатилась бы вместе с пачкой и сообщение повторялось бы бесконечно
+      transactionTemplate.executeWithoutResult(tx -> recordFailure(failed));
+    }
+  }
+
+  private FailedSend publishBatch(TransactionStatus tx) {
+    List<OutboxMessage> batch = outboxMessageRepository.lockNextBatch(
+      LocalDateTime.now(),
+      batchSize
+    );
+    if (batch.isEmpty()) {
+      return null;
+    }
+
+    for (OutboxMessage message : batch) {
+      try {
+        Object payload = deserialize(message);
+        jmsTemplate.convertAndSend(message.getDestination(), payload, jms -> {
+          jms.setStringProperty(
+            OUTBOX_MESSAGE_ID_PROPERTY,
+            message.getId().toString()
+          );
+          if (message.getMessageGroupId() != null) {
+            jms.setStringProperty(
+              AccountMessageGroups.GROUP_ID_PROPERTY,
+              message.getMessageGroupId()
+            );
+          }
+          return jms;
+        });
+        message.setStatus(OutboxMessage.Status.PUBLISHED);
+        message.setPublishedAt(LocalDateTime.now());
+      } catch (Exception e) {
+        // Уже отправленные сообщения пачки откатываются и уйдут следующим опросом
+        tx.setRollbackOnly();
+        return new FailedSend(message.getId(), e);
+      }
+    }
+    outboxMessageRepository.saveAll(batch);
+    log.info("Outbox relay published {} message(s)", batch.size());
+    return null;
+  }
+
+  private void recordFailure(FailedSend failed) {
+    outboxMessageRepository
+      .lockById(failed.messageId())
+      // Другая реплика могла уже опубликовать сообщение
+      .filter(message -> message.getStatus() == OutboxMessage.Status.PENDING)
+      .ifPresent(message -> {
+        scheduleRetry(message, failed.error());
+        outboxMessageRepository.save(message);
+      });
+  }
+
+  @Scheduled(cron = "${transfer.outbox.cleanup.cron:0 0 * * * ?}")
+  @Transactional
+  public void deletePublishedMessages() {
+    int deleted = outboxMessageRepository.deleteByStatusAndPublishedAtBefore(
+      OutboxMessage.Status.PUBLISHED,
+      LocalDateTime.now().minusHours(retentionHours)
+    );
+    if (deleted > 0) {
+      log.info("Outbox cleanup removed {} published message(s)", deleted);
+    }
+  }
+
+  private Object deserialize(OutboxMessage message) throws Exception {
+    // Десериализуем только DTO из common-dto
+    if (!message.getPayloadType().startsWith(DTO_PACKAGE_PREFIX)) {
+      throw new IllegalStateException(
+        "Unsupported outbox payload type: " + message.getPayloadType()
+      );
+    }
+    return objectMapper.readValue(
+      message.getPayload(),
+      Class.forName(message.getPayloadType())
+    );
+  }
+
+  private void scheduleRetry(OutboxMessage message, Exception e) {
+    int attempts = message.getAttempts() + 1;
+    message.setAttempts(attempts);
+    message.setLastError(truncate(e.getMessage()));
+    if (attempts >= maxAttempts) {
+      message.setStatus(OutboxMessage.Status.FAILED);
+      log.error(
+        "Outbox message {} to {} failed permanently after {} attempt(s): {}",
+        message.getId(),
+        message.getDestination(),
+        attempts,
+        e.getMessage(),
+        e
+      );
+      return;
+    }
+    long delayMs = Math.min(
+      retryMaxDelayMs,
+      retryBaseDelayMs * (1L << Math.min(attempts - 1, 20))
+    );
+    message.setNextAttemptAt(
+      LocalDateTime.now().plus(delayMs, ChronoUnit.MILLIS)
+    );
+    log.warn(
+      "Outbox message {} to {} failed (attempt {}), retry in {} ms: {}",
+      message.getId(),
+      message.getDestination(),
+      attempts,
+      delayMs,
+      e.getMessage()
+    );
+  }
+
+  private record FailedSend(UUID messageId, Exception error) {}
+
+  private String truncate(String value) {
+    if (value == null) {
+      return null;
+    }
+    return value.length() > 1000 ? value.substring(0, 1000) : value;
+  }
+}
@@ -1,11 +1,16 @@
 package sbp.transfer.jms;
 
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jms.annotation.JmsListener;
+import org.springframework.jms.support.JmsHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 import sbp.dto.JmsQueueNames;
+import sbp.dto.inbox.MessageInbox;
 import sbp.dto.jms.ConfirmationCodeSentEvent;
 import sbp.dto.jms.FundsProcessedEvent;
 import sbp.transfer.service.TransferOrchestrationService;
@@ -16,17 +21,36 @@ import sbp.transfer.service.TransferOrchestrationService;
 public class TransferEventListener {
 
   private final TransferOrchestrationService transferOrchestrationService;
+  private final MessageInbox messageInbox;
 
   @JmsListener(
     destination = JmsQueueNames.TRANSFER_PROCESS_EIS_CMD_QUEUE,
     containerFactory = "jmsListenerContainerFactory"
   )
-  public void onFundsProcessed(@Payload FundsProcessedEvent event) {
+  public void onFundsProcessed(
+    @Payload FundsProcessedEvent event,
+    @Header(JmsHeaders.MESSAGE_ID) String messageId
+  ) {
     log.info(
       "Listener received FundsProcessedEvent for correlationId: {}",
       event.getCorrelationId()
     );
     try {
+      // По одному переводу приходит несколько FundsProcessedEvent (резерв, списание),
+      // поэтому повторную доставку определяем по JMSMessageID, а не по correlationId
+      if (
+        !messageInbox.tryAcquire(
+          FundsProcessedEvent.class.getSimpleName(),
+          UUID.nameUUIDFromBytes(messageId.getBytes(StandardCharsets.UTF_8))
+        )
+      ) {
+        log.warn(
+          "Listener skipped duplicate FundsProcessedEvent {} for correlationId: {}",
+          messageId,
+          event.getCorrelationId()
+        );
+        return;
+      }
       transferOrchestrationService.handleAccountFundsProcessedResponse(event);
       log.info(
         "Listener successfully processed FundsProcessedEvent for correlationId: {}",
@@ -56,6 +80,18 @@ public class TransferEventListener {
       event.getCorrelationId()
     );
     try {
+      if (
+        !messageInbox.tryAcquire(
+          ConfirmationCodeSentEvent.class.getSimpleName(),
+          event.getCorrelationId()
+        )
+      ) {
+        log.warn(
+          "Listener skipped duplicate ConfirmationCodeSentEvent for correlationId: {}",
+          event.getCorrelationId()
+        );
+        return;
+      }
       transferOrchestrationService.handleConfirmationCodeSent(event);
       log.info(
         "Listener successfully processed ConfirmationCodeSentEvent for correlationId: {}",
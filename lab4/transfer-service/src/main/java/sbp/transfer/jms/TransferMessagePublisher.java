@@ -0,0 +1,22 @@
+package sbp.transfer.jms;
+
+public interface TransferMessagePublisher {
+  /**
+   * Публикует сообщение в очередь в рамках текущей транзакции.
+   *
+   * @param destination Имя очереди.
+   * @param payload DTO сообщения.
+   */
+  default void publish(String destination, Object payload) {
+    publish(destination, payload, null);
+  }
+
+  /**
+   * Публикует сообщение в очередь в рамках текущей транзакции.
+   *
+   * @param destination Имя очереди.
+   * @param payload DTO сообщения.
+   * @param messageGroupId JMSXGroupID или null.
+   */
+  void publish(String destination, Object payload, String messageGroupId);
+}
@@ -0,0 +1,38 @@
+package sbp.transfer.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import sbp.transfer.entity.ChequeDeliveryJob;
+
+@Repository
+public interface ChequeDeliveryJobRepository
+  extends JpaRepository<ChequeDeliveryJob, UUID> {
+  // Ожидающие задания и задания с истекшей арендой (воркер упал посреди отправки).
+  // Выборка идет по индексу (status, next_attempt_at), SKIP LOCKED разводит реплики
+  @Query(
+    value = "SELECT * FROM cheque_delivery_jobs WHERE status IN ('PENDING', 'IN_PROGRESS') " +
+    "AND next_attempt_at <= :now ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+    nativeQuery = true
+  )
+  List<ChequeDeliveryJob> lockNextBatch(
+    @Param("now") LocalDateTime now,
+    @Param("limit") int limit
+  );
+
+  long countByStatus(ChequeDeliveryJob.Status status);
+
+  @Modifying
+  @Query(
+    "DELETE FROM ChequeDeliveryJob j WHERE j.status = :status AND j.sentAt < :cutoff"
+  )
+  int deleteByStatusAndSentAtBefore(
+    @Param("status") ChequeDeliveryJob.Status status,
+    @Param("cutoff") LocalDateTime cutoff
+  );
+}
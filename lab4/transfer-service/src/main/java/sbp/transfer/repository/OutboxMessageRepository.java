@@ -0,0 +1,43 @@
+package sbp.transfer.repository;
+
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import sbp.transfer.entity.OutboxMessage;
+
+@Repository
+public interface OutboxMessageRepository
+  extends JpaRepository<OutboxMessage, UUID> {
+  // SKIP LOCKED: несколько реплик relay разбирают разные сообщения без ожидания блокировок
+  @Query(
+    value = "SELECT * FROM outbox_messages WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+    "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+    nativeQuery = true
+  )
+  List<OutboxMessage> lockNextBatch(
+    @Param("now") LocalDateTime now,
+    @Param("limit") int limit
+  );
+
+  // Учет неудачной попытки после отката транзакции пачки: ждем, пока другая реплика отпустит строку
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT m FROM OutboxMessage m WHERE m.id = :id")
+  Optional<OutboxMessage> lockById(@Param("id") UUID id);
+
+  @Modifying
+  @Query(
+    "DELETE FROM OutboxMessage m WHERE m.status = :status AND m.publishedAt < :cutoff"
+  )
+  int deleteByStatusAndPublishedAtBefore(
+    @Param("status") OutboxMessage.Status status,
+    @Param("cutoff") LocalDateTime cutoff
+  );
+}
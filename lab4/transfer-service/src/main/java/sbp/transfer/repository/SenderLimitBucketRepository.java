@@ -0,0 +1,60 @@
+package sbp.transfer.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import sbp.transfer.entity.SenderLimitBucket;
+
+@Repository
+public interface SenderLimitBucketRepository
+  extends JpaRepository<SenderLimitBucket, SenderLimitBucket.Key> {
+  // Блокировка отправителя до конца транзакции: проверки его лимита на всех репликах идут по очереди
+  @Query(
+    value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext(:senderPhoneNumber))",
+    nativeQuery = true
+  )
+  int lockSender(@Param("senderPhoneNumber") String senderPhoneNumber);
+
+  // Приращение счетчика, только если сумма окна с ним не превысит лимит; 0 - лимит превышен
+  @Modifying
+  @Query(
+    value = "INSERT INTO sender_limit_buckets (sender_phone_number, bucket_start, amount) " +
+    "SELECT :senderPhoneNumber, :bucketStart, :amount " +
+    "WHERE (SELECT COALESCE(SUM(b.amount), 0) FROM sender_limit_buckets b " +
+    "WHERE b.sender_phone_number = :senderPhoneNumber AND b.bucket_start >= :windowStart) " +
+    "+ :amount <= :limit " +
+    "ON CONFLICT (sender_phone_number, bucket_start) " +
+    "DO UPDATE SET amount = sender_limit_buckets.amount + EXCLUDED.amount",
+    nativeQuery = true
+  )
+  int addAmountWithinLimit(
+    @Param("senderPhoneNumber") String senderPhoneNumber,
+    @Param("bucketStart") LocalDateTime bucketStart,
+    @Param("windowStart") LocalDateTime windowStart,
+    @Param("amount") BigDecimal amount,
+    @Param("limit") BigDecimal limit
+  );
+
+  // Атомарное приращение счетчика: параллельные реплики не теряют обновления
+  @Modifying
+  @Query(
+    value = "INSERT INTO sender_limit_buckets (sender_phone_number, bucket_start, amount) " +
+    "VALUES (:senderPhoneNumber, :bucketStart, :delta) " +
+    "ON CONFLICT (sender_phone_number, bucket_start) " +
+    "DO UPDATE SET amount = sender_limit_buckets.amount + EXCLUDED.amount",
+    nativeQuery = true
+  )
+  int addAmount(
+    @Param("senderPhoneNumber") String senderPhoneNumber,
+    @Param("bucketStart") LocalDateTime bucketStart,
+    @Param("delta") BigDecimal delta
+  );
+
+  @Modifying
+  @Query("DELETE FROM SenderLimitBucket b WHERE b.bucketStart < :cutoff")
+  int deleteByBucketStartBefore(@Param("cutoff") LocalDateTime cutoff);
+}
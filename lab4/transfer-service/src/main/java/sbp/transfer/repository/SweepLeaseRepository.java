@@ -0,0 +1,18 @@
+package sbp.transfer.repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import sbp.transfer.entity.SweepLease;
+
+@Repository
+public interface SweepLeaseRepository
+  extends JpaRepository<SweepLease, Integer> {
+  // Перераспределение бакетов сериализуется блокировкой всех строк аренды (их единицы-десятки)
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT l FROM SweepLease l ORDER BY l.bucket")
+  List<SweepLease> lockAll();
+}
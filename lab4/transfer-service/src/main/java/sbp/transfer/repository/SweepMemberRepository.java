@@ -0,0 +1,19 @@
+package sbp.transfer.repository;
+
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import sbp.transfer.entity.SweepMember;
+
+@Repository
+public interface SweepMemberRepository
+  extends JpaRepository<SweepMember, String> {
+  long countByHeartbeatAtAfter(LocalDateTime cutoff);
+
+  @Modifying
+  @Query("DELETE FROM SweepMember m WHERE m.heartbeatAt < :cutoff")
+  int deleteByHeartbeatAtBefore(@Param("cutoff") LocalDateTime cutoff);
+}
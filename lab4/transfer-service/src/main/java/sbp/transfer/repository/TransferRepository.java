@@ -1,37 +1,127 @@
 package sbp.transfer.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import sbp.dto.enums.TransferStatus;
+import sbp.dto.rest.TransferSummary;
 import sbp.transfer.entity.Transfer;
 
 @Repository
 public interface TransferRepository extends JpaRepository<Transfer, UUID> {
   Optional<Transfer> findByCorrelationId(UUID correlationId);
 
-  List<Transfer> findByStatusAndCreatedAtBefore(
-    TransferStatus status,
-    LocalDateTime timeoutTime
+  @Query(
+    "SELECT new sbp.dto.rest.TransferSummary(t.id, t.correlationId, t.senderPhoneNumber, " +
+    "t.recipientPhoneNumber, t.recipientBankId, t.amount, t.status, t.failureReason, " +
+    "t.createdAt, t.updatedAt) FROM Transfer t WHERE t.id = :id"
+  )
+  Optional<TransferSummary> findSummaryById(@Param("id") UUID id);
+
+  // Страница истории отправителя: createdAt >= :from и (createdAt, id) < курсора, от новых к старым.
+  // Диапазон индекса (sender_phone_number, created_at, id) читается с курсора ровно на размер страницы
+  @Query(
+    "SELECT new sbp.dto.rest.TransferSummary(t.id, t.correlationId, t.senderPhoneNumber, " +
+    "t.recipientPhoneNumber, t.recipientBankId, t.amount, t.status, t.failureReason, " +
+    "t.createdAt, t.updatedAt) FROM Transfer t WHERE t.senderPhoneNumber = :sender " +
+    "AND t.createdAt >= :from AND (t.createdAt, t.id) < (:beforeCreatedAt, :beforeId) " +
+    "ORDER BY t.createdAt DESC, t.id DESC"
+  )
+  List<TransferSummary> findHistoryPage(
+    @Param("sender") String senderPhoneNumber,
+    @Param("from") LocalDateTime from,
+    @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+    @Param("beforeId") UUID beforeId,
+    Pageable page
   );
 
+  // То же с фильтром по статусу - по индексу (sender_phone_number, status, created_at, id)
   @Query(
-    "SELECT t FROM Transfer t WHERE t.status IN :statuses AND t.updatedAt < :cutOffTime"
+    "SELECT new sbp.dto.rest.TransferSummary(t.id, t.correlationId, t.senderPhoneNumber, " +
+    "t.recipientPhoneNumber, t.recipientBankId, t.amount, t.status, t.failureReason, " +
+    "t.createdAt, t.updatedAt) FROM Transfer t WHERE t.senderPhoneNumber = :sender " +
+    "AND t.status = :status AND t.createdAt >= :from " +
+    "AND (t.createdAt, t.id) < (:beforeCreatedAt, :beforeId) " +
+    "ORDER BY t.createdAt DESC, t.id DESC"
   )
-  List<Transfer> findByStatusInAndUpdatedAtBefore(
-    @Param("statuses") List<TransferStatus> statuses,
-    @Param("cutOffTime") LocalDateTime cutOffTime
+  List<TransferSummary> findHistoryPageByStatus(
+    @Param("sender") String senderPhoneNumber,
+    @Param("status") TransferStatus status,
+    @Param("from") LocalDateTime from,
+    @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+    @Param("beforeId") UUID beforeId,
+    Pageable page
   );
 
+  // Страница просроченных переводов после курсора (createdAt, id) по индексу (status, created_at, id).
+  // Только бакеты :buckets из :bucketCount (см. SweepLeaseManager.bucketOf; без шардирования - 1 и [0]).
+  // Строки блокируются до конца порции; занятые параллельной обработкой пропускаются
   @Query(
-    "SELECT t FROM Transfer t WHERE t.status IN :statuses AND t.createdAt < :cutOffTime"
+    value = "SELECT * FROM transfers WHERE status = :status AND created_at < :cutoff " +
+    "AND (created_at, id) > (:afterCreatedAt, :afterId) " +
+    "AND get_byte(uuid_send(correlation_id), 15) % :bucketCount IN (:buckets) " +
+    "ORDER BY created_at, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+    nativeQuery = true
   )
-  List<Transfer> findByStatusInAndCreatedAtBefore(
+  List<Transfer> lockExpiredPage(
+    @Param("status") String status,
+    @Param("cutoff") LocalDateTime cutoff,
+    @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+    @Param("afterId") UUID afterId,
+    @Param("bucketCount") int bucketCount,
+    @Param("buckets") Collection<Integer> buckets,
+    @Param("limit") int limit
+  );
+
+  // Переводы, чей срок подтверждения истек по колесу таймеров; занятые параллельной обработкой пропускаются
+  @Query(
+    value = "SELECT * FROM transfers WHERE id IN (:ids) AND status = :status " +
+    "AND created_at < :cutoff FOR UPDATE SKIP LOCKED",
+    nativeQuery = true
+  )
+  List<Transfer> lockExpiredByIds(
+    @Param("ids") Collection<UUID> ids,
+    @Param("status") String status,
+    @Param("cutoff") LocalDateTime cutoff
+  );
+
+  // (id, created_at) ожидающих переводов страницами по курсору - для загрузки сроков при старте
+  @Query(
+    value = "SELECT id, created_at FROM transfers WHERE status = :status " +
+    "AND (created_at, id) > (:afterCreatedAt, :afterId) ORDER BY created_at, id LIMIT :limit",
+    nativeQuery = true
+  )
+  List<Object[]> findCreatedAtPage(
+    @Param("status") String status,
+    @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+    @Param("afterId") UUID afterId,
+    @Param("limit") int limit
+  );
+
+  @Modifying(clearAutomatically = true)
+  @Query(
+    "UPDATE Transfer t SET t.status = :newStatus, t.failureReason = :reason, " +
+    "t.updatedAt = :now, t.version = t.version + 1 WHERE t.id IN :ids"
+  )
+  int updateStatus(
+    @Param("ids") List<UUID> ids,
+    @Param("newStatus") TransferStatus newStatus,
+    @Param("reason") String reason,
+    @Param("now") LocalDateTime now
+  );
+
+  @Query(
+    "SELECT t FROM Transfer t WHERE t.status IN :statuses AND t.updatedAt < :cutOffTime"
+  )
+  List<Transfer> findByStatusInAndUpdatedAtBefore(
     @Param("statuses") List<TransferStatus> statuses,
     @Param("cutOffTime") LocalDateTime cutOffTime
   );
@@ -0,0 +1,163 @@
+package sbp.transfer.scheduled;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sbp.dto.enums.TransferStatus;
+import sbp.transfer.repository.TransferRepository;
+
+/**
+ * Сроки подтверждения переводов в колесе таймеров вместо периодического сканирования таблицы.
+ * При старте загружает сроки всех AWAITING_CONFIRMATION, дальше пополняется обработчиками саги
+ * (постановка при переходе в AWAITING_CONFIRMATION, отмена при подтверждении - после фиксации
+ * транзакции, так что откат перехода колесо не меняет). Каждый шаг
+ * колеса переводит в TIMEOUT переводы с наступившим сроком - с точностью до tick-ms.
+ * Плановая очистка в ScheduledTransferTasks остается страховкой.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(
+  name = "scheduler.confirmation.timer-wheel.enabled",
+  havingValue = "true"
+)
+public class ConfirmationTimeoutScheduler {
+
+  private static final LocalDateTime LOAD_START_CREATED_AT =
+    LocalDateTime.of(1970, 1, 1, 0, 0);
+  private static final UUID LOAD_START_ID = new UUID(0L, 0L);
+
+  private final TransferRepository transferRepository;
+  private final ScheduledTransferTasks scheduledTransferTasks;
+  private final TransactionTemplate transactionTemplate;
+  private final TimerWheel<UUID> wheel;
+
+  @Value("${scheduler.confirmation.timeout-minutes:15}")
+  private long confirmationTimeoutMinutes;
+
+  @Value("${scheduler.sweep.chunk-size:500}")
+  private int chunkSize;
+
+  public ConfirmationTimeoutScheduler(
+    TransferRepository transferRepository,
+    ScheduledTransferTasks scheduledTransferTasks,
+    PlatformTransactionManager transactionManager,
+    @Value("${scheduler.confirmation.timer-wheel.tick-ms:1000}") long tickMillis
+  ) {
+    this.transferRepository = transferRepository;
+    this.scheduledTransferTasks = scheduledTransferTasks;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.wheel = new TimerWheel<>(tickMillis, 3, System.currentTimeMillis());
+  }
+
+  /**
+   * Ставит срок подтверждения перевода: createdAt + scheduler.confirmation.timeout-minutes.
+   */
+  public void schedule(UUID transferId, LocalDateTime createdAt) {
+    long deadlineMillis = toEpochMillis(
+      createdAt.plusMinutes(confirmationTimeoutMinutes)
+    );
+    afterCommit(() -> wheel.schedule(transferId, deadlineMillis));
+  }
+
+  public void cancel(UUID transferId) {
+    afterCommit(() -> wheel.cancel(transferId));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadPendingDeadlines() {
+    LocalDateTime afterCreatedAt = LOAD_START_CREATED_AT;
+    UUID afterId = LOAD_START_ID;
+    int loaded = 0;
+    while (true) {
+      LocalDateTime pageAfterCreatedAt = afterCreatedAt;
+      UUID pageAfterId = afterId;
+      // Соединения Atomikos выдаются только внутри JTA-транзакции
+      List<Object[]> page = transactionTemplate.execute(status ->
+        transferRepository.findCreatedAtPage(
+          TransferStatus.AWAITING_CONFIRMATION.name(),
+          pageAfterCreatedAt,
+          pageAfterId,
+          chunkSize
+        )
+      );
+      if (page == null || page.isEmpty()) {
+        break;
+      }
+      for (Object[] row : page) {
+        afterId = (UUID) row[0];
+        afterCreatedAt = toLocalDateTime(row[1]);
+        schedule(afterId, afterCreatedAt);
+      }
+      loaded += page.size();
+      if (page.size() < chunkSize) {
+        break;
+      }
+    }
+    log.info(
+      "Confirmation timer wheel loaded {} AWAITING_CONFIRMATION deadline(s)",
+      loaded
+    );
+  }
+
+  @Scheduled(
+    fixedRateString = "${scheduler.confirmation.timer-wheel.tick-ms:1000}"
+  )
+  public void tick() {
+    List<UUID> expired = wheel.advance(System.currentTimeMillis());
+    for (int from = 0; from < expired.size(); from += chunkSize) {
+      List<UUID> chunk = expired.subList(
+        from,
+        Math.min(from + chunkSize, expired.size())
+      );
+      try {
+        scheduledTransferTasks.expireAwaitingConfirmation(chunk);
+      } catch (Exception e) {
+        // Сроки не теряются: перевод остается AWAITING_CONFIRMATION и будет закрыт плановой очисткой
+        log.error(
+          "Failed to expire {} transfer(s) by confirmation timeout: {}",
+          chunk.size(),
+          e.getMessage(),
+          e
+        );
+      }
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+      new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      }
+    );
+  }
+
+  private static long toEpochMillis(LocalDateTime dateTime) {
+    return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  private static LocalDateTime toLocalDateTime(Object value) {
+    return value instanceof Timestamp timestamp
+      ? timestamp.toLocalDateTime()
+      : (LocalDateTime) value;
+  }
+}
@@ -3,30 +3,46 @@ package sbp.transfer.scheduled;
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.jms.core.JmsTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import sbp.dto.JmsQueueNames;
 import sbp.dto.enums.TransferStatus;
 import sbp.dto.jms.ReleaseFundsCommand;
 import sbp.dto.jms.SendFailureNotificationCommand;
 import sbp.dto.jms.SendSuccessNotificationCommand;
 import sbp.transfer.entity.Transfer;
+import sbp.transfer.jms.AccountCommandPartitioner;
+import sbp.transfer.jms.TransferMessagePublisher;
 import sbp.transfer.repository.TransferRepository;
+import sbp.transfer.service.limit.SenderLimitService;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ScheduledTransferTasks {
 
+  // Начальный курсор обхода: раньше любых created_at и меньше любого UUID
+  private static final LocalDateTime SWEEP_START_CREATED_AT =
+    LocalDateTime.of(1970, 1, 1, 0, 0);
+  private static final UUID SWEEP_START_ID = new UUID(0L, 0L);
+  private static final List<Integer> UNSHARDED_BUCKETS = List.of(0);
+
   private final TransferRepository transferRepository;
-  private final JmsTemplate jmsTemplate;
+  private final TransferMessagePublisher messagePublisher;
+  private final AccountCommandPartitioner accountCommandPartitioner;
+  private final PlatformTransactionManager transactionManager;
+  private final ObjectProvider<SweepLeaseManager> sweepLeases;
+  private final ObjectProvider<SenderLimitService> senderLimits;
 
   @Value("${scheduler.confirmation.timeout-minutes:15}")
   private long confirmationTimeoutMinutes;
@@ -35,11 +51,19 @@ public class ScheduledTransferTasks {
   @Value("${scheduler.processing.general-timeout-minutes:5}")
   private long generalProcessingTimeoutMinutes;
 
-  // Крон для очистки AWAITING_CONFIRMATION
+  // Строк в одной транзакции обхода
+  @Value("${scheduler.sweep.chunk-size:500}")
+  private int sweepChunkSize;
+
+  // Предел строк за один запуск задачи
+  @Value("${scheduler.sweep.max-rows-per-run:10000}")
+  private int sweepMaxRowsPerRun;
+
+  // Крон для очистки AWAITING_CONFIRMATION. С колесом таймеров (ConfirmationTimeoutScheduler)
+  // остается страховкой для пропущенных сроков и может запускаться редко
   @Scheduled(
     cron = "${scheduler.cleanup.awaiting-confirmation.cron:0 */5 * * * ?}"
   ) // Каждые 5 минут
-  @Transactional(Transactional.TxType.REQUIRED)
   public void cleanupAwaitingConfirmationTransfers() {
     LocalDateTime timeoutThreshold = LocalDateTime.now()
       .minusMinutes(confirmationTimeoutMinutes);
@@ -48,182 +72,302 @@ public class ScheduledTransferTasks {
       timeoutThreshold
     );
 
-    List<Transfer> timedOutTransfers =
-      transferRepository.findByStatusAndCreatedAtBefore(
-        TransferStatus.AWAITING_CONFIRMATION,
-        timeoutThreshold
-      );
+    int processed = sweep(
+      TransferStatus.AWAITING_CONFIRMATION,
+      timeoutThreshold,
+      sweepMaxRowsPerRun,
+      TransferStatus.TIMEOUT,
+      confirmationTimeoutReason(),
+      this::releaseTimedOutReservation
+    );
 
-    if (timedOutTransfers.isEmpty()) {
+    if (processed == 0) {
       log.info(
         "Scheduler: No AWAITING_CONFIRMATION transfers found for cleanup."
       );
       return;
     }
     log.info(
-      "Scheduled task: Found {} AWAITING_CONFIRMATION transfers to process for timeout.",
-      timedOutTransfers.size()
-    );
-
-    for (Transfer transfer : timedOutTransfers) {
-      log.warn(
-        "[{}] Transfer (DB ID: {}) in AWAITING_CONFIRMATION timed out. Created at: {}",
-        transfer.getCorrelationId(),
-        transfer.getId(),
-        transfer.getCreatedAt()
-      );
-
-      transfer.setStatus(TransferStatus.TIMEOUT);
-      transfer.setFailureReason(
-        "Confirmation timed out after " +
-        confirmationTimeoutMinutes +
-        " minutes."
-      );
-
-      ReleaseFundsCommand releaseCmd = ReleaseFundsCommand.builder()
-        .correlationId(transfer.getCorrelationId())
-        .senderPhoneNumber(transfer.getSenderPhoneNumber())
-        .amount(transfer.getAmount())
-        .isFinalDebit(false)
-        .build();
-      try {
-        jmsTemplate.convertAndSend(
-          JmsQueueNames.ACCOUNT_RELEASE_FUNDS_CMD_QUEUE,
-          releaseCmd
-        );
-        log.info(
-          "[{}] Sent ReleaseFundsCommand for timed out transfer (DB ID: {}).",
-          transfer.getCorrelationId(),
-          transfer.getId()
-        );
-      } catch (Exception e) {
-        log.error(
-          "[{}] Failed to send ReleaseFundsCommand for timed out transfer (DB ID: {}): {}. Transaction will be rolled back.",
-          transfer.getCorrelationId(),
-          transfer.getId(),
-          e.getMessage(),
-          e
-        );
-        throw new RuntimeException(
-          "Failed to send ReleaseFundsCommand for transfer " + transfer.getId(),
-          e
-        );
-      }
-
-      sendFailureNotification(
-        transfer.getCorrelationId(),
-        transfer.getSenderPhoneNumber(),
-        transfer.getAmount(),
-        transfer.getFailureReason()
-      );
-
-      transferRepository.save(transfer);
-      log.info(
-        "[{}] Transfer (DB ID: {}) status updated to TIMEOUT and saved.",
-        transfer.getCorrelationId(),
-        transfer.getId()
-      );
-    }
-    log.info(
-      "Scheduler: Finished cleaning up AWAITING_CONFIRMATION transfers."
+      "Scheduler: Finished cleaning up AWAITING_CONFIRMATION transfers, {} timed out.",
+      processed
     );
   }
 
   // Метод для обработки других "зависших" статусов
   // Запускается, например, каждые 2 минуты
   @Scheduled(cron = "${scheduler.cleanup.processing.cron:0 */2 * * * ?}")
-  @Transactional(Transactional.TxType.REQUIRED)
   public void cleanupStuckProcessingTransfers() {
     LocalDateTime timeoutThreshold = LocalDateTime.now()
       .minusMinutes(generalProcessingTimeoutMinutes);
-    List<TransferStatus> stuckStatuses = Arrays.asList(
+
+    // Каждый статус обходится отдельно: свой диапазон индекса и свой целевой статус
+    int processed = sweep(
       TransferStatus.PROCESSING_RESERVATION,
+      timeoutThreshold,
+      sweepMaxRowsPerRun,
+      TransferStatus.FAILED, // Общий FAILED
+      stuckReason(TransferStatus.PROCESSING_RESERVATION),
+      this::notifyProcessingFailure
+    );
+    processed += sweep(
       TransferStatus.PROCESSING_FUNDS,
-      TransferStatus.PROCESSING_EIS
+      timeoutThreshold,
+      sweepMaxRowsPerRun - processed,
+      TransferStatus.FUNDS_TRANSFER_FAILED,
+      stuckReason(TransferStatus.PROCESSING_FUNDS),
+      this::notifyProcessingFailure
+    );
+    processed += sweep(
+      TransferStatus.PROCESSING_EIS,
+      timeoutThreshold,
+      sweepMaxRowsPerRun - processed,
+      TransferStatus.EIS_ERROR,
+      stuckReason(TransferStatus.PROCESSING_EIS),
+      // Для EIS_ERROR по таймауту, всё равно считаем основной перевод успешным
+      (transfer, reason) ->
+        sendSuccessNotification(
+          transfer.getCorrelationId(),
+          transfer.getSenderPhoneNumber(),
+          transfer.getAmount(),
+          transfer.getRecipientPhoneNumber() +
+          " (Bank: " +
+          transfer.getRecipientBankId() +
+          ")"
+        )
     );
 
-    List<Transfer> stuckTransfers =
-      transferRepository.findByStatusInAndCreatedAtBefore(
-        stuckStatuses,
-        timeoutThreshold
-      );
-    if (stuckTransfers.isEmpty()) {
+    if (processed == 0) {
       log.info(
         "Scheduler: No stuck processing transfers (PROCESSING_RESERVATION, PROCESSING_FUNDS, PROCESSING_EIS) found for cleanup using general timeout."
       );
       return;
     }
+    log.info(
+      "Scheduler: Handled {} transfers stuck in processing states.",
+      processed
+    );
+  }
+
+  /**
+   * Обходит переводы в статусе status, созданные раньше cutoff, порциями по chunk-size
+   * с курсором (createdAt, id) - без OFFSET и без загрузки всей выборки. Каждая порция -
+   * отдельная транзакция: блокировка страницы, массовая смена статуса и отправка сообщений.
+   * За один запуск обрабатывается не больше maxRows строк, остаток - в следующий запуск.
+   *
+   * @return число переведенных в newStatus строк
+   */
+  private int sweep(
+    TransferStatus status,
+    LocalDateTime cutoff,
+    int maxRows,
+    TransferStatus newStatus,
+    String reason,
+    BiConsumer<Transfer, String> onTimedOut
+  ) {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(
+      transactionManager
+    );
+    LocalDateTime afterCreatedAt = SWEEP_START_CREATED_AT;
+    UUID afterId = SWEEP_START_ID;
+    int processed = 0;
+    while (processed < maxRows) {
+      int limit = Math.min(sweepChunkSize, maxRows - processed);
+      LocalDateTime chunkAfterCreatedAt = afterCreatedAt;
+      UUID chunkAfterId = afterId;
+      List<Transfer> chunk = transactionTemplate.execute(txStatus ->
+        sweepChunk(
+          status,
+          cutoff,
+          chunkAfterCreatedAt,
+          chunkAfterId,
+          limit,
+          newStatus,
+          reason,
+          onTimedOut
+        )
+      );
+      if (chunk == null || chunk.isEmpty()) {
+        return processed;
+      }
+      processed += chunk.size();
+      Transfer last = chunk.get(chunk.size() - 1);
+      afterCreatedAt = last.getCreatedAt();
+      afterId = last.getId();
+      if (chunk.size() < limit) {
+        return processed;
+      }
+    }
+    log.warn(
+      "Scheduler: Sweep of {} transfers reached the per-run cap of {} rows, the rest is left for the next run.",
+      status,
+      maxRows
+    );
+    return processed;
+  }
+
+  private List<Transfer> sweepChunk(
+    TransferStatus status,
+    LocalDateTime cutoff,
+    LocalDateTime afterCreatedAt,
+    UUID afterId,
+    int limit,
+    TransferStatus newStatus,
+    String reason,
+    BiConsumer<Transfer, String> onTimedOut
+  ) {
+    // С шардированием обходим только бакеты с действующей арендой, проверяя ее на каждой порции
+    SweepLeaseManager leases = sweepLeases.getIfAvailable();
+    List<Integer> buckets = leases != null
+      ? leases.ownedBuckets()
+      : UNSHARDED_BUCKETS;
+    if (buckets.isEmpty()) {
+      log.debug(
+        "Scheduler: No sweep buckets owned, skipping {} sweep.",
+        status
+      );
+      return List.of();
+    }
+    List<Transfer> chunk = transferRepository.lockExpiredPage(
+      status.name(),
+      cutoff,
+      afterCreatedAt,
+      afterId,
+      leases != null ? leases.getBucketCount() : 1,
+      buckets,
+      limit
+    );
+    timeOut(chunk, status, newStatus, reason, onTimedOut);
+    return chunk;
+  }
 
-    // Единый метод для обработки, чтобы избежать дублирования
-    processStuckTransfers(stuckTransfers, "Processing timed out.");
+  /**
+   * Переводит в TIMEOUT ожидающие подтверждения переводы из transferIds, срок которых истек
+   * (вызывается колесом таймеров). Переводы, уже сменившие статус или занятые параллельной
+   * обработкой, пропускаются - их при необходимости подберет плановая очистка.
+   *
+   * @return число переведенных в TIMEOUT
+   */
+  @Transactional(Transactional.TxType.REQUIRED)
+  public int expireAwaitingConfirmation(Collection<UUID> transferIds) {
+    List<Transfer> expired = transferRepository.lockExpiredByIds(
+      transferIds,
+      TransferStatus.AWAITING_CONFIRMATION.name(),
+      LocalDateTime.now().minusMinutes(confirmationTimeoutMinutes)
+    );
+    timeOut(
+      expired,
+      TransferStatus.AWAITING_CONFIRMATION,
+      TransferStatus.TIMEOUT,
+      confirmationTimeoutReason(),
+      this::releaseTimedOutReservation
+    );
+    return expired.size();
   }
 
-  private void processStuckTransfers(
+  private void timeOut(
     List<Transfer> transfers,
-    String defaultReasonPrefix
+    TransferStatus status,
+    TransferStatus newStatus,
+    String reason,
+    BiConsumer<Transfer, String> onTimedOut
   ) {
     if (transfers.isEmpty()) {
       return;
     }
-    log.info(
-      "Scheduler: Found {} transfers stuck in processing states to handle for timeout.",
-      transfers.size()
+    transferRepository.updateStatus(
+      transfers.stream().map(Transfer::getId).toList(),
+      newStatus,
+      reason,
+      LocalDateTime.now()
     );
-
+    // Сумма возвращается в лимит, только если перевод завис до списания. С PROCESSING_FUNDS
+    // команда списания уже отправлена и могла быть исполнена - сумма остается в лимите
+    boolean beforeDebit =
+      status == TransferStatus.PROCESSING_RESERVATION ||
+      status == TransferStatus.AWAITING_CONFIRMATION;
+    SenderLimitService limits = beforeDebit
+      ? senderLimits.getIfAvailable()
+      : null;
     for (Transfer transfer : transfers) {
-      TransferStatus originalStatus = transfer.getStatus();
       log.warn(
-        "[{}] Transfer (DB ID: {}) stuck in {} timed out. Created/Updated At: {}", // Используйте updatedAt если есть
+        "[{}] Transfer (DB ID: {}) in {} timed out (created at {}). Status -> {}.",
         transfer.getCorrelationId(),
         transfer.getId(),
-        originalStatus,
-        transfer.getCreatedAt()
+        status,
+        transfer.getCreatedAt(),
+        newStatus
       );
-
-      String failureReason =
-        defaultReasonPrefix + " Status was " + originalStatus + ".";
-
-      if (originalStatus == TransferStatus.PROCESSING_RESERVATION) {
-        transfer.setStatus(TransferStatus.FAILED); // Общий FAILED
-        transfer.setFailureReason(failureReason);
-        sendFailureNotification(
-          transfer.getCorrelationId(),
-          transfer.getSenderPhoneNumber(),
-          transfer.getAmount(),
-          failureReason
-        );
-      } else if (originalStatus == TransferStatus.PROCESSING_FUNDS) {
-        transfer.setStatus(TransferStatus.FUNDS_TRANSFER_FAILED);
-        transfer.setFailureReason(failureReason);
-        sendFailureNotification(
-          transfer.getCorrelationId(),
-          transfer.getSenderPhoneNumber(),
-          transfer.getAmount(),
-          failureReason
-        );
-      } else if (originalStatus == TransferStatus.PROCESSING_EIS) {
-        transfer.setStatus(TransferStatus.EIS_ERROR);
-        transfer.setFailureReason(failureReason);
-        // Для EIS_ERROR по таймауту, всё равно считаем основной перевод успешным
-        sendSuccessNotification(
-          transfer.getCorrelationId(),
-          transfer.getSenderPhoneNumber(),
-          transfer.getAmount(),
-          transfer.getRecipientPhoneNumber() +
-          " (Bank: " +
-          transfer.getRecipientBankId() +
-          ")"
-        );
+      if (limits != null) {
+        limits.release(transfer);
       }
+      // Ошибка отправки откатывает всю порцию, уже зафиксированные порции остаются
+      onTimedOut.accept(transfer, reason);
+    }
+    log.info(
+      "Scheduler: Moved {} transfers from {} to {}.",
+      transfers.size(),
+      status,
+      newStatus
+    );
+  }
 
-      transferRepository.save(transfer);
+  private void releaseTimedOutReservation(Transfer transfer, String reason) {
+    ReleaseFundsCommand releaseCmd = ReleaseFundsCommand.builder()
+      .correlationId(transfer.getCorrelationId())
+      .senderPhoneNumber(transfer.getSenderPhoneNumber())
+      .amount(transfer.getAmount())
+      .isFinalDebit(false)
+      .build();
+    try {
+      messagePublisher.publish(
+        JmsQueueNames.ACCOUNT_RELEASE_FUNDS_CMD_QUEUE,
+        releaseCmd,
+        accountCommandPartitioner.groupIdFor(transfer.getSenderPhoneNumber())
+      );
       log.info(
-        "[{}] Transfer (DB ID: {}) status updated to {} due to processing timeout and saved.",
+        "[{}] Sent ReleaseFundsCommand for timed out transfer (DB ID: {}).",
+        transfer.getCorrelationId(),
+        transfer.getId()
+      );
+    } catch (Exception e) {
+      log.error(
+        "[{}] Failed to send ReleaseFundsCommand for timed out transfer (DB ID: {}): {}. Transaction will be rolled back.",
         transfer.getCorrelationId(),
         transfer.getId(),
-        transfer.getStatus()
+        e.getMessage(),
+        e
+      );
+      throw new RuntimeException(
+        "Failed to send ReleaseFundsCommand for transfer " + transfer.getId(),
+        e
       );
     }
+
+    sendFailureNotification(
+      transfer.getCorrelationId(),
+      transfer.getSenderPhoneNumber(),
+      transfer.getAmount(),
+      reason
+    );
+  }
+
+  private void notifyProcessingFailure(Transfer transfer, String reason) {
+    sendFailureNotification(
+      transfer.getCorrelationId(),
+      transfer.getSenderPhoneNumber(),
+      transfer.getAmount(),
+      reason
+    );
+  }
+
+  private String confirmationTimeoutReason() {
+    return (
+      "Confirmation timed out after " + confirmationTimeoutMinutes + " minutes."
+    );
+  }
+
+  private static String stuckReason(TransferStatus status) {
+    return "Processing timed out. Status was " + status + ".";
   }
 
   private void sendFailureNotification(
@@ -240,7 +384,7 @@ public class ScheduledTransferTasks {
         .reason(reason)
         .build();
     try {
-      jmsTemplate.convertAndSend(
+      messagePublisher.publish(
         JmsQueueNames.NOTIFICATION_SEND_FAILURE_CMD_QUEUE,
         cmd
       );
@@ -273,7 +417,7 @@ public class ScheduledTransferTasks {
         .recipientInfo(recipientInfo)
         .build();
     try {
-      jmsTemplate.convertAndSend(
+      messagePublisher.publish(
         JmsQueueNames.NOTIFICATION_SEND_SUCCESS_CMD_QUEUE,
         cmd
       );
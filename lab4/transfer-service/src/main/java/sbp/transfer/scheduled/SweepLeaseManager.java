@@ -0,0 +1,223 @@
+package sbp.transfer.scheduled;
+
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sbp.transfer.entity.SweepLease;
+import sbp.transfer.entity.SweepMember;
+import sbp.transfer.repository.SweepLeaseRepository;
+import sbp.transfer.repository.SweepMemberRepository;
+
+/**
+ * Делит пространство плановых очисток между живыми репликами через аренды в PostgreSQL.
+ * <p>
+ * Переводы разбиты на bucket-count бакетов по младшему байту correlationId. Каждая реплика
+ * раз в renew-interval-ms отмечает heartbeat в sweep_members и под блокировкой строк
+ * sweep_leases продлевает свои аренды, отдает лишние сверх справедливой доли
+ * (ceil(бакеты / живые реплики)) и забирает свободные или просроченные. Очистки
+ * ScheduledTransferTasks обходят только бакеты с действующей арендой, поэтому добавление
+ * реплики делит работу, а не умножает ее. Аренда упавшей реплики освобождается через lease-ttl-ms.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(
+  name = "scheduler.sweep.sharding.enabled",
+  havingValue = "true"
+)
+public class SweepLeaseManager {
+
+  private final SweepLeaseRepository leaseRepository;
+  private final SweepMemberRepository memberRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  @Getter
+  private final String instanceId;
+
+  @Getter
+  private final int bucketCount;
+
+  private final long leaseTtlMillis;
+
+  // Бакеты и срок, до которого аренды гарантированно наши (с запасом на рассинхрон часов)
+  private volatile List<Integer> ownedBuckets = List.of();
+  private volatile LocalDateTime ownedUntil = LocalDateTime.MIN;
+
+  public SweepLeaseManager(
+    SweepLeaseRepository leaseRepository,
+    SweepMemberRepository memberRepository,
+    PlatformTransactionManager transactionManager,
+    @Value("${scheduler.sweep.sharding.bucket-count:16}") int bucketCount,
+    @Value(
+      "${scheduler.sweep.sharding.lease-ttl-ms:30000}"
+    ) long leaseTtlMillis
+  ) {
+    if (bucketCount < 1 || bucketCount > 256) {
+      throw new IllegalArgumentException(
+        "scheduler.sweep.sharding.bucket-count must be between 1 and 256"
+      );
+    }
+    this.leaseRepository = leaseRepository;
+    this.memberRepository = memberRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.bucketCount = bucketCount;
+    this.leaseTtlMillis = leaseTtlMillis;
+    this.instanceId =
+      hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+  }
+
+  /**
+   * Бакет перевода; совпадает с get_byte(uuid_send(correlation_id), 15) % bucketCount в SQL.
+   */
+  public static int bucketOf(UUID correlationId, int bucketCount) {
+    return (
+      (int) (correlationId.getLeastSignificantBits() & 0xFF) % bucketCount
+    );
+  }
+
+  /**
+   * Бакеты, которые реплика может обходить сейчас; пусто, если аренды не продлевались вовремя.
+   */
+  public List<Integer> ownedBuckets() {
+    return LocalDateTime.now().isBefore(ownedUntil)
+      ? ownedBuckets
+      : List.of();
+  }
+
+  @Scheduled(
+    fixedDelayString = "${scheduler.sweep.sharding.renew-interval-ms:10000}"
+  )
+  public void renewLeases() {
+    LocalDateTime startedAt = LocalDateTime.now();
+    try {
+      List<Integer> owned = transactionTemplate.execute(status ->
+        rebalance(LocalDateTime.now())
+      );
+      List<Integer> previous = ownedBuckets;
+      ownedBuckets = owned;
+      // Считаем от начала продления: строки могли быть записаны в самом начале транзакции
+      ownedUntil = startedAt.plus(leaseTtlMillis / 2, ChronoUnit.MILLIS);
+      if (!owned.equals(previous)) {
+        log.info(
+          "Sweep leases of {} changed: {} of {} buckets owned {}",
+          instanceId,
+          owned.size(),
+          bucketCount,
+          owned
+        );
+      }
+    } catch (Exception e) {
+      // Например, параллельное первичное создание строк аренды; повторим на следующем продлении
+      log.warn(
+        "Failed to renew sweep leases for {}: {}",
+        instanceId,
+        e.getMessage()
+      );
+    }
+  }
+
+  @PreDestroy
+  public void releaseLeases() {
+    ownedBuckets = List.of();
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        for (SweepLease lease : leaseRepository.lockAll()) {
+          if (instanceId.equals(lease.getOwner())) {
+            lease.setOwner(null);
+            lease.setLeaseUntil(null);
+          }
+        }
+        memberRepository.deleteById(instanceId);
+      });
+      log.info("Sweep leases of {} released", instanceId);
+    } catch (Exception e) {
+      log.warn(
+        "Failed to release sweep leases for {}: {}",
+        instanceId,
+        e.getMessage()
+      );
+    }
+  }
+
+  private List<Integer> rebalance(LocalDateTime now) {
+    LocalDateTime leaseUntil = now.plus(leaseTtlMillis, ChronoUnit.MILLIS);
+    LocalDateTime liveCutoff = now.minus(leaseTtlMillis, ChronoUnit.MILLIS);
+    memberRepository.save(new SweepMember(instanceId, now));
+    memberRepository.deleteByHeartbeatAtBefore(liveCutoff);
+    long liveMembers = Math.max(
+      1,
+      memberRepository.countByHeartbeatAtAfter(liveCutoff)
+    );
+    int fairShare = (int) ((bucketCount + liveMembers - 1) / liveMembers);
+
+    Map<Integer, SweepLease> leases = new HashMap<>();
+    for (SweepLease lease : leaseRepository.lockAll()) {
+      leases.put(lease.getBucket(), lease);
+    }
+    for (int bucket = 0; bucket < bucketCount; bucket++) {
+      if (!leases.containsKey(bucket)) {
+        leases.put(
+          bucket,
+          leaseRepository.save(new SweepLease(bucket, null, null))
+        );
+      }
+    }
+
+    List<SweepLease> mine = new ArrayList<>();
+    List<SweepLease> free = new ArrayList<>();
+    for (int bucket = 0; bucket < bucketCount; bucket++) {
+      SweepLease lease = leases.get(bucket);
+      if (instanceId.equals(lease.getOwner())) {
+        mine.add(lease);
+      } else if (
+        lease.getOwner() == null ||
+        lease.getLeaseUntil() == null ||
+        lease.getLeaseUntil().isBefore(now)
+      ) {
+        free.add(lease);
+      }
+    }
+    // Лишние бакеты отдаем, чтобы новая реплика получила свою долю
+    while (mine.size() > fairShare) {
+      SweepLease released = mine.remove(mine.size() - 1);
+      released.setOwner(null);
+      released.setLeaseUntil(null);
+    }
+    for (SweepLease lease : free) {
+      if (mine.size() >= fairShare) {
+        break;
+      }
+      mine.add(lease);
+    }
+
+    List<Integer> owned = new ArrayList<>(mine.size());
+    for (SweepLease lease : mine) {
+      lease.setOwner(instanceId);
+      lease.setLeaseUntil(leaseUntil);
+      owned.add(lease.getBucket());
+    }
+    owned.sort(null);
+    return List.copyOf(owned);
+  }
+
+  private static String hostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (Exception e) {
+      return "transfer-service";
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package sbp.transfer.scheduled;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Иерархическое колесо таймеров: levels уровней по 64 слота, шаг нижнего уровня tickMillis.
+ * Таймер кладется на уровень, соответствующий удаленности срока, и по мере вращения
+ * переносится на нижние уровни; при шаге 1 с три уровня покрывают ~3 суток, более дальние
+ * сроки дожидаются на верхнем уровне. Постановка и отмена - O(1), шаг - O(сработавших).
+ * Срабатывание не раньше срока и не позже чем через tickMillis после него.
+ */
+public class TimerWheel<K> {
+
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int MASK = SLOTS - 1;
+
+  private final long tickMillis;
+  private final long originMillis;
+  private final int levels;
+  private final List<List<Set<K>>> wheels = new ArrayList<>();
+  private final Map<K, Timer> timers = new HashMap<>();
+  private long currentTick;
+
+  private static final class Timer {
+
+    private final long tick;
+    private int level;
+    private int slot;
+
+    private Timer(long tick) {
+      this.tick = tick;
+    }
+  }
+
+  public TimerWheel(long tickMillis, int levels, long nowMillis) {
+    if (tickMillis <= 0 || levels <= 0 || levels * SLOT_BITS >= 62) {
+      throw new IllegalArgumentException(
+        "Invalid timer wheel: tickMillis=" + tickMillis + ", levels=" + levels
+      );
+    }
+    this.tickMillis = tickMillis;
+    this.levels = levels;
+    this.originMillis = nowMillis;
+    for (int level = 0; level < levels; level++) {
+      List<Set<K>> slots = new ArrayList<>(SLOTS);
+      for (int slot = 0; slot < SLOTS; slot++) {
+        slots.add(new HashSet<>());
+      }
+      wheels.add(slots);
+    }
+  }
+
+  /**
+   * Ставит (или переставляет) таймер key на deadlineMillis. Прошедший срок сработает
+   * на ближайшем шаге.
+   */
+  public synchronized void schedule(K key, long deadlineMillis) {
+    cancel(key);
+    long tick = Math.max(
+      currentTick + 1,
+      ceilDiv(deadlineMillis - originMillis, tickMillis)
+    );
+    Timer timer = new Timer(tick);
+    timers.put(key, timer);
+    place(key, timer);
+  }
+
+  public synchronized boolean cancel(K key) {
+    Timer timer = timers.remove(key);
+    if (timer == null) {
+      return false;
+    }
+    wheels.get(timer.level).get(timer.slot).remove(key);
+    return true;
+  }
+
+  public synchronized int size() {
+    return timers.size();
+  }
+
+  /**
+   * Проворачивает колесо до nowMillis.
+   *
+   * @return ключи, срок которых наступил
+   */
+  public synchronized List<K> advance(long nowMillis) {
+    long targetTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+    List<K> expired = new ArrayList<>();
+    while (currentTick < targetTick) {
+      currentTick++;
+      cascade(1);
+      Set<K> due = wheels.get(0).get((int) (currentTick & MASK));
+      for (K key : due) {
+        timers.remove(key);
+        expired.add(key);
+      }
+      due.clear();
+    }
+    return expired;
+  }
+
+  // Верхние уровни переносятся раньше нижних: их таймеры могут попасть в слот, переносимый следом
+  private void cascade(int level) {
+    if (level >= levels) {
+      return;
+    }
+    long levelMask = (1L << (SLOT_BITS * level)) - 1;
+    if ((currentTick & levelMask) != 0) {
+      return;
+    }
+    cascade(level + 1);
+    Set<K> slot = wheels
+      .get(level)
+      .get((int) ((currentTick >> (SLOT_BITS * level)) & MASK));
+    if (slot.isEmpty()) {
+      return;
+    }
+    List<K> keys = new ArrayList<>(slot);
+    slot.clear();
+    for (K key : keys) {
+      place(key, timers.get(key));
+    }
+  }
+
+  private void place(K key, Timer timer) {
+    long delta = timer.tick - currentTick;
+    int level = 0;
+    while (level < levels - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+      level++;
+    }
+    // Срок дальше охвата колеса: ждем в самом дальнем слоте и переносимся заново
+    long placeTick = Math.min(
+      timer.tick,
+      currentTick + (1L << (SLOT_BITS * levels)) - 1
+    );
+    timer.level = level;
+    timer.slot = (int) ((placeTick >> (SLOT_BITS * level)) & MASK);
+    wheels.get(level).get(timer.slot).add(key);
+  }
+
+  private static long ceilDiv(long x, long y) {
+    return -Math.floorDiv(-x, y);
+  }
+}
@@ -0,0 +1,65 @@
+package sbp.transfer.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Аутентификация по заголовку "Authorization: Bearer &lt;token&gt;" (токен от /api/v1/auth/login).
+ * Запросы без Bearer-токена проходят дальше, к HTTP Basic.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class AccessTokenAuthenticationFilter extends OncePerRequestFilter {
+
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  private final AccessTokenService accessTokenService;
+
+  @Override
+  protected void doFilterInternal(
+    HttpServletRequest request,
+    HttpServletResponse response,
+    FilterChain filterChain
+  ) throws ServletException, IOException {
+    String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+    if (header == null || !header.startsWith(BEARER_PREFIX)) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    AccessTokenService.AccessTokenClaims claims = accessTokenService.verify(
+      header.substring(BEARER_PREFIX.length()).trim()
+    );
+    if (claims == null) {
+      log.debug("Rejected invalid or expired access token");
+      SecurityContextHolder.clearContext();
+      response.sendError(
+        HttpServletResponse.SC_UNAUTHORIZED,
+        "Invalid or expired access token"
+      );
+      return;
+    }
+
+    SecurityContext context = SecurityContextHolder.createEmptyContext();
+    context.setAuthentication(
+      UsernamePasswordAuthenticationToken.authenticated(
+        claims.username(),
+        null,
+        claims.roles().stream().map(SimpleGrantedAuthority::new).toList()
+      )
+    );
+    SecurityContextHolder.setContext(context);
+    filterChain.doFilter(request, response);
+  }
+}
@@ -0,0 +1,152 @@
+package sbp.transfer.security;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Выпуск и проверка самодостаточных access-токенов (формат JWT, подпись HS256).
+ * Токен содержит имя пользователя и роли, поэтому проверка - это только HMAC и срок действия,
+ * без LoginContext и BCrypt.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(
+  name = "transfer.security.token.enabled",
+  havingValue = "true"
+)
+public class AccessTokenService {
+
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder()
+    .withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+  private static final String HEADER = ENCODER.encodeToString(
+    "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8)
+  );
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final SecretKeySpec signingKey;
+  private final long ttlSeconds;
+
+  /**
+   * Проверенные данные токена.
+   */
+  public record AccessTokenClaims(
+    String username,
+    List<String> roles,
+    Instant expiresAt
+  ) {}
+
+  public AccessTokenService(
+    @Value("${transfer.security.token.secret:}") String secret,
+    @Value("${transfer.security.token.ttl-seconds:900}") long ttlSeconds
+  ) {
+    byte[] key;
+    if (secret == null || secret.isBlank()) {
+      key = new byte[32];
+      new SecureRandom().nextBytes(key);
+      log.warn(
+        "transfer.security.token.secret is not set, using a random key: tokens are invalidated on restart and not accepted by other instances"
+      );
+    } else {
+      key = secret.getBytes(StandardCharsets.UTF_8);
+      if (key.length < 32) {
+        throw new IllegalStateException(
+          "transfer.security.token.secret must be at least 32 bytes"
+        );
+      }
+    }
+    this.signingKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    this.ttlSeconds = ttlSeconds;
+  }
+
+  public long getTtlSeconds() {
+    return ttlSeconds;
+  }
+
+  public String issue(String username, List<String> roles) {
+    long issuedAt = Instant.now().getEpochSecond();
+    Map<String, Object> claims = new LinkedHashMap<>();
+    claims.put("sub", username);
+    claims.put("roles", roles);
+    claims.put("iat", issuedAt);
+    claims.put("exp", issuedAt + ttlSeconds);
+    try {
+      String payload = ENCODER.encodeToString(
+        objectMapper.writeValueAsBytes(claims)
+      );
+      String signingInput = HEADER + "." + payload;
+      return signingInput + "." + ENCODER.encodeToString(sign(signingInput));
+    } catch (Exception e) {
+      throw new IllegalStateException("Failed to issue access token", e);
+    }
+  }
+
+  /**
+   * Проверяет подпись и срок действия токена.
+   *
+   * @return Данные токена или null, если токен недействителен.
+   */
+  public AccessTokenClaims verify(String token) {
+    int firstDot = token.indexOf('.');
+    int lastDot = token.lastIndexOf('.');
+    if (firstDot <= 0 || lastDot == firstDot) {
+      return null;
+    }
+    String signingInput = token.substring(0, lastDot);
+    try {
+      byte[] signature = DECODER.decode(token.substring(lastDot + 1));
+      // Сравнение за постоянное время
+      if (!MessageDigest.isEqual(signature, sign(signingInput))) {
+        return null;
+      }
+      if (!HEADER.equals(token.substring(0, firstDot))) {
+        return null;
+      }
+      Map<String, Object> claims = objectMapper.readValue(
+        DECODER.decode(token.substring(firstDot + 1, lastDot)),
+        new TypeReference<Map<String, Object>>() {}
+      );
+      Instant expiresAt = Instant.ofEpochSecond(
+        ((Number) claims.get("exp")).longValue()
+      );
+      if (!Instant.now().isBefore(expiresAt)) {
+        return null;
+      }
+      @SuppressWarnings("unchecked")
+      List<String> roles = (List<String>) claims.getOrDefault(
+        "roles",
+        List.of()
+      );
+      return new AccessTokenClaims(
+        (String) claims.get("sub"),
+        roles,
+        expiresAt
+      );
+    } catch (Exception e) {
+      log.debug("Malformed access token: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  private byte[] sign(String signingInput) throws GeneralSecurityException {
+    Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+    mac.init(signingKey);
+    return mac.doFinal(signingInput.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,171 @@
+package sbp.transfer.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import sbp.transfer.security.jaas.XmlUserStore;
+
+/**
+ * Кэш успешно проверенных учетных данных перед JAAS-провайдером.
+ * <p>
+ * При stateless HTTP Basic каждый запрос проходит LoginContext и BCrypt. Повторные запросы
+ * с теми же учетными данными берутся из кэша. Ключ - имя пользователя и HMAC-SHA256 пароля
+ * на случайном ключе процесса, сами пароли не хранятся. Кэшируются только успешные проверки,
+ * записи живут не дольше TTL, кэш ограничен по размеру (LRU) и сбрасывается при изменении users.xml.
+ */
+@Slf4j
+public class CachingAuthenticationProvider
+  implements AuthenticationProvider, DisposableBean {
+
+  private final AuthenticationProvider delegate;
+  private final long ttlMillis;
+  private final SecretKeySpec hmacKey;
+  private final Map<String, CachedCredential> cache;
+  // Ссылка на зарегистрированный обработчик, чтобы снять его в destroy()
+  private final Runnable reloadListener = this::invalidateAll;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public CachingAuthenticationProvider(
+    AuthenticationProvider delegate,
+    long ttlMillis,
+    int maxEntries
+  ) {
+    this.delegate = delegate;
+    this.ttlMillis = ttlMillis;
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    this.hmacKey = new SecretKeySpec(key, "HmacSHA256");
+    this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(
+        Map.Entry<String, CachedCredential> eldest
+      ) {
+        if (size() > maxEntries) {
+          evictions.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+    XmlUserStore.addReloadListener(reloadListener);
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication)
+    throws AuthenticationException {
+    if (authentication.getCredentials() == null) {
+      return delegate.authenticate(authentication);
+    }
+    String key = cacheKey(
+      authentication.getName(),
+      authentication.getCredentials().toString()
+    );
+    long now = System.currentTimeMillis();
+
+    CachedCredential cached;
+    synchronized (cache) {
+      cached = cache.get(key);
+      if (cached != null && cached.expiresAtMillis() <= now) {
+        cache.remove(key);
+        cached = null;
+      }
+    }
+    if (cached != null) {
+      hits.increment();
+      return UsernamePasswordAuthenticationToken.authenticated(
+        cached.username(),
+        null,
+        cached.authorities()
+      );
+    }
+
+    misses.increment();
+    Authentication result = delegate.authenticate(authentication);
+    if (result != null && result.isAuthenticated()) {
+      CachedCredential credential = new CachedCredential(
+        result.getName(),
+        List.copyOf(result.getAuthorities()),
+        now + ttlMillis
+      );
+      synchronized (cache) {
+        cache.put(key, credential);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void destroy() {
+    XmlUserStore.removeReloadListener(reloadListener);
+  }
+
+  @Override
+  public boolean supports(Class<?> authentication) {
+    return delegate.supports(authentication);
+  }
+
+  public void invalidateAll() {
+    synchronized (cache) {
+      cache.clear();
+    }
+    log.info("Verified credential cache invalidated");
+  }
+
+  @Scheduled(
+    fixedDelayString = "${transfer.security.credential-cache.stats-log-interval-ms:60000}"
+  )
+  public void logStats() {
+    long hitCount = hits.sum();
+    long missCount = misses.sum();
+    int size;
+    synchronized (cache) {
+      size = cache.size();
+    }
+    log.info(
+      "Verified credential cache: size={}, hits={}, misses={}, evictions={}, hitRatio={}",
+      size,
+      hitCount,
+      missCount,
+      evictions.sum(),
+      hitCount + missCount == 0
+        ? 0
+        : String.format("%.3f", (double) hitCount / (hitCount + missCount))
+    );
+  }
+
+  private String cacheKey(String username, String password) {
+    try {
+      Mac mac = Mac.getInstance("HmacSHA256");
+      mac.init(hmacKey);
+      byte[] digest = mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+      return username + ":" + Base64.getEncoder().encodeToString(digest);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("HmacSHA256 is not available", e);
+    }
+  }
+
+  private record CachedCredential(
+    String username,
+    Collection<GrantedAuthority> authorities,
+    long expiresAtMillis
+  ) {}
+}
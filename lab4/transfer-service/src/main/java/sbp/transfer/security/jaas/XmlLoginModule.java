@@ -1,7 +1,6 @@
 package sbp.transfer.security.jaas;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.Serializable;
 import java.security.Principal;
 import java.util.*;
@@ -9,16 +8,10 @@ import javax.security.auth.Subject;
 import javax.security.auth.callback.*;
 import javax.security.auth.login.LoginException;
 import javax.security.auth.spi.LoginModule;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 public class XmlLoginModule implements LoginModule {
 
@@ -130,84 +123,46 @@ public class XmlLoginModule implements LoginModule {
         "JAAS config option 'xmlUserFile' not specified."
       );
     }
-    log.debug("Loading users from XML: {}", xmlFilePathOption);
-
-    // Удаляем "classpath:" префикс, если он есть, так как ClassPathResource ожидает путь без него
-    String actualXmlPath = xmlFilePathOption.startsWith("classpath:")
-      ? xmlFilePathOption.substring("classpath:".length())
-      : xmlFilePathOption;
-
-    try (
-      InputStream xmlStream = new ClassPathResource(
-        actualXmlPath
-      ).getInputStream()
-    ) {
-      DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-      // Защита от XXE (хорошо бы иметь)
-      dbFactory.setFeature(
-        "http://apache.org/xml/features/disallow-doctype-decl",
-        true
-      );
-      dbFactory.setFeature(
-        "http://xml.org/sax/features/external-general-entities",
-        false
-      );
-      dbFactory.setFeature(
-        "http://xml.org/sax/features/external-parameter-entities",
-        false
+    XmlUserStore userStore;
+    try {
+      userStore = XmlUserStore.forLocation(xmlFilePathOption);
+    } catch (Exception e) {
+      log.error("Error loading users from XML '{}'", xmlFilePathOption, e);
+      throw new LoginException(
+        "Authentication failed due to internal error: " + e.getMessage()
       );
-      dbFactory.setXIncludeAware(false);
-      dbFactory.setExpandEntityReferences(false);
-
-      DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-      Document doc = dBuilder.parse(xmlStream);
-      doc.getDocumentElement().normalize();
-
-      NodeList userNodes = doc.getElementsByTagName("user");
-      for (int i = 0; i < userNodes.getLength(); i++) {
-        Element userElement = (Element) userNodes.item(i);
-        String xmlUsername = userElement.getAttribute("username");
-
-        if (username.equals(xmlUsername)) {
-          String xmlPasswordHash = userElement.getAttribute("password");
-          String xmlRoles = userElement.getAttribute("roles");
-
-          if (passwordEncoder.matches(rawPassword, xmlPasswordHash)) {
-            log.info("User '{}' authenticated successfully.", username);
-            loginSucceeded = true;
-            authenticatedUsername = username;
-
-            principalsToAdd.add(new UserPrincipalImpl(authenticatedUsername));
-            if (xmlRoles != null && !xmlRoles.isEmpty()) {
-              Arrays.stream(xmlRoles.split(","))
-                .map(String::trim)
-                .filter(role -> !role.isEmpty())
-                .forEach(role -> principalsToAdd.add(new RolePrincipal(role)));
-            }
-            log.debug(
-              "User '{}' granted principals (to be added on commit): {}",
-              username,
-              principalsToAdd
-            );
-            return true;
-          } else {
-            log.warn("Password mismatch for user '{}'", username);
-            return false; // Пользователь найден, но пароль неверный, дальнейший поиск не нужен
-          }
-        }
-      }
+    }
+
+    XmlUserStore.XmlUser user = userStore.find(username);
+    if (user == null) {
       log.warn("User '{}' not found in XML.", username);
       return false; // Пользователь не найден
+    }
+
+    try {
+      if (!passwordEncoder.matches(rawPassword, user.passwordHash())) {
+        log.warn("Password mismatch for user '{}'", username);
+        return false;
+      }
     } catch (Exception e) {
-      log.error(
-        "Error during XML parsing or authentication for user '{}'",
-        username,
-        e
-      );
+      log.error("Error during authentication for user '{}'", username, e);
       throw new LoginException(
         "Authentication failed due to internal error: " + e.getMessage()
       );
     }
+
+    log.info("User '{}' authenticated successfully.", username);
+    loginSucceeded = true;
+    authenticatedUsername = username;
+
+    principalsToAdd.add(new UserPrincipalImpl(authenticatedUsername));
+    user.roles().forEach(role -> principalsToAdd.add(new RolePrincipal(role)));
+    log.debug(
+      "User '{}' granted principals (to be added on commit): {}",
+      username,
+      principalsToAdd
+    );
+    return true;
   }
 
   @Override
@@ -0,0 +1,245 @@
+package sbp.transfer.security.jaas;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Таблица пользователей из XML-файла, разобранная один раз и проиндексированная по имени.
+ * <p>
+ * JAAS создает новый экземпляр LoginModule на каждую аутентификацию, поэтому таблицы
+ * разделяются между экземплярами через реестр по расположению файла. Если файл лежит на диске
+ * (file: или classpath-ресурс вне jar), за ним следит WatchService: при изменении файл разбирается
+ * заново и таблица подменяется атомарно. При ошибке разбора остается прежняя таблица.
+ */
+public final class XmlUserStore {
+
+  private static final Logger log = LoggerFactory.getLogger(
+    XmlUserStore.class
+  );
+
+  private static final Map<String, XmlUserStore> STORES =
+    new ConcurrentHashMap<>();
+  private static final List<Runnable> RELOAD_LISTENERS =
+    new CopyOnWriteArrayList<>();
+
+  private final String location;
+  private final Resource resource;
+  private final AtomicReference<Map<String, XmlUser>> users =
+    new AtomicReference<>(Map.of());
+
+  /**
+   * Пользователь из XML: BCrypt-хэш пароля и роли.
+   */
+  public record XmlUser(
+    String username,
+    String passwordHash,
+    List<String> roles
+  ) {}
+
+  private XmlUserStore(String location) {
+    this.location = location;
+    this.resource = resolve(location);
+    users.set(parse());
+    watchIfFile();
+  }
+
+  /**
+   * Возвращает таблицу для расположения из опции JAAS xmlUserFile ("classpath:..." или путь к файлу).
+   */
+  public static XmlUserStore forLocation(String location) {
+    return STORES.computeIfAbsent(location, XmlUserStore::new);
+  }
+
+  /**
+   * Регистрирует обработчик, вызываемый после перечитывания любого файла пользователей.
+   */
+  public static void addReloadListener(Runnable listener) {
+    RELOAD_LISTENERS.add(listener);
+  }
+
+  /**
+   * Снимает обработчик, зарегистрированный через {@link #addReloadListener}.
+   */
+  public static void removeReloadListener(Runnable listener) {
+    RELOAD_LISTENERS.remove(listener);
+  }
+
+  public XmlUser find(String username) {
+    return users.get().get(username);
+  }
+
+  public int size() {
+    return users.get().size();
+  }
+
+  /**
+   * Перечитывает файл и атомарно подменяет таблицу.
+   */
+  public void reload() {
+    Map<String, XmlUser> reloaded = parse();
+    users.set(reloaded);
+    log.info("Reloaded {} users from {}", reloaded.size(), location);
+    RELOAD_LISTENERS.forEach(Runnable::run);
+  }
+
+  private Map<String, XmlUser> parse() {
+    try (InputStream xmlStream = resource.getInputStream()) {
+      DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+      // Защита от XXE
+      dbFactory.setFeature(
+        "http://apache.org/xml/features/disallow-doctype-decl",
+        true
+      );
+      dbFactory.setFeature(
+        "http://xml.org/sax/features/external-general-entities",
+        false
+      );
+      dbFactory.setFeature(
+        "http://xml.org/sax/features/external-parameter-entities",
+        false
+      );
+      dbFactory.setXIncludeAware(false);
+      dbFactory.setExpandEntityReferences(false);
+
+      DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
+      Document doc = dBuilder.parse(xmlStream);
+      doc.getDocumentElement().normalize();
+
+      NodeList userNodes = doc.getElementsByTagName("user");
+      Map<String, XmlUser> parsed = new HashMap<>(userNodes.getLength() * 2);
+      for (int i = 0; i < userNodes.getLength(); i++) {
+        Element userElement = (Element) userNodes.item(i);
+        String username = userElement.getAttribute("username");
+        String roles = userElement.getAttribute("roles");
+        // Как и при линейном поиске, при дубликатах побеждает первая запись
+        parsed.putIfAbsent(
+          username,
+          new XmlUser(
+            username,
+            userElement.getAttribute("password"),
+            roles.isEmpty()
+              ? List.of()
+              : Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .toList()
+          )
+        );
+      }
+      return Map.copyOf(parsed);
+    } catch (Exception e) {
+      throw new IllegalStateException(
+        "Failed to load users from " + location + ": " + e.getMessage(),
+        e
+      );
+    }
+  }
+
+  private void watchIfFile() {
+    Path file;
+    try {
+      file = resource.getFile().toPath().toAbsolutePath();
+    } catch (IOException e) {
+      log.info(
+        "User file {} is not on the file system (packaged in jar?), change watching disabled",
+        location
+      );
+      return;
+    }
+    Path directory = file.getParent();
+    try {
+      WatchService watchService = FileSystems.getDefault().newWatchService();
+      directory.register(
+        watchService,
+        StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_MODIFY
+      );
+      Thread watcher = new Thread(
+        () -> watch(watchService, file),
+        "xml-user-store-watcher"
+      );
+      watcher.setDaemon(true);
+      watcher.start();
+      log.info("Watching user file {} for changes", file);
+    } catch (IOException e) {
+      log.warn(
+        "Failed to watch user file {}: {}. Changes will not be picked up.",
+        file,
+        e.getMessage()
+      );
+    }
+  }
+
+  private void watch(WatchService watchService, Path file) {
+    Path fileName = file.getFileName();
+    while (true) {
+      WatchKey key;
+      try {
+        key = watchService.take();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      boolean changed = false;
+      for (WatchEvent<?> event : key.pollEvents()) {
+        // Редакторы часто сохраняют файл через переименование - это ENTRY_CREATE
+        if (fileName.equals(event.context())) {
+          changed = true;
+        }
+      }
+      if (changed && Files.exists(file)) {
+        try {
+          reload();
+        } catch (IllegalStateException e) {
+          log.error(
+            "Keeping previous user table, reload of {} failed: {}",
+            file,
+            e.getMessage()
+          );
+        }
+      }
+      if (!key.reset()) {
+        log.warn(
+          "Directory of user file {} is no longer accessible, watching stopped",
+          file
+        );
+        return;
+      }
+    }
+  }
+
+  private static Resource resolve(String location) {
+    if (location.startsWith("classpath:")) {
+      return new ClassPathResource(location.substring("classpath:".length()));
+    }
+    if (location.startsWith("file:")) {
+      return new FileSystemResource(location.substring("file:".length()));
+    }
+    return new FileSystemResource(location);
+  }
+}
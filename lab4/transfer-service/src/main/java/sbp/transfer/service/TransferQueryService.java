@@ -0,0 +1,34 @@
+package sbp.transfer.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import sbp.dto.enums.TransferStatus;
+import sbp.dto.rest.TransferHistoryPage;
+import sbp.dto.rest.TransferSummary;
+
+public interface TransferQueryService {
+  /**
+   * Перевод по ID без кодов подтверждения.
+   *
+   * @throws sbp.transfer.exception.TransferNotFoundException если перевода нет
+   */
+  TransferSummary getTransfer(UUID transferId);
+
+  /**
+   * Страница истории переводов отправителя от новых к старым.
+   *
+   * @param status фильтр по статусу, null - все статусы
+   * @param from начало периода включительно, null - без ограничения
+   * @param to конец периода не включительно, null - без ограничения
+   * @param cursor nextCursor предыдущей страницы, null - первая страница
+   * @param limit размер страницы, null - по умолчанию
+   */
+  TransferHistoryPage getHistory(
+    String senderPhoneNumber,
+    TransferStatus status,
+    LocalDateTime from,
+    LocalDateTime to,
+    String cursor,
+    Integer limit
+  );
+}
@@ -3,7 +3,7 @@ package sbp.transfer.service.handler.impl;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jms.core.JmsTemplate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import sbp.dto.EisService;
 import sbp.dto.JmsQueueNames;
@@ -13,8 +13,11 @@ import sbp.dto.jms.FundsProcessedEvent;
 import sbp.dto.jms.SendFailureNotificationCommand;
 import sbp.dto.jms.SendSuccessNotificationCommand;
 import sbp.transfer.entity.Transfer;
+import sbp.transfer.jms.TransferMessagePublisher;
 import sbp.transfer.repository.TransferRepository;
+import sbp.transfer.scheduled.ConfirmationTimeoutScheduler;
 import sbp.transfer.service.handler.FundsProcessedEventHandler;
+import sbp.transfer.service.limit.SenderLimitService;
 
 @Service
 @RequiredArgsConstructor
@@ -23,8 +26,10 @@ public class FundsProcessedEventHandlerImpl
   implements FundsProcessedEventHandler {
 
   private final TransferRepository transferRepository;
-  private final JmsTemplate jmsTemplate;
+  private final TransferMessagePublisher messagePublisher;
   private final EisService eisService;
+  private final ObjectProvider<ConfirmationTimeoutScheduler> confirmationTimeouts;
+  private final ObjectProvider<SenderLimitService> senderLimits;
 
   @Override
   @Transactional(Transactional.TxType.REQUIRED)
@@ -127,6 +132,11 @@ public class FundsProcessedEventHandlerImpl
         transfer.getCorrelationId(),
         transfer.getId()
       );
+      ConfirmationTimeoutScheduler timeouts =
+        confirmationTimeouts.getIfAvailable();
+      if (timeouts != null) {
+        timeouts.schedule(transfer.getId(), transfer.getCreatedAt());
+      }
     } else {
       transfer.setStatus(TransferStatus.RESERVATION_FAILED);
       transfer.setFailureReason(
@@ -140,6 +150,7 @@ public class FundsProcessedEventHandlerImpl
         transfer.getId(),
         transfer.getFailureReason()
       );
+      releaseSenderLimit(transfer);
       sendFailureNotification(transfer); // Уведомляем пользователя о неудаче резервирования
     }
   }
@@ -249,6 +260,14 @@ public class FundsProcessedEventHandlerImpl
     }
   }
 
+  // Средства не списаны - сумма не должна занимать суточный лимит отправителя
+  private void releaseSenderLimit(Transfer transfer) {
+    SenderLimitService limits = senderLimits.getIfAvailable();
+    if (limits != null) {
+      limits.release(transfer);
+    }
+  }
+
   private void sendSuccessNotification(Transfer transfer) {
     if (transfer == null) {
       log.warn("Attempted to send success notification for a null transfer.");
@@ -267,7 +286,7 @@ public class FundsProcessedEventHandlerImpl
         )
         .build();
     try {
-      jmsTemplate.convertAndSend(
+      messagePublisher.publish(
         JmsQueueNames.NOTIFICATION_SEND_SUCCESS_CMD_QUEUE,
         cmd
       );
@@ -305,7 +324,7 @@ public class FundsProcessedEventHandlerImpl
         )
         .build();
     try {
-      jmsTemplate.convertAndSend(
+      messagePublisher.publish(
         JmsQueueNames.NOTIFICATION_SEND_FAILURE_CMD_QUEUE,
         cmd
       );
@@ -5,8 +5,8 @@ import java.math.BigDecimal;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.jms.core.JmsTemplate;
 import org.springframework.stereotype.Service;
 import sbp.dto.JmsQueueNames;
 import sbp.dto.enums.TransferStatus;
@@ -14,8 +14,12 @@ import sbp.dto.jms.ReleaseFundsCommand;
 import sbp.dto.jms.SendFailureNotificationCommand;
 import sbp.dto.rest.TransferConfirmationResponse;
 import sbp.transfer.entity.Transfer;
+import sbp.transfer.jms.AccountCommandPartitioner;
+import sbp.transfer.jms.TransferMessagePublisher;
 import sbp.transfer.repository.TransferRepository;
+import sbp.transfer.scheduled.ConfirmationTimeoutScheduler;
 import sbp.transfer.service.handler.TransferConfirmationHandler;
+import sbp.transfer.service.limit.SenderLimitService;
 
 @Service
 @RequiredArgsConstructor
@@ -24,7 +28,10 @@ public class TransferConfirmationHandlerImpl
   implements TransferConfirmationHandler {
 
   private final TransferRepository transferRepository;
-  private final JmsTemplate jmsTemplate;
+  private final TransferMessagePublisher messagePublisher;
+  private final AccountCommandPartitioner accountCommandPartitioner;
+  private final ObjectProvider<ConfirmationTimeoutScheduler> confirmationTimeouts;
+  private final ObjectProvider<SenderLimitService> senderLimits;
 
   @Value("${transfer.confirmation.max-attempts:3}")
   private int maxConfirmationAttempts;
@@ -115,6 +122,8 @@ public class TransferConfirmationHandlerImpl
         transferId
       );
       transfer.setStatus(TransferStatus.FAILED);
+      cancelConfirmationTimeout(transfer);
+      releaseSenderLimit(transfer);
       transfer.setFailureReason(
         "Internal error: Missing system confirmation code."
       );
@@ -151,6 +160,8 @@ public class TransferConfirmationHandlerImpl
           transferId
         );
         transfer.setStatus(TransferStatus.CONFIRMATION_FAILED);
+        cancelConfirmationTimeout(transfer);
+        releaseSenderLimit(transfer);
         responseMessage = "Invalid confirmation code. Max attempts reached.";
         transfer.setFailureReason(responseMessage);
         sendFailureNotification(transfer, responseMessage);
@@ -177,6 +188,7 @@ public class TransferConfirmationHandlerImpl
     // Код верный
     log.info("Confirmation code matched for transferId: {}.", transferId);
     transfer.setStatus(TransferStatus.PROCESSING_FUNDS);
+    cancelConfirmationTimeout(transfer);
     // transfer.setConfirmationAttempts(0); // Можно сбросить, или не трогать, если счетчик только для неудачных
     transfer.setFailureReason(null); // Очищаем причину предыдущих неудач, если были
     transferRepository.save(transfer);
@@ -189,9 +201,10 @@ public class TransferConfirmationHandlerImpl
       .isFinalDebit(true)
       .build();
     try {
-      jmsTemplate.convertAndSend(
+      messagePublisher.publish(
         JmsQueueNames.ACCOUNT_RELEASE_FUNDS_CMD_QUEUE,
-        releaseFundsCmd
+        releaseFundsCmd,
+        accountCommandPartitioner.groupIdFor(transfer.getSenderPhoneNumber())
       );
       log.info(
         "Sent ReleaseFundsCommand to AccountService for transferId: {}, correlationId: {}. Queue: {}",
@@ -227,6 +240,23 @@ public class TransferConfirmationHandlerImpl
     return "****" + code.substring(Math.max(0, code.length() - 2));
   }
 
+  // Перевод вышел из AWAITING_CONFIRMATION - срок в колесе таймеров больше не нужен
+  private void cancelConfirmationTimeout(Transfer transfer) {
+    ConfirmationTimeoutScheduler timeouts =
+      confirmationTimeouts.getIfAvailable();
+    if (timeouts != null) {
+      timeouts.cancel(transfer.getId());
+    }
+  }
+
+  // Перевод не дошел до списания - возвращаем сумму в суточный лимит отправителя
+  private void releaseSenderLimit(Transfer transfer) {
+    SenderLimitService limits = senderLimits.getIfAvailable();
+    if (limits != null) {
+      limits.release(transfer);
+    }
+  }
+
   private void sendFailureNotification(Transfer transfer, String reason) {
     if (transfer == null) return;
     // Используем correlationId, так как это сквозной идентификатор
@@ -252,7 +282,7 @@ public class TransferConfirmationHandlerImpl
         .reason(reason)
         .build();
     try {
-      jmsTemplate.convertAndSend(
+      messagePublisher.publish(
         JmsQueueNames.NOTIFICATION_SEND_FAILURE_CMD_QUEUE,
         notificationCmd
       );
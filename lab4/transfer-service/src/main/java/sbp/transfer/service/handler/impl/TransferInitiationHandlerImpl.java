@@ -7,7 +7,7 @@ import java.util.Random;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jms.core.JmsTemplate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import sbp.dto.JmsQueueNames;
 import sbp.dto.enums.TransferStatus;
@@ -17,9 +17,13 @@ import sbp.dto.rest.InitiateTransferRequest;
 import sbp.dto.rest.TransferInitiationResponse;
 import sbp.transfer.entity.Transfer;
 import sbp.transfer.exception.SbpAdapterException;
+import sbp.transfer.integration.BankDirectoryReplica;
 import sbp.transfer.integration.SbpAdapterClient;
+import sbp.transfer.jms.AccountCommandPartitioner;
+import sbp.transfer.jms.TransferMessagePublisher;
 import sbp.transfer.repository.TransferRepository;
 import sbp.transfer.service.handler.TransferInitiationHandler;
+import sbp.transfer.service.limit.SenderLimitService;
 
 @Service
 @RequiredArgsConstructor
@@ -28,8 +32,11 @@ public class TransferInitiationHandlerImpl
   implements TransferInitiationHandler {
 
   private final TransferRepository transferRepository;
-  private final JmsTemplate jmsTemplate;
+  private final TransferMessagePublisher messagePublisher;
+  private final AccountCommandPartitioner accountCommandPartitioner;
   private final SbpAdapterClient sbpAdapterClient;
+  private final ObjectProvider<BankDirectoryReplica> bankDirectoryReplica;
+  private final ObjectProvider<SenderLimitService> senderLimits;
   private final Random random = new Random();
 
   @Override
@@ -72,9 +79,7 @@ public class TransferInitiationHandlerImpl
     // 1. Валидация банка получателя через SBP Adapter
     String recipientBankName;
     try {
-      Optional<BankInfo> bankInfoOpt = sbpAdapterClient.getBankInfoById(
-        request.getBankId()
-      );
+      Optional<BankInfo> bankInfoOpt = findRecipientBank(request.getBankId());
       if (bankInfoOpt.isPresent()) {
         BankInfo bankInfo = bankInfoOpt.get();
         if (!bankInfo.isSupportsSbp()) {
@@ -123,7 +128,44 @@ public class TransferInitiationHandlerImpl
       throw new RuntimeException(reason, e);
     }
 
-    // 2. Создание Transfer (status: PENDING)
+    // 2. Проверка суточного лимита отправителя по счетчикам в памяти, без агрегатов по переводам
+    LocalDateTime createdAt = LocalDateTime.now();
+    SenderLimitService limits = senderLimits.getIfAvailable();
+    if (
+      limits != null &&
+      !limits.tryReserve(senderPhoneNumber, request.getAmount(), createdAt)
+    ) {
+      Transfer rejected = transferRepository.save(
+        Transfer.builder()
+          .correlationId(correlationId)
+          .senderPhoneNumber(senderPhoneNumber)
+          .recipientPhoneNumber(request.getRecipientPhoneNumber())
+          .recipientBankId(request.getBankId())
+          .amount(request.getAmount())
+          .status(TransferStatus.LIMIT_EXCEEDED)
+          .failureReason(
+            "Daily transfer limit of " +
+            limits.getDailyLimit() +
+            " exceeded."
+          )
+          .createdAt(createdAt)
+          .build()
+      );
+      log.warn(
+        "[{}] Daily limit exceeded for sender {}. Transfer DB ID: {}, Status: {}",
+        correlationId,
+        senderPhoneNumber,
+        rejected.getId(),
+        rejected.getStatus()
+      );
+      return new TransferInitiationResponse(
+        rejected.getId(),
+        rejected.getStatus(),
+        recipientBankName
+      );
+    }
+
+    // 3. Создание Transfer (status: PENDING)
     Transfer newTransfer = Transfer.builder()
       .correlationId(correlationId) // Устанавливаем correlationId
       .senderPhoneNumber(senderPhoneNumber)
@@ -132,10 +174,10 @@ public class TransferInitiationHandlerImpl
       // recipientBankName можно было бы сохранить здесь, если SbpAdapterClient его возвращает
       .amount(request.getAmount())
       .status(TransferStatus.PENDING)
-      .createdAt(LocalDateTime.now())
+      .createdAt(createdAt)
       .build();
 
-    // 3. Генерируем userConfirmationCode
+    // 4. Генерируем userConfirmationCode
     String userConfirmationCode = String.format(
       "%06d",
       random.nextInt(1000000)
@@ -147,7 +189,7 @@ public class TransferInitiationHandlerImpl
       maskCode(userConfirmationCode)
     );
 
-    // 4. Сохраняем Transfer (с кодом)
+    // 5. Сохраняем Transfer (с кодом)
     Transfer savedTransfer = transferRepository.save(newTransfer);
     log.info(
       "[{}] Transfer entity created and saved with DB ID: {}, Status: {}",
@@ -156,7 +198,7 @@ public class TransferInitiationHandlerImpl
       savedTransfer.getStatus()
     );
 
-    // 5. Отправляем ReserveFundsCommand в AccountService
+    // 6. Отправляем ReserveFundsCommand в AccountService
     ReserveFundsCommand reserveFundsCmd = ReserveFundsCommand.builder()
       .correlationId(correlationId) // Используем тот же correlationId
       .senderPhoneNumber(senderPhoneNumber)
@@ -165,9 +207,10 @@ public class TransferInitiationHandlerImpl
       .build();
 
     try {
-      jmsTemplate.convertAndSend(
+      messagePublisher.publish(
         JmsQueueNames.ACCOUNT_RESERVE_FUNDS_CMD_QUEUE,
-        reserveFundsCmd
+        reserveFundsCmd,
+        accountCommandPartitioner.groupIdFor(senderPhoneNumber)
       );
       log.info(
         "[{}] Sent ReserveFundsCommand to AccountService. Queue: {}",
@@ -189,7 +232,7 @@ public class TransferInitiationHandlerImpl
       );
     }
 
-    // 6. Transfer.status -> PROCESSING_RESERVATION
+    // 7. Transfer.status -> PROCESSING_RESERVATION
     savedTransfer.setStatus(TransferStatus.PROCESSING_RESERVATION);
     transferRepository.save(savedTransfer); // Обновляем статус в той же транзакции
     log.info(
@@ -198,7 +241,7 @@ public class TransferInitiationHandlerImpl
       savedTransfer.getStatus()
     );
 
-    // 7. Отвечаем клиенту TransferInitiationResponse
+    // 8. Отвечаем клиенту TransferInitiationResponse
     return new TransferInitiationResponse(
       savedTransfer.getId(), // PK сущности Transfer
       savedTransfer.getStatus(),
@@ -206,6 +249,18 @@ public class TransferInitiationHandlerImpl
     );
   }
 
+  /**
+   * Банк получателя из локальной реплики справочника (если включена и актуальна),
+   * иначе - запрос к SBP Adapter.
+   */
+  private Optional<BankInfo> findRecipientBank(String bankId) {
+    BankDirectoryReplica replica = bankDirectoryReplica.getIfAvailable();
+    if (replica != null && replica.isReady()) {
+      return replica.findBankById(bankId);
+    }
+    return sbpAdapterClient.getBankInfoById(bankId);
+  }
+
   private String maskCode(String code) {
     if (code == null) return "NULL";
     if (code.length() <= 2) return "****";
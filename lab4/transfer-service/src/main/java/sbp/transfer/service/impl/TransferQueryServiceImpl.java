@@ -0,0 +1,155 @@
+package sbp.transfer.service.impl;
+
+import jakarta.transaction.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import sbp.dto.enums.TransferStatus;
+import sbp.dto.rest.TransferHistoryPage;
+import sbp.dto.rest.TransferSummary;
+import sbp.transfer.exception.TransferNotFoundException;
+import sbp.transfer.repository.TransferRepository;
+import sbp.transfer.service.TransferQueryService;
+
+/**
+ * Чтение переводов проекциями TransferSummary (только нужные колонки, без загрузки сущностей).
+ * История листается курсором (createdAt, id) последней строки страницы: каждая страница -
+ * один проход по индексу с позиции курсора, независимо от глубины листания (в отличие от OFFSET).
+ */
+@Service
+@Slf4j
+public class TransferQueryServiceImpl implements TransferQueryService {
+
+  // Открытые границы периода; конец - в пределах диапазона timestamp PostgreSQL
+  private static final LocalDateTime OPEN_FROM = LocalDateTime.of(
+    1970,
+    1,
+    1,
+    0,
+    0
+  );
+  private static final LocalDateTime OPEN_TO = LocalDateTime.of(
+    9999,
+    12,
+    31,
+    0,
+    0
+  );
+  // Меньше любого id: (to, NIL_ID) отсекает строки с createdAt = to, т.е. to не включается
+  private static final UUID NIL_ID = new UUID(0L, 0L);
+
+  private final TransferRepository transferRepository;
+  private final int defaultPageSize;
+  private final int maxPageSize;
+
+  public TransferQueryServiceImpl(
+    TransferRepository transferRepository,
+    @Value("${transfer.query.default-page-size:20}") int defaultPageSize,
+    @Value("${transfer.query.max-page-size:100}") int maxPageSize
+  ) {
+    this.transferRepository = transferRepository;
+    this.defaultPageSize = defaultPageSize;
+    this.maxPageSize = maxPageSize;
+  }
+
+  @Override
+  @Transactional
+  public TransferSummary getTransfer(UUID transferId) {
+    return transferRepository
+      .findSummaryById(transferId)
+      .orElseThrow(() ->
+        new TransferNotFoundException(
+          "Transfer not found with ID: " + transferId
+        )
+      );
+  }
+
+  @Override
+  @Transactional
+  public TransferHistoryPage getHistory(
+    String senderPhoneNumber,
+    TransferStatus status,
+    LocalDateTime from,
+    LocalDateTime to,
+    String cursor,
+    Integer limit
+  ) {
+    int pageSize = limit != null ? limit : defaultPageSize;
+    if (pageSize < 1 || pageSize > maxPageSize) {
+      throw new IllegalArgumentException(
+        "limit must be between 1 and " + maxPageSize
+      );
+    }
+    LocalDateTime lower = from != null ? from : OPEN_FROM;
+    LocalDateTime beforeCreatedAt = to != null ? to : OPEN_TO;
+    UUID beforeId = NIL_ID;
+    if (cursor != null && !cursor.isBlank()) {
+      String[] position = decodeCursor(cursor);
+      beforeCreatedAt = LocalDateTime.parse(position[0]);
+      beforeId = UUID.fromString(position[1]);
+    }
+
+    // Лишняя строка показывает, есть ли следующая страница, без отдельного запроса
+    PageRequest page = PageRequest.ofSize(pageSize + 1);
+    List<TransferSummary> rows = status != null
+      ? transferRepository.findHistoryPageByStatus(
+        senderPhoneNumber,
+        status,
+        lower,
+        beforeCreatedAt,
+        beforeId,
+        page
+      )
+      : transferRepository.findHistoryPage(
+        senderPhoneNumber,
+        lower,
+        beforeCreatedAt,
+        beforeId,
+        page
+      );
+    if (rows.size() <= pageSize) {
+      return new TransferHistoryPage(rows, null);
+    }
+    List<TransferSummary> transfers = rows.subList(0, pageSize);
+    TransferSummary last = transfers.get(pageSize - 1);
+    log.debug(
+      "History page for sender {}: {} transfers, more available",
+      senderPhoneNumber,
+      pageSize
+    );
+    return new TransferHistoryPage(
+      List.copyOf(transfers),
+      encodeCursor(last.getCreatedAt(), last.getTransferId())
+    );
+  }
+
+  private static String encodeCursor(LocalDateTime createdAt, UUID id) {
+    return Base64.getUrlEncoder()
+      .withoutPadding()
+      .encodeToString((createdAt + "_" + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String[] decodeCursor(String cursor) {
+    try {
+      String[] position = new String(
+        Base64.getUrlDecoder().decode(cursor),
+        StandardCharsets.UTF_8
+      ).split("_", 2);
+      if (position.length != 2) {
+        throw new IllegalArgumentException("Malformed cursor");
+      }
+      // Проверяем формат сразу, чтобы ошибка была про курсор, а не про запрос
+      LocalDateTime.parse(position[0]);
+      UUID.fromString(position[1]);
+      return position;
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid history cursor: " + cursor);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package sbp.transfer.service.limit;
+
+import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sbp.transfer.entity.Transfer;
+import sbp.transfer.repository.SenderLimitBucketRepository;
+
+/**
+ * Скользящий суточный лимит переводов отправителя на предагрегированных часовых счетчиках.
+ * <p>
+ * Сумма резервируется при инициации перевода ({@link #tryReserve}) и возвращается, если перевод
+ * завершился неудачей до списания ({@link #release}). Проверка и учет - один условный upsert в
+ * sender_limit_buckets (сумма не больше 24 строк по индексу) в транзакции саги. Перед ним
+ * отправитель блокируется до конца транзакции, поэтому параллельные проверки на всех репликах
+ * выполняются по очереди и видят уже зафиксированные резервы: лимит не превышается.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "transfer.limits.enabled", havingValue = "true")
+public class SenderLimitService {
+
+  private static final int WINDOW_HOURS = 24;
+
+  private final SenderLimitBucketRepository bucketRepository;
+
+  @Getter
+  private final BigDecimal dailyLimit;
+
+  private final LongAdder checks = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  public SenderLimitService(
+    SenderLimitBucketRepository bucketRepository,
+    @Value("${transfer.limits.daily-limit:150000.00}") BigDecimal dailyLimit
+  ) {
+    this.bucketRepository = bucketRepository;
+    this.dailyLimit = dailyLimit;
+  }
+
+  /**
+   * Резервирует amount в лимите отправителя в текущей транзакции.
+   *
+   * @return false, если перевод превысит суточный лимит
+   */
+  public boolean tryReserve(
+    String senderPhoneNumber,
+    BigDecimal amount,
+    LocalDateTime at
+  ) {
+    checks.increment();
+    long hour = epochHour(at);
+    bucketRepository.lockSender(senderPhoneNumber);
+    int updated = bucketRepository.addAmountWithinLimit(
+      senderPhoneNumber,
+      bucketStart(hour),
+      bucketStart(hour - WINDOW_HOURS + 1),
+      amount,
+      dailyLimit
+    );
+    if (updated == 0) {
+      rejected.increment();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Возвращает в лимит сумму перевода, завершившегося неудачей до списания средств.
+   */
+  public void release(Transfer transfer) {
+    long hour = epochHour(transfer.getCreatedAt());
+    if (hour <= epochHour(LocalDateTime.now()) - WINDOW_HOURS) {
+      return; // Интервал уже вне окна
+    }
+    // Уменьшение не может превысить лимит, блокировка отправителя не нужна
+    bucketRepository.addAmount(
+      transfer.getSenderPhoneNumber(),
+      bucketStart(hour),
+      transfer.getAmount().negate()
+    );
+  }
+
+  @Scheduled(cron = "${transfer.limits.cleanup.cron:0 15 * * * ?}")
+  @Transactional
+  public void deleteExpiredBuckets() {
+    int deleted = bucketRepository.deleteByBucketStartBefore(
+      LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(WINDOW_HOURS)
+    );
+    if (deleted > 0) {
+      log.info("Sender limits cleanup removed {} expired bucket(s)", deleted);
+    }
+  }
+
+  @Scheduled(
+    fixedDelayString = "${transfer.limits.stats-log-interval-ms:60000}"
+  )
+  public void logStats() {
+    log.info(
+      "Sender limits: checks={}, rejected={}",
+      checks.sum(),
+      rejected.sum()
+    );
+  }
+
+  private static long epochHour(LocalDateTime dateTime) {
+    return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 3600);
+  }
+
+  private static LocalDateTime bucketStart(long epochHour) {
+    return LocalDateTime.ofEpochSecond(epochHour * 3600, 0, ZoneOffset.UTC);
+  }
+}
@@ -0,0 +1,110 @@
+package sbp.transfer.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import sbp.transfer.integration.SbpAdapterCircuitBreaker.State;
+
+class SbpAdapterCircuitBreakerTest {
+
+  @Test
+  void opensAfterConsecutiveFailures() {
+    SbpAdapterCircuitBreaker breaker = new SbpAdapterCircuitBreaker(3, 60_000);
+
+    breaker.onFailure();
+    breaker.onFailure();
+    assertEquals(State.CLOSED, breaker.getState());
+    assertTrue(breaker.tryAcquirePermission());
+
+    breaker.onFailure();
+    assertEquals(State.OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquirePermission());
+  }
+
+  @Test
+  void successResetsFailureCount() {
+    SbpAdapterCircuitBreaker breaker = new SbpAdapterCircuitBreaker(2, 60_000);
+
+    breaker.onFailure();
+    breaker.onSuccess();
+    breaker.onFailure();
+
+    assertEquals(State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  void admitsSingleProbeAfterOpenDuration() {
+    SbpAdapterCircuitBreaker breaker = openBreaker();
+
+    assertTrue(breaker.tryAcquirePermission());
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquirePermission());
+  }
+
+  @Test
+  void successfulProbeCloses() {
+    SbpAdapterCircuitBreaker breaker = openBreaker();
+    assertTrue(breaker.tryAcquirePermission());
+
+    breaker.onSuccess();
+
+    assertEquals(State.CLOSED, breaker.getState());
+    assertTrue(breaker.tryAcquirePermission());
+  }
+
+  @Test
+  void failedProbeReopens() {
+    SbpAdapterCircuitBreaker breaker = openBreaker();
+    assertTrue(breaker.tryAcquirePermission());
+
+    breaker.onFailure();
+
+    assertEquals(State.OPEN, breaker.getState());
+  }
+
+  @Test
+  void ignoredProbeCloses() {
+    SbpAdapterCircuitBreaker breaker = openBreaker();
+    assertTrue(breaker.tryAcquirePermission());
+
+    breaker.onIgnored();
+
+    assertEquals(State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  void rejectedProbeKeepsHalfOpenAndAllowsNextProbe() {
+    SbpAdapterCircuitBreaker breaker = openBreaker();
+    assertTrue(breaker.tryAcquirePermission());
+
+    breaker.onRejected();
+
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    assertTrue(breaker.tryAcquirePermission());
+    assertFalse(breaker.tryAcquirePermission());
+
+    breaker.onFailure();
+    assertEquals(State.OPEN, breaker.getState());
+  }
+
+  @Test
+  void rejectionDoesNotAffectClosedBreaker() {
+    SbpAdapterCircuitBreaker breaker = new SbpAdapterCircuitBreaker(2, 60_000);
+    breaker.onFailure();
+
+    breaker.onRejected();
+    breaker.onFailure();
+
+    assertEquals(State.OPEN, breaker.getState());
+  }
+
+  /**
+   * Открытый предохранитель с нулевой длительностью: следующий вызов сразу становится пробным.
+   */
+  private static SbpAdapterCircuitBreaker openBreaker() {
+    SbpAdapterCircuitBreaker breaker = new SbpAdapterCircuitBreaker(1, 0);
+    breaker.onFailure();
+    assertEquals(State.OPEN, breaker.getState());
+    return breaker;
+  }
+}
@@ -0,0 +1,97 @@
+package sbp.transfer.jca.email;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import jakarta.resource.ResourceException;
+import jakarta.resource.cci.ConnectionFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import sbp.dto.eis.ChequeDetailsDTO;
+
+class ChequeDeliveryQueueTest {
+
+  private final ConnectionFactory connectionFactory = mock(
+    ConnectionFactory.class
+  );
+  private final EmailConnection connection = mock(EmailConnection.class);
+  private final List<UUID> failedTransfers = new CopyOnWriteArrayList<>();
+  private final CountDownLatch failures = new CountDownLatch(2);
+  private ChequeDeliveryQueue queue;
+
+  @AfterEach
+  void tearDown() {
+    queue.close();
+  }
+
+  @Test
+  void failedSendIsReportedInsteadOfDropped() throws Exception {
+    when(connectionFactory.getConnection()).thenReturn(connection);
+    ChequeDetailsDTO ok = cheque();
+    ChequeDetailsDTO broken = cheque();
+    ChequeDetailsDTO alsoBroken = cheque();
+    doThrow(new ResourceException("550 mailbox unavailable"))
+      .when(connection)
+      .sendElectronicCheque(argThat(c -> c != ok));
+
+    startQueue();
+    assertTrue(queue.offer(ok));
+    assertTrue(queue.offer(broken));
+    assertTrue(queue.offer(alsoBroken));
+
+    assertTrue(failures.await(5, TimeUnit.SECONDS));
+    assertEquals(2, failedTransfers.size());
+    assertTrue(failedTransfers.contains(broken.getTransactionId()));
+    assertTrue(failedTransfers.contains(alsoBroken.getTransactionId()));
+    assertFalse(failedTransfers.contains(ok.getTransactionId()));
+  }
+
+  @Test
+  void unavailableConnectionReportsEveryChequeOfTheBatch() throws Exception {
+    when(connectionFactory.getConnection()).thenThrow(
+      new ResourceException("connection refused")
+    );
+    ChequeDetailsDTO first = cheque();
+    ChequeDetailsDTO second = cheque();
+
+    startQueue();
+    queue.offer(first);
+    queue.offer(second);
+
+    assertTrue(failures.await(5, TimeUnit.SECONDS));
+    assertEquals(2, failedTransfers.size());
+    assertTrue(
+      failedTransfers.containsAll(
+        List.of(first.getTransactionId(), second.getTransactionId())
+      )
+    );
+    verify(connection, never()).sendElectronicCheque(any());
+  }
+
+  private void startQueue() {
+    queue = new ChequeDeliveryQueue(
+      connectionFactory,
+      task -> new Thread(task, "cheque-test-worker").start(),
+      100,
+      1,
+      10,
+      (chequeDetails, error) -> {
+        failedTransfers.add(chequeDetails.getTransactionId());
+        failures.countDown();
+      }
+    );
+    queue.start();
+  }
+
+  private static ChequeDetailsDTO cheque() {
+    return ChequeDetailsDTO.builder()
+      .transactionId(UUID.randomUUID())
+      .recipientEmail("recipient@example.com")
+      .build();
+  }
+}
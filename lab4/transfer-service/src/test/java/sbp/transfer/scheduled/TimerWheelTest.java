@@ -0,0 +1,168 @@
+package sbp.transfer.scheduled;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class TimerWheelTest {
+
+  // 64 слота на уровень: уровни 0/1/2 покрывают 64, 4096 и 262144 шагов
+  private static final long LEVEL_1 = 64;
+  private static final long LEVEL_2 = 64 * 64;
+  private static final long BEYOND_WHEEL = 64 * 64 * 64;
+
+  @Test
+  void firesEachTimerAtItsTickAcrossAllLevels() {
+    TimerWheel<String> wheel = new TimerWheel<>(1, 3, 0);
+    Map<String, Long> deadlines = new HashMap<>();
+    deadlines.put("level0", 5L);
+    deadlines.put("level0-last", LEVEL_1 - 1);
+    deadlines.put("level1-first", LEVEL_1);
+    deadlines.put("level1", LEVEL_1 * 7 + 13);
+    deadlines.put("level2-first", LEVEL_2);
+    deadlines.put("level2", LEVEL_2 * 5 + LEVEL_1 * 3 + 9);
+    deadlines.put("beyond", BEYOND_WHEEL + LEVEL_2 + 17);
+    deadlines.forEach(wheel::schedule);
+
+    Map<String, Long> fired = advanceOneTickAtATime(
+      wheel,
+      BEYOND_WHEEL + LEVEL_2 + 20
+    );
+
+    assertEquals(deadlines, fired);
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void cascadesTimersScheduledAfterWheelHasTurned() {
+    TimerWheel<String> wheel = new TimerWheel<>(1, 3, 0);
+    // Выравнивание текущего шага не совпадает с границами слотов верхних уровней
+    assertTrue(wheel.advance(LEVEL_1 + 10).isEmpty());
+    long now = LEVEL_1 + 10;
+    Map<String, Long> deadlines = Map.of(
+      "a",
+      now + LEVEL_2 - 1,
+      "b",
+      now + LEVEL_1,
+      "c",
+      now + LEVEL_2 * 3 + 1
+    );
+    deadlines.forEach(wheel::schedule);
+
+    assertEquals(deadlines, advanceOneTickAtATime(wheel, now + LEVEL_2 * 4));
+  }
+
+  @Test
+  void coarseAdvanceReturnsAllDueTimers() {
+    TimerWheel<Integer> wheel = new TimerWheel<>(10, 3, 1_000);
+    for (int i = 1; i <= 500; i++) {
+      wheel.schedule(i, 1_000 + i * 97L);
+    }
+
+    List<Integer> expired = wheel.advance(1_000 + 250 * 97L);
+
+    assertEquals(250, expired.size());
+    assertTrue(expired.stream().allMatch(i -> i <= 250));
+    assertEquals(250, wheel.size());
+  }
+
+  @Test
+  void deadlineInsideTickFiresAtTheEndOfThatTick() {
+    TimerWheel<String> wheel = new TimerWheel<>(100, 3, 0);
+    wheel.schedule("key", 150);
+
+    assertTrue(wheel.advance(199).isEmpty());
+    assertEquals(List.of("key"), wheel.advance(200));
+  }
+
+  @Test
+  void pastDeadlineFiresOnNextTick() {
+    TimerWheel<String> wheel = new TimerWheel<>(1, 3, 0);
+    wheel.advance(100);
+    wheel.schedule("late", 10);
+
+    assertTrue(wheel.advance(100).isEmpty());
+    assertEquals(List.of("late"), wheel.advance(101));
+  }
+
+  @Test
+  void cancelledTimerNeverFires() {
+    TimerWheel<String> wheel = new TimerWheel<>(1, 3, 0);
+    wheel.schedule("near", 10);
+    wheel.schedule("far", LEVEL_2 * 2);
+
+    assertTrue(wheel.cancel("near"));
+    assertTrue(wheel.cancel("far"));
+    assertFalse(wheel.cancel("far"));
+    assertEquals(0, wheel.size());
+    assertTrue(wheel.advance(LEVEL_2 * 3).isEmpty());
+  }
+
+  @Test
+  void cancelAfterCascadeRemovesTimerFromLowerLevel() {
+    TimerWheel<String> wheel = new TimerWheel<>(1, 3, 0);
+    wheel.schedule("key", LEVEL_2 + 5);
+    // Таймер перенесен с уровня 1 на уровень 0
+    assertTrue(wheel.advance(LEVEL_2).isEmpty());
+
+    assertTrue(wheel.cancel("key"));
+    assertTrue(wheel.advance(LEVEL_2 * 2).isEmpty());
+  }
+
+  @Test
+  void rescheduleReplacesPreviousDeadline() {
+    TimerWheel<String> wheel = new TimerWheel<>(1, 3, 0);
+    wheel.schedule("key", LEVEL_2 * 2);
+    wheel.schedule("key", 30);
+
+    assertEquals(1, wheel.size());
+    assertEquals(Map.of("key", 30L), advanceOneTickAtATime(wheel, 40));
+
+    wheel.schedule("key", LEVEL_1 * 3);
+    wheel.schedule("key", LEVEL_2 + 1);
+    assertEquals(
+      Map.of("key", LEVEL_2 + 1),
+      advanceOneTickAtATime(wheel, LEVEL_2 * 2)
+    );
+  }
+
+  @Test
+  void rejectsInvalidConfiguration() {
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new TimerWheel<>(0, 3, 0)
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new TimerWheel<>(1, 0, 0)
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new TimerWheel<>(1, 11, 0)
+    );
+  }
+
+  /**
+   * Проворачивает колесо с шагом 1 мс и запоминает момент срабатывания каждого ключа.
+   */
+  private static <K> Map<K, Long> advanceOneTickAtATime(
+    TimerWheel<K> wheel,
+    long untilMillis
+  ) {
+    Map<K, Long> fired = new HashMap<>();
+    List<K> duplicates = new ArrayList<>();
+    for (long now = 0; now <= untilMillis; now++) {
+      for (K key : wheel.advance(now)) {
+        if (fired.put(key, now) != null) {
+          duplicates.add(key);
+        }
+      }
+    }
+    assertTrue(duplicates.isEmpty(), "Fired twice: " + duplicates);
+    return fired;
+  }
+}
@@ -0,0 +1,85 @@
+package sbp.transfer.service.limit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import sbp.transfer.entity.Transfer;
+import sbp.transfer.repository.SenderLimitBucketRepository;
+
+class SenderLimitServiceTest {
+
+  private static final String SENDER = "79001112233";
+  private static final BigDecimal LIMIT = new BigDecimal("1000.00");
+
+  private SenderLimitBucketRepository repository;
+  private SenderLimitService service;
+  private LocalDateTime hour;
+
+  @BeforeEach
+  void setUp() {
+    repository = mock(SenderLimitBucketRepository.class);
+    service = new SenderLimitService(repository, LIMIT);
+    hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+  }
+
+  @Test
+  void senderIsLockedBeforeConditionalUpsertOverLastDay() {
+    BigDecimal amount = new BigDecimal("600.00");
+    when(
+      repository.addAmountWithinLimit(any(), any(), any(), any(), any())
+    ).thenReturn(1);
+
+    assertTrue(service.tryReserve(SENDER, amount, hour.plusMinutes(30)));
+
+    // Блокировка до проверки: параллельная проверка того же отправителя ждет фиксации
+    InOrder inOrder = inOrder(repository);
+    inOrder.verify(repository).lockSender(SENDER);
+    inOrder
+      .verify(repository)
+      .addAmountWithinLimit(SENDER, hour, hour.minusHours(23), amount, LIMIT);
+  }
+
+  @Test
+  void rejectedUpsertExceedsLimit() {
+    when(
+      repository.addAmountWithinLimit(any(), any(), any(), any(), any())
+    ).thenReturn(0);
+
+    assertFalse(service.tryReserve(SENDER, new BigDecimal("0.01"), hour));
+    verify(repository, never()).addAmount(any(), any(), any());
+  }
+
+  @Test
+  void releaseSubtractsFromBucketOfTransferOnlyInsideWindow() {
+    service.release(transfer(hour.plusMinutes(10)));
+    service.release(transfer(hour.minusHours(24)));
+
+    verify(repository).addAmount(
+      SENDER,
+      hour,
+      new BigDecimal("250.00").negate()
+    );
+    verify(repository, never()).addAmount(
+      eq(SENDER),
+      eq(hour.minusHours(24)),
+      any()
+    );
+    verify(repository, never()).lockSender(any());
+  }
+
+  private static Transfer transfer(LocalDateTime createdAt) {
+    Transfer transfer = new Transfer();
+    transfer.setSenderPhoneNumber(SENDER);
+    transfer.setAmount(new BigDecimal("250.00"));
+    transfer.setCreatedAt(createdAt);
+    return transfer;
+  }
+}